@@ -0,0 +1,27 @@
+package horn.sat.solver.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected by the usual JMH command line options, always with the GC profiler enabled, so every
+ * result also reports the allocation rate and the number of allocated bytes per operation.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        try {
+            new Runner(new OptionsBuilder()
+                    .parent(new CommandLineOptions(args))
+                    .addProfiler(GCProfiler.class)
+                    .build()).run();
+        } catch (CommandLineOptionException e) {
+            System.err.printf("Invalid benchmark options: %s%n", e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package horn.sat.solver.benchmarks;
+
+import horn.sat.solver.generator.FormulaGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generated formula shared by all benchmarks, stored in a temporary file. The parameters span formulas from a thousand
+ * to ten million clauses of every generated family, both satisfiable and unsatisfiable.
+ */
+@State(Scope.Benchmark)
+public class GeneratedFormula {
+
+    private static final long SEED = 42;
+
+    @Param({"CHAIN", "FAN_IN", "RANDOM_HORN"})
+    public FormulaGenerator.Family family;
+
+    @Param({"true", "false"})
+    public boolean satisfiable;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int clauseCount;
+
+    public Path path;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        path = Files.createTempFile("horn-benchmark-", ".txt");
+        try (final BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            new FormulaGenerator(SEED).write(family, clauseCount, satisfiable, writer);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,94 @@
+package horn.sat.solver.benchmarks;
+
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.ParallelSolver;
+import horn.sat.solver.Solver;
+import horn.sat.solver.generator.FormulaGenerator;
+import horn.sat.solver.parsers.ParserFactory;
+import horn.sat.solver.util.SolverResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the speedup of the parallel solver over the sequential one with a growing number of threads, on wide
+ * fan-out formulas whose levels hold up to an eighth of all atoms. The sequential solver is the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ParallelSolverBenchmark {
+
+    private static final long SEED = 42;
+
+    @State(Scope.Benchmark)
+    public static class WideFormula {
+
+        @Param({"1000000", "10000000"})
+        public int clauseCount;
+
+        public HornFormula hornFormula;
+
+        @Setup(Level.Trial)
+        public void generate() throws IOException {
+            final Path path = Files.createTempFile("horn-benchmark-", ".txt");
+            try {
+                try (final BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                    new FormulaGenerator(SEED).write(FormulaGenerator.Family.FAN_OUT, clauseCount, true, writer);
+                }
+                hornFormula = ParserFactory.getParser(Optional.of(path)).parse();
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        @Param({"1", "2", "4", "8", "16", "32", "64"})
+        public int threads;
+
+        public ParallelSolver solver;
+
+        @Setup(Level.Trial)
+        public void start() {
+            solver = new ParallelSolver(threads);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            solver.close();
+        }
+    }
+
+    @Benchmark
+    public SolverResult sequential(final WideFormula formula) {
+        return Solver.solve(formula.hornFormula);
+    }
+
+    @Benchmark
+    public SolverResult parallel(final WideFormula formula, final Pool pool) {
+        return pool.solver.run(formula.hornFormula);
+    }
+}
@@ -0,0 +1,53 @@
+package horn.sat.solver.benchmarks;
+
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.Solver;
+import horn.sat.solver.parsers.ParserFactory;
+import horn.sat.solver.util.SolverResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures solving an already parsed formula and rendering the verdict of an already solved formula.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SolverBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ParsedFormula {
+        public HornFormula hornFormula;
+        public SolverResult result;
+
+        @Setup(Level.Trial)
+        public void parse(final GeneratedFormula formula) {
+            hornFormula = ParserFactory.getParser(Optional.of(formula.path)).parse();
+            result = Solver.solve(hornFormula);
+        }
+    }
+
+    @Benchmark
+    public SolverResult solve(final ParsedFormula formula) {
+        return Solver.solve(formula.hornFormula);
+    }
+
+    @Benchmark
+    public String getVerdict(final ParsedFormula formula) {
+        return formula.result.getVerdict();
+    }
+}
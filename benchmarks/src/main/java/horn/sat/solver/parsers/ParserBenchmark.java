@@ -0,0 +1,69 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.HornClause;
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.benchmarks.GeneratedFormula;
+import horn.sat.solver.exceptions.InvalidFormulaException;
+import horn.sat.solver.util.SolveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing single clauses and whole files. Located in the parsers package, since the file parsers are only
+ * constructed by the {@link ParserFactory}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ParserBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class FormulaLines {
+        public List<String> lines;
+        public FileParser fileParser;
+        public MappedFileParser mappedFileParser;
+
+        @Setup(Level.Trial)
+        public void read(final GeneratedFormula formula) throws IOException {
+            lines = Files.readAllLines(formula.path, StandardCharsets.UTF_8);
+            fileParser = new FileParser(formula.path);
+            mappedFileParser = new MappedFileParser(formula.path, SolveContext.unlimited());
+        }
+    }
+
+    @Benchmark
+    public void parseHornClause(final FormulaLines formula, final Blackhole blackhole) throws InvalidFormulaException {
+        for (final String line : formula.lines) {
+            final HornClause clause = formula.fileParser.parseHornClause(line);
+            blackhole.consume(clause);
+        }
+    }
+
+    @Benchmark
+    public HornFormula fileParserParse(final FormulaLines formula) {
+        return formula.fileParser.parse();
+    }
+
+    @Benchmark
+    public HornFormula mappedFileParserParse(final FormulaLines formula) {
+        return formula.mappedFileParser.parse();
+    }
+}
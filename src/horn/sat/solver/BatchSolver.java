@@ -0,0 +1,229 @@
+package horn.sat.solver;
+
+import horn.sat.solver.util.ResultCache;
+import horn.sat.solver.util.SolveContext;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Solves a batch of Horn Formulas within a single JVM using a pool of worker threads.
+ *
+ * A batch is either a directory (every regular file in it is an instance), a glob pattern such as
+ * 'formulas/*.txt' (every matching file is an instance), or a single file containing several formulas that are
+ * separated by lines consisting of '---'. Every worker thread keeps its own {@link SolverWorker}, whose reader and
+ * solver are reused for all instances the worker processes. The verdicts are written in the order of the instances.
+ *
+ * Every instance is read and solved within the limits of its own {@link SolveContext}, an instance exceeding a limit is
+ * answered with an UNKNOWN verdict while the remaining instances are solved as usual.
+ */
+public class BatchSolver {
+
+    // Line separating two formulas in a multi-formula file. It is not a valid clause, hence it cannot be ambiguous.
+    static final String SEPARATOR = "---";
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final int threads;
+    private final Supplier<SolveContext> contexts;
+    private final ResultCache cache;
+
+    public BatchSolver(final int threads) {
+        this(threads, SolveContext::unlimited);
+    }
+
+    public BatchSolver(final int threads, final Supplier<SolveContext> contexts) {
+        this(threads, contexts, null);
+    }
+
+    /**
+     * @param threads number of worker threads
+     * @param contexts creates the context of an instance when the instance is started
+     * @param cache cache of results shared by all worker threads, or null to solve every instance
+     */
+    public BatchSolver(final int threads, final Supplier<SolveContext> contexts, final ResultCache cache) {
+        this.threads = threads;
+        this.contexts = contexts;
+        this.cache = cache;
+    }
+
+    /**
+     * Solves all instances of the given batch and writes one verdict per instance.
+     *
+     * @param source directory, glob pattern or multi-formula file describing the batch
+     * @param writer writer the verdicts are written to
+     * @return number of solved instances
+     * @throws IOException thrown if the batch cannot be listed or the verdicts cannot be written
+     */
+    public int run(final String source, final Writer writer) throws IOException {
+        final long start = System.nanoTime();
+        final List<Instance> instances = listInstances(source);
+        final ThreadLocal<SolverWorker> workers = ThreadLocal.withInitial(() -> new SolverWorker(cache));
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+
+        try {
+            final List<ForkJoinTask<String>> tasks = new ArrayList<>(instances.size());
+            for (final Instance instance : instances) {
+                tasks.add(pool.submit(() -> solve(workers.get(), instance, contexts.get())));
+            }
+
+            for (int i = 0; i < tasks.size(); i++) {
+                writer.write("# ");
+                writer.write(instances.get(i).name());
+                writer.write("\n");
+                writer.write(tasks.get(i).join());
+                writer.write("\n");
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Solved %d instances in %.3f s (%.1f instances/s)%n",
+                instances.size(), seconds, instances.size() / Math.max(seconds, 1e-9));
+        return instances.size();
+    }
+
+    private static String solve(final SolverWorker worker, final Instance instance, final SolveContext context) {
+        if (instance.path() != null) {
+            return worker.solve(instance.path(), context);
+        }
+        return worker.solve(instance.buffer(), instance.from(), instance.to(), instance.firstLine(), context);
+    }
+
+    private static List<Instance> listInstances(final String source) throws IOException {
+        if (isGlob(source)) {
+            return globInstances(source);
+        }
+
+        final Path path = Path.of(source);
+        if (Files.isDirectory(path)) {
+            try (final Stream<Path> files = Files.list(path)) {
+                return files
+                        .filter(Files::isRegularFile)
+                        .sorted()
+                        .map(file -> new Instance(file.toString(), file, null, 0, 0, 1))
+                        .collect(Collectors.toList());
+            }
+        }
+        return splitInstances(path);
+    }
+
+    private static boolean isGlob(final String source) {
+        return source.chars().anyMatch(character -> GLOB_CHARACTERS.indexOf(character) >= 0);
+    }
+
+    /**
+     * Lists all files matching the given glob pattern. The search starts in the deepest directory of the pattern that
+     * does not contain any glob characters.
+     */
+    private static List<Instance> globInstances(final String pattern) throws IOException {
+        final String separator = FileSystems.getDefault().getSeparator();
+        int firstGlobCharacter = 0;
+        while (firstGlobCharacter < pattern.length() && GLOB_CHARACTERS.indexOf(pattern.charAt(firstGlobCharacter)) < 0) {
+            firstGlobCharacter++;
+        }
+        final int baseEnd = pattern.lastIndexOf(separator, firstGlobCharacter);
+        final Path base = baseEnd < 0 ? Path.of("") : Path.of(pattern.substring(0, baseEnd + 1));
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+
+        try (final Stream<Path> files = Files.walk(base)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .map(file -> new Instance(file.toString(), file, null, 0, 0, 1))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Splits a multi-formula file into its formulas. The file is memory-mapped once and shared by all workers, every
+     * instance only refers to its range of lines.
+     */
+    private static List<Instance> splitInstances(final Path path) throws IOException {
+        final List<Instance> instances = new ArrayList<>();
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Multi-formula file '%s' exceeds the maximum size of 2 GB", path));
+            }
+            final int size = (int) channel.size();
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int instanceStart = 0;
+            long instanceLine = 1;
+            long line = 1;
+            int lineStart = 0;
+            while (lineStart < size) {
+                int lineEnd = lineStart;
+                while (lineEnd < size && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                final int next = Math.min(lineEnd + 1, size);
+
+                if (isSeparator(buffer, lineStart, lineEnd)) {
+                    if (instanceStart < lineStart) {
+                        instances.add(instance(path, buffer, instances.size(), instanceStart, lineStart, instanceLine));
+                    }
+                    instanceStart = next;
+                    instanceLine = line + 1;
+                }
+                line++;
+                lineStart = next;
+            }
+            if (instanceStart < size) {
+                instances.add(instance(path, buffer, instances.size(), instanceStart, size, instanceLine));
+            }
+        }
+        return instances;
+    }
+
+    private static Instance instance(final Path path, final MappedByteBuffer buffer, final int index, final int from,
+                                     final int to, final long firstLine) {
+        return new Instance(String.format("%s[%d]", path, index), null, buffer, from, to, firstLine);
+    }
+
+    /**
+     * Determines whether the line stored in the given buffer between 'start' and 'end' separates two formulas.
+     */
+    static boolean isSeparator(final ByteBuffer buffer, final int start, final int end) {
+        int from = start;
+        int to = end;
+        while (from < to && Character.isWhitespace(buffer.get(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(buffer.get(to - 1))) {
+            to--;
+        }
+        if (to - from != SEPARATOR.length()) {
+            return false;
+        }
+        for (int i = 0; i < SEPARATOR.length(); i++) {
+            if (buffer.get(from + i) != SEPARATOR.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Formula of a batch, either a whole file or a range of lines within a shared multi-formula buffer.
+     */
+    private record Instance(String name, Path path, MappedByteBuffer buffer, int from, int to, long firstLine) {
+    }
+}
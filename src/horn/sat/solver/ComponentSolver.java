@@ -0,0 +1,259 @@
+package horn.sat.solver;
+
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.OccurrenceIndex;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.Model;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverMetrics;
+import horn.sat.solver.util.SolverResult;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Solves a Horn Formula component by component, based on its {@link Decomposition}.
+ *
+ * The components share no atoms and no clauses, so they are solved independently of each other by the threads of a
+ * {@link ForkJoinPool}. Small components are grouped into tasks of a few thousand clauses. Within a component, the
+ * SCCs are propagated in topological order: the clauses implying an atom of an SCC are only inspected once all SCCs
+ * they depend on are complete, and the atoms they mark are propagated before the next SCC is started. Every component
+ * marks its own atoms in a shared array, so the minimal models of the components are merged without any copying.
+ *
+ * The formula is unsatisfiable if any component derives '⊥'. All components are solved nonetheless, which reveals
+ * every component that decides the verdict. A solver instance owns its pool, which is shut down by {@link #close()}.
+ */
+public class ComponentSolver implements AutoCloseable {
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+    // Number of clauses below which a range of components is solved by a single task
+    private static final int GRAIN = 1 << 12;
+    // Number of clause visits between two checks of the solve context's deadline
+    private static final int CHECK_INTERVAL = 1 << 14;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism number of threads solving components
+     */
+    public ComponentSolver(final int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public Solved run(final HornFormula hornFormula) {
+        return run(hornFormula, SolveContext.unlimited());
+    }
+
+    /**
+     * Decomposes and solves the given formula within the limits of the given context.
+     *
+     * @param hornFormula formula whose satisfiability should be determined
+     * @param context limits of the run
+     * @return the result of the formula, along with its decomposition and the components deriving '⊥'
+     */
+    public Solved run(final HornFormula hornFormula, final SolveContext context) {
+        try {
+            context.checkSize(hornFormula.getClauseCount(), hornFormula.getClauseStore().getPremiseCount(),
+                    hornFormula.getSymbolTable().size());
+            final long startNanos = System.nanoTime();
+            final long startAllocated = SolverMetrics.isEnabled() ? SolverMetrics.allocatedBytes() : 0;
+            final Decomposition decomposition = Decomposition.of(hornFormula, context);
+            final Propagation propagation = new Propagation(decomposition, context);
+            pool.invoke(propagation.new ComponentTask(0, decomposition.getComponentCount()));
+            if (SolverMetrics.isEnabled()) {
+                SolverMetrics.get().recordSolve(startNanos, startAllocated, propagation.propagatedAtoms.get(),
+                        propagation.visitedClauses.get(), propagation.maxQueued.get());
+            }
+            return propagation.result();
+        } catch (LimitExceededException e) {
+            return new Solved(SolverResult.unknown(e.getMessage()), null, new int[0]);
+        }
+    }
+
+    /**
+     * Shuts down the pool of the solver, waiting for running tasks is not necessary as every run waits for its tasks.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Result of a formula solved component by component.
+     *
+     * @param result result of the whole formula
+     * @param decomposition decomposition of the formula, null if a limit was exceeded before it was complete
+     * @param unsatComponents components deriving '⊥' in ascending order, empty unless the formula is unsatisfiable
+     */
+    public record Solved(SolverResult result, Decomposition decomposition, int[] unsatComponents) {
+    }
+
+    /**
+     * Working data of a single run.
+     */
+    private static final class Propagation {
+
+        private final Decomposition decomposition;
+        private final ClauseStore store;
+        private final OccurrenceIndex occurrences;
+        private final SolveContext context;
+        // Every component only writes the entries of its own atoms and clauses
+        private final boolean[] marked;
+        private final int[] unmarkedPremises;
+        private final boolean[] unsatComponents;
+        private final AtomicLong propagatedAtoms = new AtomicLong();
+        private final AtomicLong visitedClauses = new AtomicLong();
+        // Largest number of atoms waiting in the queue of a single component at once
+        private final LongAccumulator maxQueued = new LongAccumulator(Math::max, 0);
+
+        private Propagation(final Decomposition decomposition, final SolveContext context) {
+            final HornFormula hornFormula = decomposition.getHornFormula();
+            this.decomposition = decomposition;
+            this.store = hornFormula.getClauseStore();
+            this.occurrences = decomposition.getOccurrences();
+            this.context = context;
+            this.marked = new boolean[hornFormula.getSymbolTable().size()];
+            this.unmarkedPremises = new int[store.getClauseCount()];
+            this.unsatComponents = new boolean[decomposition.getComponentCount()];
+        }
+
+        private Solved result() {
+            int unsatCount = 0;
+            for (final boolean unsat : unsatComponents) {
+                unsatCount += unsat ? 1 : 0;
+            }
+            if (unsatCount > 0) {
+                final int[] components = new int[unsatCount];
+                int next = 0;
+                for (int component = 0; component < unsatComponents.length; component++) {
+                    if (unsatComponents[component]) {
+                        components[next++] = component;
+                    }
+                }
+                return new Solved(SolverResult.unsat(), decomposition, components);
+            }
+
+            final SymbolTable symbolTable = decomposition.getHornFormula().getSymbolTable();
+            final Model model = new Model(symbolTable, symbolTable.size());
+            marked[VERUM] = true;
+            for (int atom = 0; atom < symbolTable.size(); atom++) {
+                if (symbolTable.isInterned(atom)) {
+                    model.assign(atom, marked[atom]);
+                }
+            }
+            return new Solved(SolverResult.sat(model), decomposition, new int[0]);
+        }
+
+        /**
+         * Propagates the given component and records whether it derives '⊥'.
+         *
+         * @param pending queue of the component's marked atoms, large enough for all of its atoms
+         */
+        private void solve(final int component, final int[] pending) {
+            int head = 0;
+            int tail = 0;
+            long visits = 0;
+            int maxQueued = 0;
+            int steps = CHECK_INTERVAL;
+
+            // '⊤' is marked from the start, so it is not counted as an unmarked premise
+            for (int i = decomposition.getClauseStart(component); i < decomposition.getClauseEnd(component); i++) {
+                final int clause = decomposition.getClause(i);
+                int premiseCount = 0;
+                for (int j = store.getPremiseStart(clause); j < store.getPremiseEnd(clause); j++) {
+                    premiseCount += store.getPremise(j) != VERUM ? 1 : 0;
+                }
+                unmarkedPremises[clause] = premiseCount;
+                if (premiseCount == 0 && store.getHead(clause) == FALSUM) {
+                    unsatComponents[component] = true;
+                    return;
+                }
+            }
+
+            for (int i = decomposition.getSccStart(component); i < decomposition.getSccEnd(component); i++) {
+                final int scc = decomposition.getSccAt(i);
+
+                // All SCCs the clauses implying this SCC depend on are complete, so their counters are final unless
+                // they also depend on this SCC
+                for (int j = decomposition.getHeadClauseStart(scc); j < decomposition.getHeadClauseEnd(scc); j++) {
+                    final int clause = decomposition.getHeadClause(j);
+                    final int impliedAtom = store.getHead(clause);
+                    if (unmarkedPremises[clause] == 0 && !marked[impliedAtom]) {
+                        marked[impliedAtom] = true;
+                        pending[tail++] = impliedAtom;
+                    }
+                }
+
+                while (head < tail) {
+                    maxQueued = Math.max(maxQueued, tail - head);
+                    final int atom = pending[head++];
+
+                    steps -= occurrences.getEnd(atom) - occurrences.getStart(atom);
+                    if (steps <= 0) {
+                        context.checkTime();
+                        steps = CHECK_INTERVAL;
+                    }
+                    visits += occurrences.getEnd(atom) - occurrences.getStart(atom);
+
+                    for (int j = occurrences.getStart(atom); j < occurrences.getEnd(atom); j++) {
+                        final int clause = occurrences.getClause(j);
+                        if (--unmarkedPremises[clause] == 0) {
+                            final int impliedAtom = store.getHead(clause);
+                            if (impliedAtom == FALSUM) {
+                                unsatComponents[component] = true;
+                                propagatedAtoms.addAndGet(head);
+                                visitedClauses.addAndGet(visits);
+                                this.maxQueued.accumulate(maxQueued);
+                                return;
+                            }
+                            // Atoms of later SCCs are marked once their SCC is started
+                            if (impliedAtom != VERUM && decomposition.getScc(impliedAtom) == scc
+                                    && !marked[impliedAtom]) {
+                                marked[impliedAtom] = true;
+                                pending[tail++] = impliedAtom;
+                            }
+                        }
+                    }
+                }
+            }
+            propagatedAtoms.addAndGet(head);
+            visitedClauses.addAndGet(visits);
+            this.maxQueued.accumulate(maxQueued);
+        }
+
+        /**
+         * Solves a range of components, splitting it as long as it holds more than {@value #GRAIN} clauses.
+         */
+        private final class ComponentTask extends RecursiveAction {
+            private final int from;
+            private final int to;
+
+            private ComponentTask(final int from, final int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > 1 && decomposition.getClauseEnd(to - 1) - decomposition.getClauseStart(from) > GRAIN) {
+                    final int middle = (from + to) >>> 1;
+                    invokeAll(new ComponentTask(from, middle), new ComponentTask(middle, to));
+                    return;
+                }
+
+                context.checkTime();
+                int largest = 0;
+                for (int component = from; component < to; component++) {
+                    largest = Math.max(largest, decomposition.getComponentAtomCount(component));
+                }
+                final int[] pending = new int[largest];
+                for (int component = from; component < to; component++) {
+                    solve(component, pending);
+                }
+            }
+        }
+    }
+}
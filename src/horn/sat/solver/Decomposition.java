@@ -0,0 +1,388 @@
+package horn.sat.solver;
+
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.OccurrenceIndex;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.SolveContext;
+
+/**
+ * Splits the dependency graph of a Horn Formula, which has an edge from every premise of a clause to the clause's
+ * implied atom, into its connected components and into its strongly connected components (SCCs).
+ *
+ * Two atoms belong to the same component if they are connected by clauses, regardless of the direction. The truth
+ * value constants do not connect the clauses they occur in, so the components of a formula that consists of unrelated
+ * rule sets are exactly these rule sets. Every clause belongs to the component of its atoms, clauses without any atom
+ * other than '⊤' and '⊥' belong to component 0, the component of the constants. Hence, the minimal model of a formula
+ * is the union of the minimal models of its components, and the formula is unsatisfiable if any of them derives '⊥'.
+ *
+ * The SCCs are numbered in topological order, so the premises of a clause belong to the SCC of its implied atom or to
+ * an SCC with a smaller number. Propagating the SCCs of a component in this order only propagates an atom once all of
+ * the SCCs it can depend on are complete.
+ *
+ * All parts of the decomposition are stored in compressed sparse row layout, like the {@link ClauseStore}, and are
+ * computed in time linear in the size of the formula: the components by union-find, the SCCs by an iterative version
+ * of Tarjan's algorithm.
+ */
+public class Decomposition {
+
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+    // Number of loop iterations between two checks of the solve context's deadline
+    private static final int CHECK_INTERVAL = 1 << 14;
+
+    private final HornFormula hornFormula;
+    private final OccurrenceIndex occurrences;
+    private final int[] componentOfAtom;
+    private final int[] sccOfAtom;
+    // Atoms of component c lie between atomOffsets[c] and atomOffsets[c+1] of atoms
+    private final int[] atomOffsets;
+    private final int[] atoms;
+    // Clauses of component c lie between clauseOffsets[c] and clauseOffsets[c+1] of clauses
+    private final int[] clauseOffsets;
+    private final int[] clauses;
+    // SCCs of component c in topological order lie between sccOffsets[c] and sccOffsets[c+1] of sccs
+    private final int[] sccOffsets;
+    private final int[] sccs;
+    // Clauses implying an atom of SCC s lie between headOffsets[s] and headOffsets[s+1] of headClauses
+    private final int[] headOffsets;
+    private final int[] headClauses;
+    private final int largestSccSize;
+
+    private Decomposition(final HornFormula hornFormula, final OccurrenceIndex occurrences, final int[] componentOfAtom,
+                          final int[] sccOfAtom, final int[] atomOffsets, final int[] atoms, final int[] clauseOffsets,
+                          final int[] clauses, final int[] sccOffsets, final int[] sccs, final int[] headOffsets,
+                          final int[] headClauses, final int largestSccSize) {
+        this.hornFormula = hornFormula;
+        this.occurrences = occurrences;
+        this.componentOfAtom = componentOfAtom;
+        this.sccOfAtom = sccOfAtom;
+        this.atomOffsets = atomOffsets;
+        this.atoms = atoms;
+        this.clauseOffsets = clauseOffsets;
+        this.clauses = clauses;
+        this.sccOffsets = sccOffsets;
+        this.sccs = sccs;
+        this.headOffsets = headOffsets;
+        this.headClauses = headClauses;
+        this.largestSccSize = largestSccSize;
+    }
+
+    public static Decomposition of(final HornFormula hornFormula) {
+        return of(hornFormula, SolveContext.unlimited());
+    }
+
+    /**
+     * Decomposes the given formula within the time limit of the given context.
+     *
+     * @param hornFormula formula to be decomposed
+     * @param context limits of the decomposition, the deadline is checked every few thousand steps
+     * @return the components and SCCs of the formula
+     */
+    public static Decomposition of(final HornFormula hornFormula, final SolveContext context) {
+        final ClauseStore store = hornFormula.getClauseStore();
+        final int atomCount = hornFormula.getSymbolTable().size();
+        final int clauseCount = store.getClauseCount();
+
+        // Components: union-find over the atoms of every clause, the constants are never united with other atoms
+        final int[] parent = new int[atomCount];
+        for (int atom = 0; atom < atomCount; atom++) {
+            parent[atom] = atom;
+        }
+        for (int clause = 0; clause < clauseCount; clause++) {
+            if ((clause & (CHECK_INTERVAL - 1)) == 0) {
+                context.checkTime();
+            }
+            int root = isConstant(store.getHead(clause)) ? -1 : find(parent, store.getHead(clause));
+            for (int i = store.getPremiseStart(clause); i < store.getPremiseEnd(clause); i++) {
+                if (!isConstant(store.getPremise(i))) {
+                    final int premiseRoot = find(parent, store.getPremise(i));
+                    if (root == -1) {
+                        root = premiseRoot;
+                    } else if (premiseRoot != root) {
+                        // Uniting the larger id into the smaller one keeps every root the smallest atom of its set
+                        parent[Math.max(root, premiseRoot)] = Math.min(root, premiseRoot);
+                        root = Math.min(root, premiseRoot);
+                    }
+                }
+            }
+        }
+
+        // Components are numbered in the order of their smallest atom, component 0 holds both constants
+        final int[] componentOfAtom = new int[atomCount];
+        int componentCount = 1;
+        for (int atom = 0; atom < atomCount; atom++) {
+            componentOfAtom[atom] = isConstant(atom) ? 0
+                    : find(parent, atom) == atom ? componentCount++ : componentOfAtom[find(parent, atom)];
+        }
+
+        final int[] atomOffsets = new int[componentCount + 1];
+        final int[] atoms = new int[atomCount];
+        for (int atom = 0; atom < atomCount; atom++) {
+            atomOffsets[componentOfAtom[atom] + 1]++;
+        }
+        prefixSums(atomOffsets);
+        final int[] nextAtom = atomOffsets.clone();
+        for (int atom = 0; atom < atomCount; atom++) {
+            atoms[nextAtom[componentOfAtom[atom]]++] = atom;
+        }
+
+        final int[] clauseOffsets = new int[componentCount + 1];
+        final int[] clauses = new int[clauseCount];
+        for (int clause = 0; clause < clauseCount; clause++) {
+            clauseOffsets[componentOf(store, componentOfAtom, clause) + 1]++;
+        }
+        prefixSums(clauseOffsets);
+        final int[] nextClause = clauseOffsets.clone();
+        for (int clause = 0; clause < clauseCount; clause++) {
+            clauses[nextClause[componentOf(store, componentOfAtom, clause)]++] = clause;
+        }
+
+        // SCCs: Tarjan's algorithm completes an SCC only after all SCCs reachable from it, i.e. in reverse topological
+        // order, hence the SCCs are numbered backwards from the last id
+        final OccurrenceIndex occurrences = OccurrenceIndex.of(store, atomCount);
+        final int[] sccOfAtom = new int[atomCount];
+        final int sccCount = tarjan(store, occurrences, atomCount, sccOfAtom, context);
+        final int[] sccSizes = new int[sccCount];
+        int largestSccSize = 0;
+        for (int atom = 0; atom < atomCount; atom++) {
+            if (!isConstant(atom)) {
+                sccOfAtom[atom] += sccCount;
+                largestSccSize = Math.max(largestSccSize, ++sccSizes[sccOfAtom[atom]]);
+            }
+        }
+
+        // The SCCs of every component in ascending, i.e. topological, order
+        final int[] sccOffsets = new int[componentCount + 1];
+        final int[] sccs = new int[sccCount];
+        final int[] componentOfScc = new int[sccCount];
+        for (int atom = 0; atom < atomCount; atom++) {
+            if (!isConstant(atom)) {
+                componentOfScc[sccOfAtom[atom]] = componentOfAtom[atom];
+            }
+        }
+        for (int scc = 0; scc < sccCount; scc++) {
+            sccOffsets[componentOfScc[scc] + 1]++;
+        }
+        prefixSums(sccOffsets);
+        final int[] nextScc = sccOffsets.clone();
+        for (int scc = 0; scc < sccCount; scc++) {
+            sccs[nextScc[componentOfScc[scc]]++] = scc;
+        }
+
+        // Clauses grouped by the SCC of their implied atom, clauses implying a constant are not part of any SCC
+        final int[] headOffsets = new int[sccCount + 1];
+        for (int clause = 0; clause < clauseCount; clause++) {
+            if (!isConstant(store.getHead(clause))) {
+                headOffsets[sccOfAtom[store.getHead(clause)] + 1]++;
+            }
+        }
+        prefixSums(headOffsets);
+        final int[] headClauses = new int[headOffsets[sccCount]];
+        final int[] nextHeadClause = headOffsets.clone();
+        for (int clause = 0; clause < clauseCount; clause++) {
+            if (!isConstant(store.getHead(clause))) {
+                headClauses[nextHeadClause[sccOfAtom[store.getHead(clause)]]++] = clause;
+            }
+        }
+
+        return new Decomposition(hornFormula, occurrences, componentOfAtom, sccOfAtom, atomOffsets, atoms, clauseOffsets,
+                clauses, sccOffsets, sccs, headOffsets, headClauses, largestSccSize);
+    }
+
+    /**
+     * Assigns every regular atom the number of its SCC in the order of completion, minus the number of SCCs. The
+     * recursion of Tarjan's algorithm is replaced by an explicit stack, so deep dependency chains do not overflow the
+     * thread's stack.
+     *
+     * @return number of SCCs
+     */
+    private static int tarjan(final ClauseStore store, final OccurrenceIndex occurrences, final int atomCount,
+                              final int[] sccOfAtom, final SolveContext context) {
+        // Order of discovery starting at 1, 0 if the atom has not been discovered yet
+        final int[] index = new int[atomCount];
+        final int[] lowLink = new int[atomCount];
+        // Position of the next outgoing edge of every atom on the call stack
+        final int[] nextEdge = new int[atomCount];
+        final int[] callStack = new int[atomCount];
+        final int[] sccStack = new int[atomCount];
+        int calls = 0;
+        int sccStackSize = 0;
+        int discovered = 0;
+        int completed = 0;
+        int steps = CHECK_INTERVAL;
+
+        for (int root = VERUM + 1; root < atomCount; root++) {
+            if (index[root] != 0) {
+                continue;
+            }
+            index[root] = lowLink[root] = ++discovered;
+            nextEdge[root] = occurrences.getStart(root);
+            sccOfAtom[root] = 1; // on the SCC stack until its SCC is complete
+            sccStack[sccStackSize++] = root;
+            callStack[calls++] = root;
+
+            while (calls > 0) {
+                if (--steps == 0) {
+                    context.checkTime();
+                    steps = CHECK_INTERVAL;
+                }
+                final int atom = callStack[calls - 1];
+                if (nextEdge[atom] < occurrences.getEnd(atom)) {
+                    final int successor = store.getHead(occurrences.getClause(nextEdge[atom]++));
+                    if (isConstant(successor)) {
+                        continue;
+                    }
+                    if (index[successor] == 0) {
+                        index[successor] = lowLink[successor] = ++discovered;
+                        nextEdge[successor] = occurrences.getStart(successor);
+                        sccOfAtom[successor] = 1;
+                        sccStack[sccStackSize++] = successor;
+                        callStack[calls++] = successor;
+                    } else if (sccOfAtom[successor] == 1) {
+                        lowLink[atom] = Math.min(lowLink[atom], index[successor]);
+                    }
+                    continue;
+                }
+
+                calls--;
+                if (lowLink[atom] == index[atom]) {
+                    // The SCCs are numbered from -1 downwards, which keeps them apart from the 'on stack' flag
+                    completed++;
+                    int member;
+                    do {
+                        member = sccStack[--sccStackSize];
+                        sccOfAtom[member] = -completed;
+                    } while (member != atom);
+                }
+                if (calls > 0) {
+                    final int caller = callStack[calls - 1];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[atom]);
+                }
+            }
+        }
+        return completed;
+    }
+
+    private static int find(final int[] parent, int atom) {
+        while (parent[atom] != atom) {
+            parent[atom] = parent[parent[atom]]; // path halving
+            atom = parent[atom];
+        }
+        return atom;
+    }
+
+    /**
+     * @return the component of the clause's implied atom, of its first regular premise if it implies a constant, or 0
+     *  if it only consists of constants
+     */
+    private static int componentOf(final ClauseStore store, final int[] componentOfAtom, final int clause) {
+        if (!isConstant(store.getHead(clause))) {
+            return componentOfAtom[store.getHead(clause)];
+        }
+        for (int i = store.getPremiseStart(clause); i < store.getPremiseEnd(clause); i++) {
+            if (!isConstant(store.getPremise(i))) {
+                return componentOfAtom[store.getPremise(i)];
+            }
+        }
+        return 0;
+    }
+
+    private static void prefixSums(final int[] offsets) {
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+    }
+
+    static boolean isConstant(final int atom) {
+        return atom == FALSUM || atom == VERUM;
+    }
+
+    public HornFormula getHornFormula() {
+        return this.hornFormula;
+    }
+
+    OccurrenceIndex getOccurrences() {
+        return this.occurrences;
+    }
+
+    /**
+     * @return number of components, including component 0 of the constants and components of atoms without clauses
+     */
+    public int getComponentCount() {
+        return this.atomOffsets.length - 1;
+    }
+
+    public int getComponent(final int atom) {
+        return this.componentOfAtom[atom];
+    }
+
+    public int getComponentAtomCount(final int component) {
+        return this.atomOffsets[component + 1] - this.atomOffsets[component];
+    }
+
+    /**
+     * @return the atom of the component with the smallest id, i.e. the atom of the component that appeared first
+     */
+    public int getFirstAtom(final int component) {
+        return this.atoms[this.atomOffsets[component]];
+    }
+
+    public int getComponentClauseCount(final int component) {
+        return this.clauseOffsets[component + 1] - this.clauseOffsets[component];
+    }
+
+    int getClauseStart(final int component) {
+        return this.clauseOffsets[component];
+    }
+
+    int getClauseEnd(final int component) {
+        return this.clauseOffsets[component + 1];
+    }
+
+    int getClause(final int index) {
+        return this.clauses[index];
+    }
+
+    /**
+     * @return number of SCCs of the regular atoms, the constants are not part of any SCC
+     */
+    public int getSccCount() {
+        return this.sccs.length;
+    }
+
+    /**
+     * @param atom regular atom, i.e. neither '⊤' nor '⊥'
+     * @return number of the atom's SCC in topological order
+     */
+    public int getScc(final int atom) {
+        return this.sccOfAtom[atom];
+    }
+
+    public int getLargestSccSize() {
+        return this.largestSccSize;
+    }
+
+    int getSccStart(final int component) {
+        return this.sccOffsets[component];
+    }
+
+    int getSccEnd(final int component) {
+        return this.sccOffsets[component + 1];
+    }
+
+    int getSccAt(final int index) {
+        return this.sccs[index];
+    }
+
+    int getHeadClauseStart(final int scc) {
+        return this.headOffsets[scc];
+    }
+
+    int getHeadClauseEnd(final int scc) {
+        return this.headOffsets[scc + 1];
+    }
+
+    int getHeadClause(final int index) {
+        return this.headClauses[index];
+    }
+}
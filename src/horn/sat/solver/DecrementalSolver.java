@@ -0,0 +1,349 @@
+package horn.sat.solver;
+
+import horn.sat.solver.atoms.IAtom;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.IntList;
+import horn.sat.solver.util.Model;
+import horn.sat.solver.util.SolverResult;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stateful solver for a Horn Formula whose clauses can be added and removed again.
+ *
+ * Every marked atom remembers the clause that marked it (its support). Since a clause can only fire once all of its
+ * premises are marked, the supports form an acyclic justification graph. Removing a clause is handled in two phases,
+ * similar to the DRed algorithm known from incremental view maintenance and justification-based truth maintenance:
+ * <ol>
+ *     <li>Over-deletion: if the removed clause supports its implied atom, that atom is unmarked, as well as every
+ *     atom whose support has an unmarked premise, transitively.</li>
+ *     <li>Rederivation: every unmarked atom that is still implied by a clause whose premises are all marked is marked
+ *     again, and the consequences are propagated as usual.</li>
+ * </ol>
+ * Only atoms whose justification depends on the removed clause are touched, all other atoms keep their truth value.
+ */
+public class DecrementalSolver {
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+
+    // Support of atoms that are not marked by a clause, i.e. ⊤ and unmarked atoms
+    private static final int NO_SUPPORT = -1;
+
+    private final SymbolTable symbolTable = new SymbolTable();
+
+    // Clauses in compressed sparse row layout, removed clauses keep their storage so clause handles stay valid
+    private final IntList premises = new IntList();
+    private final IntList premiseOffsets = new IntList();
+    private final IntList heads = new IntList();
+    private final BitSet removed = new BitSet();
+    private int removedCount = 0;
+    // Number of removed clauses that have already been dropped from the occurrence lists
+    private int compactedCount = 0;
+
+    // Number of premises of each clause that are not yet marked. A clause fires once its counter drops to zero.
+    private final IntList unmarkedPremises = new IntList();
+
+    // Indexed by atom id: clauses in whose conjunction the atom occurs (once per occurrence), and clauses implying
+    // the atom. Removed clauses are skipped and dropped from the lists once they make up half of all clauses.
+    private IntList[] occurrences = new IntList[16];
+    private IntList[] implyingClauses = new IntList[16];
+
+    private boolean[] marked = new boolean[16];
+    private int[] support = new int[16];
+    // Number of clause positions referring to an atom, only referenced atoms are part of the formula
+    private int[] references = new int[16];
+
+    private final IntList pending = new IntList();
+
+    public DecrementalSolver() {
+        premiseOffsets.add(0);
+        Arrays.fill(support, NO_SUPPORT);
+        marked[VERUM] = true;
+    }
+
+    /**
+     * Adds a clause to the formula and propagates its consequences.
+     *
+     * @param clause clause to be added
+     * @return handle of the clause, which can be used to remove it again
+     */
+    public int addClause(final HornClause clause) {
+        for (final IAtom atom : clause.getConjunction()) {
+            premises.add(symbolTable.intern(atom));
+        }
+        final int head = symbolTable.intern(clause.getImpliedAtom());
+        ensureAtomCapacity(symbolTable.size());
+
+        final int index = heads.size();
+        final int start = premiseOffsets.get(index);
+        final int end = premises.size();
+        heads.add(head);
+        premiseOffsets.add(end);
+        list(implyingClauses, head).add(index);
+        references[head]++;
+
+        int unmarked = 0;
+        for (int i = start; i < end; i++) {
+            final int atom = premises.get(i);
+            list(occurrences, atom).add(index);
+            references[atom]++;
+
+            if (!marked[atom]) {
+                unmarked++;
+            }
+        }
+        unmarkedPremises.add(unmarked);
+
+        if (unmarked == 0) {
+            mark(head, index);
+            propagate();
+        }
+        return index;
+    }
+
+    /**
+     * Removes the clause with the given handle and updates the minimal model accordingly.
+     *
+     * @param handle handle returned when the clause was added
+     * @throws IllegalArgumentException thrown if there is no clause with this handle or if it was already removed
+     */
+    public void removeClause(final int handle) {
+        if (handle < 0 || handle >= heads.size() || removed.get(handle)) {
+            throw new IllegalArgumentException(String.format("There is no clause with handle '%d'", handle));
+        }
+
+        removed.set(handle);
+        removedCount++;
+
+        references[heads.get(handle)]--;
+        for (int i = premiseOffsets.get(handle); i < premiseOffsets.get(handle + 1); i++) {
+            references[premises.get(i)]--;
+        }
+
+        final int head = heads.get(handle);
+        if (marked[head] && support[head] == handle) {
+            rederive(overDelete(head));
+        }
+
+        final int staleCount = removedCount - compactedCount;
+        if (staleCount > 1024 && staleCount * 2 > heads.size() - compactedCount) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes a clause that is equal to the given one, see {@link HornClause#equals(Object)}.
+     *
+     * @param clause clause to be removed
+     * @return 'true' if a matching clause was found and removed, 'false' otherwise
+     */
+    public boolean removeClause(final HornClause clause) {
+        final int head = symbolTable.lookup(clause.getImpliedAtom());
+        if (head < 0 || implyingClauses[head] == null) {
+            return false;
+        }
+
+        final Set<Integer> conjunction = new HashSet<>();
+        for (final IAtom atom : clause.getConjunction()) {
+            final int id = symbolTable.lookup(atom);
+            if (id < 0) {
+                return false;
+            }
+            conjunction.add(id);
+        }
+
+        final IntList candidates = implyingClauses[head];
+        for (int i = 0; i < candidates.size(); i++) {
+            final int candidate = candidates.get(i);
+
+            if (!removed.get(candidate) && conjunction.equals(premiseSet(candidate))) {
+                removeClause(candidate);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isSatisfiable() {
+        return !marked[FALSUM];
+    }
+
+    /**
+     * Determines whether the given atom is true in the minimal model of the current formula.
+     *
+     * @param atom atom to be checked
+     * @return 'true' if the atom is marked, 'false' otherwise
+     */
+    public boolean isTrue(final IAtom atom) {
+        final int id = symbolTable.lookup(atom);
+        return id >= 0 && marked[id];
+    }
+
+    /**
+     * Returns the result for the formula consisting of all clauses that are currently part of it.
+     *
+     * @return the unsat result, or the minimal model of the formula if it is satisfiable
+     */
+    public SolverResult getResult() {
+        if (marked[FALSUM]) {
+            return SolverResult.unsat();
+        }
+
+        final Model model = new Model(symbolTable, symbolTable.size());
+
+        for (int atom = 0; atom < symbolTable.size(); atom++) {
+            if (references[atom] > 0) {
+                model.assign(atom, marked[atom]);
+            }
+        }
+
+        return SolverResult.sat(model);
+    }
+
+    /**
+     * Unmarks the given atom and, transitively, all atoms whose support has an unmarked premise.
+     *
+     * @return all atoms that have been unmarked
+     */
+    private IntList overDelete(final int atom) {
+        final IntList unmarked = new IntList();
+        unmark(atom, unmarked);
+
+        for (int next = 0; next < unmarked.size(); next++) {
+            final IntList clauses = occurrences[unmarked.get(next)];
+
+            if (clauses == null) {
+                continue;
+            }
+
+            for (int i = 0; i < clauses.size(); i++) {
+                final int clause = clauses.get(i);
+
+                if (removed.get(clause)) {
+                    continue;
+                }
+                unmarkedPremises.set(clause, unmarkedPremises.get(clause) + 1);
+
+                final int head = heads.get(clause);
+                if (marked[head] && support[head] == clause) {
+                    unmark(head, unmarked);
+                }
+            }
+        }
+        return unmarked;
+    }
+
+    /**
+     * Marks every given atom again that is implied by a clause whose premises are all marked, and propagates the
+     * consequences. Atoms that are only derivable through other rederived atoms are found by the propagation.
+     */
+    private void rederive(final IntList unmarked) {
+        for (int i = 0; i < unmarked.size(); i++) {
+            final int atom = unmarked.get(i);
+            final IntList clauses = implyingClauses[atom];
+
+            for (int j = 0; clauses != null && j < clauses.size() && !marked[atom]; j++) {
+                final int clause = clauses.get(j);
+
+                if (!removed.get(clause) && unmarkedPremises.get(clause) == 0) {
+                    mark(atom, clause);
+                }
+            }
+        }
+        propagate();
+    }
+
+    private void propagate() {
+        for (int next = 0; next < pending.size(); next++) {
+            final IntList clauses = occurrences[pending.get(next)];
+
+            if (clauses == null) {
+                continue;
+            }
+
+            for (int i = 0; i < clauses.size(); i++) {
+                final int clause = clauses.get(i);
+
+                if (removed.get(clause)) {
+                    continue;
+                }
+
+                final int unmarked = unmarkedPremises.get(clause) - 1;
+                unmarkedPremises.set(clause, unmarked);
+
+                if (unmarked == 0) {
+                    mark(heads.get(clause), clause);
+                }
+            }
+        }
+        pending.clear();
+    }
+
+    private void mark(final int atom, final int clause) {
+        if (!marked[atom]) {
+            marked[atom] = true;
+            support[atom] = clause;
+            pending.add(atom);
+        }
+    }
+
+    private void unmark(final int atom, final IntList unmarked) {
+        marked[atom] = false;
+        support[atom] = NO_SUPPORT;
+        unmarked.add(atom);
+    }
+
+    private Set<Integer> premiseSet(final int clause) {
+        final Set<Integer> atoms = new HashSet<>();
+        for (int i = premiseOffsets.get(clause); i < premiseOffsets.get(clause + 1); i++) {
+            atoms.add(premises.get(i));
+        }
+        return atoms;
+    }
+
+    /**
+     * Drops all removed clauses from the occurrence lists and the lists of implying clauses.
+     */
+    private void compact() {
+        for (final IntList[] lists : List.of(occurrences, implyingClauses)) {
+            for (final IntList clauses : lists) {
+                if (clauses == null) {
+                    continue;
+                }
+
+                int size = 0;
+                for (int i = 0; i < clauses.size(); i++) {
+                    if (!removed.get(clauses.get(i))) {
+                        clauses.set(size++, clauses.get(i));
+                    }
+                }
+                clauses.truncate(size);
+            }
+        }
+        compactedCount = removedCount;
+    }
+
+    private static IntList list(final IntList[] lists, final int atom) {
+        if (lists[atom] == null) {
+            lists[atom] = new IntList(4);
+        }
+        return lists[atom];
+    }
+
+    private void ensureAtomCapacity(final int atomCount) {
+        if (atomCount > marked.length) {
+            final int capacity = Math.max(atomCount, marked.length * 2);
+            final int oldCapacity = marked.length;
+            marked = Arrays.copyOf(marked, capacity);
+            occurrences = Arrays.copyOf(occurrences, capacity);
+            implyingClauses = Arrays.copyOf(implyingClauses, capacity);
+            references = Arrays.copyOf(references, capacity);
+            support = Arrays.copyOf(support, capacity);
+            Arrays.fill(support, oldCapacity, capacity, NO_SUPPORT);
+        }
+    }
+}
@@ -21,6 +21,10 @@ public class HornClause {
         this.impliedAtom = impliedAtom;
     }
 
+    public Collection<IAtom> getConjunction() {
+        return this.conjunction;
+    }
+
     public IAtom getImpliedAtom() {
         return this.impliedAtom;
     }
@@ -71,6 +75,12 @@ public class HornClause {
         return conjunctionAtoms.equals(otherConjunctionAtoms);
     }
 
+    @Override
+    public int hashCode() {
+        // Consistent with equals: the hash of a set does not depend on the order or the cardinality of the atoms
+        return 31 * this.impliedAtom.hashCode() + new HashSet<>(this.conjunction).hashCode();
+    }
+
     @Override
     public String toString() {
         final String formattedConjunction = conjunction
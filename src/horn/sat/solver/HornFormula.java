@@ -1,9 +1,12 @@
 package horn.sat.solver;
 
 import horn.sat.solver.atoms.IAtom;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
 
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Optional;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -11,13 +14,44 @@ import java.util.Set;
  *
  * Horn formulas are a special subset of propositional logic formulas that have the following form:
  *  (P1 ∧ P2 ∧ ... ∧ Pn => P*) ∧ (Q1 ∧ Q2 ∧ ... ∧ Qn => Q*) ∧ .... ∧ (Z1 ∧ Z2 ∧ ... ∧ Zn => Z*)
+ *
+ * Internally, every atom is interned to an integer id and all clauses are kept in a flat {@link ClauseStore}.
  */
 public class HornFormula {
 
-    private final Set<HornClause> clauses; // All clauses are implicitly connected via a logical conjunction
+    private final SymbolTable symbolTable;
+    private final ClauseStore clauseStore; // All clauses are implicitly connected via a logical conjunction
 
     public HornFormula(final Set<HornClause> clauses) {
-        this.clauses = clauses;
+        final SymbolTable symbolTable = new SymbolTable();
+        final ClauseStore.Builder builder = new ClauseStore.Builder(clauses.size());
+
+        for (final HornClause clause : clauses) {
+            for (final IAtom atom : clause.getConjunction()) {
+                builder.addPremise(symbolTable.intern(atom));
+            }
+            builder.completeClause(symbolTable.intern(clause.getImpliedAtom()));
+        }
+
+        this.symbolTable = symbolTable;
+        this.clauseStore = builder.build();
+    }
+
+    public HornFormula(final SymbolTable symbolTable, final ClauseStore clauseStore) {
+        this.symbolTable = symbolTable;
+        this.clauseStore = clauseStore;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return this.symbolTable;
+    }
+
+    public ClauseStore getClauseStore() {
+        return this.clauseStore;
+    }
+
+    public int getClauseCount() {
+        return this.clauseStore.getClauseCount();
     }
 
     /**
@@ -28,24 +62,28 @@ public class HornFormula {
     public Set<IAtom> getAllContainedAtoms() {
         final Set<IAtom> allAtoms = new HashSet<>();
 
-        for (final HornClause clause : this.clauses) {
-            allAtoms.addAll(clause.getAllAtoms());
+        for (int id = 0; id < symbolTable.size(); id++) {
+            if (symbolTable.isInterned(id)) {
+                allAtoms.add(symbolTable.toAtom(id));
+            }
         }
 
         return allAtoms;
     }
 
     /**
-     * Return a clause that evaluates to false under the specified configuration.
+     * Materializes the clause with the given index.
      *
-     * @param configuration all atoms contained in the configuration are assigned the truth value 'true'. All other
-     *                      atoms implicitly assume the value 'false'.
-     * @return An unsat clause if it exists, Optional.empty() otherwise.
+     * @param index index of the clause in the clause store
+     * @return the clause with the given index
      */
-    public Optional<HornClause> getUnsatClause(final Set<IAtom> configuration) {
-        return this.clauses
-                .stream()
-                .filter(clause -> !clause.satisfiedByGivenConfiguration(configuration))
-                .findAny();
+    public HornClause getClause(final int index) {
+        final List<IAtom> conjunction = new ArrayList<>();
+
+        for (int i = clauseStore.getPremiseStart(index); i < clauseStore.getPremiseEnd(index); i++) {
+            conjunction.add(symbolTable.toAtom(clauseStore.getPremise(i)));
+        }
+
+        return new HornClause(conjunction, symbolTable.toAtom(clauseStore.getHead(index)));
     }
 }
@@ -0,0 +1,347 @@
+package horn.sat.solver;
+
+import horn.sat.solver.atoms.IAtom;
+import horn.sat.solver.atoms.Verum;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.IntList;
+import horn.sat.solver.util.Model;
+import horn.sat.solver.util.SolverResult;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Stateful solver that determines the satisfiability of a Horn Formula that grows clause by clause.
+ *
+ * In contrast to {@link Solver}, the marked atoms, the per-clause counters of unmarked premises and the occurrence
+ * lists are kept between calls. Since marking is monotone, a new clause can only mark additional atoms: adding a
+ * clause therefore costs time proportional to the size of the clause plus the clauses that fire as a consequence of
+ * it, independent of the size of the formula that has been added so far.
+ *
+ * Clauses can be added within scopes that are opened with {@link #push()}. All atoms marked within a scope are
+ * recorded on a trail, so {@link #pop()} can undo exactly the propagation that happened inside the scope and remove
+ * the scope's clauses again, without copying or re-solving the formula.
+ */
+public class IncrementalSolver {
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+
+    private final SymbolTable symbolTable = new SymbolTable();
+
+    // Clauses in compressed sparse row layout, the premises of clause c are stored between premiseOffsets[c] and
+    // premiseOffsets[c+1]
+    private final IntList premises = new IntList();
+    private final IntList premiseOffsets = new IntList();
+    private final IntList heads = new IntList();
+
+    // Number of premises of each clause that are not yet marked. A clause fires once its counter drops to zero.
+    private final IntList unmarkedPremises = new IntList();
+    // Clauses in which an atom occurs as an unmarked premise, indexed by atom id. Lists are created on demand.
+    private IntList[] occurrences = new IntList[16];
+    private boolean[] marked = new boolean[16];
+    // Number of clause positions referring to an atom, only referenced atoms are part of the formula
+    private int[] references = new int[16];
+
+    // Atoms that have been marked, but whose consequences have not been propagated yet
+    private final IntList pending = new IntList();
+
+    // Atoms marked while at least one scope is open, in the order in which they have been marked
+    private final IntList trail = new IntList();
+    // Size of the trail and number of clauses at the time each open scope has been pushed
+    private final IntList scopeTrailSizes = new IntList();
+    private final IntList scopeClauseCounts = new IntList();
+
+    public IncrementalSolver() {
+        premiseOffsets.add(0);
+        marked[VERUM] = true;
+    }
+
+    /**
+     * Adds a clause to the formula and propagates its consequences.
+     *
+     * @param clause clause to be added
+     */
+    public void addClause(final HornClause clause) {
+        appendClause(clause);
+        propagate();
+    }
+
+    /**
+     * Adds several clauses to the formula and propagates their consequences.
+     *
+     * @param clauses clauses to be added
+     */
+    public void addClauses(final Collection<HornClause> clauses) {
+        for (final HornClause clause : clauses) {
+            appendClause(clause);
+        }
+        propagate();
+    }
+
+    /**
+     * Adds all clauses of the given formula and propagates their consequences.
+     *
+     * @param hornFormula formula whose clauses are added
+     */
+    public void addFormula(final HornFormula hornFormula) {
+        final SymbolTable formulaSymbols = hornFormula.getSymbolTable();
+        final ClauseStore store = hornFormula.getClauseStore();
+
+        // Maps the atom ids of the formula to the atom ids of this solver
+        final int[] ids = new int[formulaSymbols.size()];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = formulaSymbols.isInterned(id) ? symbolTable.intern(formulaSymbols, id) : id;
+        }
+
+        for (int clause = 0; clause < store.getClauseCount(); clause++) {
+            for (int i = store.getPremiseStart(clause); i < store.getPremiseEnd(clause); i++) {
+                premises.add(ids[store.getPremise(i)]);
+            }
+            completeClause(ids[store.getHead(clause)]);
+        }
+        propagate();
+    }
+
+    /**
+     * Assumes the given atom to be true by adding the fact '1 -> atom'. Within a scope, the assumption is retracted
+     * again once the scope is popped.
+     *
+     * @param atom atom assumed to be true
+     */
+    public void assume(final IAtom atom) {
+        addClause(new HornClause(List.of(Verum.getInstance()), atom));
+    }
+
+    /**
+     * Solves the formula under the given assumptions, i.e. as if the fact '1 -> a' was added for every assumed atom a.
+     * The assumptions are only in effect for this call.
+     *
+     * @param assumptions atoms assumed to be true
+     * @return the result of the formula extended by the assumptions
+     */
+    public SolverResult solve(final Collection<IAtom> assumptions) {
+        return underAssumptions(assumptions, this::getResult);
+    }
+
+    /**
+     * Determines whether the formula is satisfiable under the given assumptions. Only the consequences of the
+     * assumptions are propagated and undone again, hence the cost only depends on the affected part of the formula.
+     *
+     * @param assumptions atoms assumed to be true
+     * @return 'true' if the formula extended by the assumptions is satisfiable, 'false' otherwise
+     */
+    public boolean isSatisfiable(final Collection<IAtom> assumptions) {
+        return underAssumptions(assumptions, this::isSatisfiable);
+    }
+
+    /**
+     * Adds the fact '1 -> a' for every assumed atom a within a new scope, propagates them and computes the given result
+     * before the scope is popped again.
+     *
+     * @param assumptions atoms assumed to be true
+     * @param result computes the result while the assumptions are in effect
+     * @return the computed result
+     */
+    private <T> T underAssumptions(final Collection<IAtom> assumptions, final Supplier<T> result) {
+        push();
+        try {
+            for (final IAtom atom : assumptions) {
+                appendClause(new HornClause(List.of(Verum.getInstance()), atom));
+            }
+            propagate();
+            return result.get();
+        } finally {
+            pop();
+        }
+    }
+
+    /**
+     * Opens a new scope. All clauses added and all atoms marked from now on are undone by the matching {@link #pop()}.
+     */
+    public void push() {
+        scopeTrailSizes.add(trail.size());
+        scopeClauseCounts.add(heads.size());
+    }
+
+    /**
+     * Closes the innermost scope: every atom marked within the scope is unmarked again and all clauses added within the
+     * scope are removed. The cost is proportional to the propagation that happened inside the scope.
+     *
+     * @throws IllegalStateException thrown if no scope is open
+     */
+    public void pop() {
+        if (scopeTrailSizes.isEmpty()) {
+            throw new IllegalStateException("There is no open scope that could be popped");
+        }
+
+        final int trailSize = scopeTrailSizes.removeLast();
+        final int clauseCount = scopeClauseCounts.removeLast();
+
+        // Unmarking an atom restores the counters of all clauses it has decremented when it was propagated
+        while (trail.size() > trailSize) {
+            final int atom = trail.removeLast();
+            marked[atom] = false;
+
+            final IntList clauses = occurrences[atom];
+            if (clauses != null) {
+                for (int i = 0; i < clauses.size(); i++) {
+                    final int clause = clauses.get(i);
+                    unmarkedPremises.set(clause, unmarkedPremises.get(clause) + 1);
+                }
+            }
+        }
+
+        // Occurrence lists are ordered by clause index, hence the entries of the removed clauses are at their ends
+        for (int clause = heads.size() - 1; clause >= clauseCount; clause--) {
+            for (int i = premiseOffsets.get(clause); i < premiseOffsets.get(clause + 1); i++) {
+                final int atom = premises.get(i);
+                final IntList clauses = occurrences[atom];
+
+                if (clauses != null && !clauses.isEmpty() && clauses.get(clauses.size() - 1) == clause) {
+                    clauses.removeLast();
+                }
+                references[atom]--;
+            }
+            references[heads.get(clause)]--;
+        }
+
+        premises.truncate(premiseOffsets.get(clauseCount));
+        premiseOffsets.truncate(clauseCount + 1);
+        heads.truncate(clauseCount);
+        unmarkedPremises.truncate(clauseCount);
+    }
+
+    public int getScopeDepth() {
+        return scopeTrailSizes.size();
+    }
+
+    public boolean isSatisfiable() {
+        return !marked[FALSUM];
+    }
+
+    /**
+     * Determines whether the given atom is true in the minimal model of the current formula.
+     *
+     * @param atom atom to be checked
+     * @return 'true' if the atom is marked, 'false' otherwise
+     */
+    public boolean isTrue(final IAtom atom) {
+        final int id = symbolTable.lookup(atom);
+        return id >= 0 && marked[id];
+    }
+
+    public int getClauseCount() {
+        return heads.size();
+    }
+
+    /**
+     * Returns the result for the formula consisting of all clauses added so far.
+     *
+     * @return the unsat result, or the minimal model of the formula if it is satisfiable
+     */
+    public SolverResult getResult() {
+        if (marked[FALSUM]) {
+            return SolverResult.unsat();
+        }
+
+        final Model model = new Model(symbolTable, symbolTable.size());
+
+        for (int atom = 0; atom < symbolTable.size(); atom++) {
+            if (references[atom] > 0) {
+                model.assign(atom, marked[atom]);
+            }
+        }
+
+        return SolverResult.sat(model);
+    }
+
+    private void appendClause(final HornClause clause) {
+        for (final IAtom atom : clause.getConjunction()) {
+            premises.add(symbolTable.intern(atom));
+        }
+        completeClause(symbolTable.intern(clause.getImpliedAtom()));
+    }
+
+    /**
+     * Completes the clause whose premises have been appended last. Only premises that are not yet marked are counted
+     * and indexed, marked premises never have to be looked at again.
+     */
+    private void completeClause(final int head) {
+        ensureAtomCapacity(symbolTable.size());
+
+        final int clause = heads.size();
+        final int start = premiseOffsets.get(clause);
+        final int end = premises.size();
+        heads.add(head);
+        premiseOffsets.add(end);
+        references[head]++;
+
+        int unmarked = 0;
+        for (int i = start; i < end; i++) {
+            final int atom = premises.get(i);
+            references[atom]++;
+
+            if (!marked[atom]) {
+                if (occurrences[atom] == null) {
+                    occurrences[atom] = new IntList(4);
+                }
+                occurrences[atom].add(clause);
+                unmarked++;
+            }
+        }
+        unmarkedPremises.add(unmarked);
+
+        if (unmarked == 0) {
+            mark(head);
+        }
+    }
+
+    private void propagate() {
+        for (int next = 0; next < pending.size(); next++) {
+            final int atom = pending.get(next);
+            final IntList clauses = occurrences[atom];
+
+            if (clauses == null) {
+                continue;
+            }
+            if (scopeTrailSizes.isEmpty()) {
+                // Outside of any scope the atom stays marked forever, hence its occurrences are never visited again
+                occurrences[atom] = null;
+            }
+
+            for (int i = 0; i < clauses.size(); i++) {
+                final int clause = clauses.get(i);
+                final int unmarked = unmarkedPremises.get(clause) - 1;
+                unmarkedPremises.set(clause, unmarked);
+
+                if (unmarked == 0) {
+                    mark(heads.get(clause));
+                }
+            }
+        }
+        pending.clear();
+    }
+
+    private void mark(final int atom) {
+        if (!marked[atom]) {
+            marked[atom] = true;
+            pending.add(atom);
+
+            if (!scopeTrailSizes.isEmpty()) {
+                trail.add(atom);
+            }
+        }
+    }
+
+    private void ensureAtomCapacity(final int atomCount) {
+        if (atomCount > marked.length) {
+            final int capacity = Math.max(atomCount, marked.length * 2);
+            marked = Arrays.copyOf(marked, capacity);
+            occurrences = Arrays.copyOf(occurrences, capacity);
+            references = Arrays.copyOf(references, capacity);
+        }
+    }
+}
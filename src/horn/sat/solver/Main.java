@@ -1,50 +1,395 @@
 package horn.sat.solver;
 
+import horn.sat.solver.atoms.Atom;
+import horn.sat.solver.atoms.Falsum;
+import horn.sat.solver.atoms.IAtom;
+import horn.sat.solver.atoms.Verum;
+import horn.sat.solver.exceptions.InvalidFormulaException;
 import horn.sat.solver.exceptions.InvalidInputException;
+import horn.sat.solver.exceptions.LimitExceededException;
 import horn.sat.solver.parsers.Parser;
 import horn.sat.solver.parsers.ParserFactory;
+import horn.sat.solver.parsers.StreamingFileParser;
+import horn.sat.solver.store.BinaryFormat;
+import horn.sat.solver.store.OffHeapClauseStore;
+import horn.sat.solver.store.SymbolTable;
 import horn.sat.solver.util.CliParser;
+import horn.sat.solver.util.Fingerprint;
+import horn.sat.solver.util.ResultCache;
+import horn.sat.solver.util.ResultWriter;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverMetrics;
 import horn.sat.solver.util.SolverResult;
 
 import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Linear SAT solver for Horn Formulas.
  */
 public class Main {
 
+    private static final long DEFAULT_TIME_LIMIT_MILLIS = 10_000;
+    private static final int DEFAULT_SIZE_LIMIT_BYTES = 64 << 20;
+
     public static void main(String[] args) {
 
         final Map<String, String> options = new HashMap<>();
         try {
             options.putAll(CliParser.parseOptions(args));
         } catch (InvalidInputException e) {
-            System.err.println("Usage: Solver [-i INPUT_FILE] [-o OUTPUT_FILE]");
+            System.err.println("Usage: Solver [-i INPUT_FILE | -b BATCH] [-o OUTPUT_FILE] [-f human|jsonl|true-atoms|bitset] [-q] [-r all|STEP,...] [-e ATOM] [-x] [-d] [-w BINARY_FILE] [-p PARALLELISM] [-t TIME_LIMIT_MS] [-m MEMORY_LIMIT_MB] [-s PORT [-l SIZE_LIMIT_BYTES]] [--off-heap [--scratch DIRECTORY]] [--cache ENTRIES [--cache-file FILE]] [--stream] [--stats]");
             System.err.println(e.getMessage());
             System.exit(1);
         }
 
+        if (options.containsKey("stats")) {
+            SolverMetrics.enable();
+        }
+
         final Optional<Path> inputFilePath = Optional.ofNullable(options.get("inputFile")).map(Main::toPath);
         final Optional<Path> outputFilePath = Optional.ofNullable(options.get("outputFile")).map(Main::toPath);
+        final Optional<Integer> parallelismOption = Optional.ofNullable(options.get("parallelism")).map(Integer::parseInt);
+        final Optional<Long> timeLimitOption = Optional.ofNullable(options.get("timeLimit")).map(Long::parseLong);
+        final long memoryLimitBytes = Optional.ofNullable(options.get("memoryLimit")).map(Long::parseLong).orElse(0L) << 20;
 
-        final Parser parser = ParserFactory.getParser(inputFilePath);
-        final HornFormula hornFormula = parser.parse();
-        final SolverResult result = Solver.solve(hornFormula);
+        final Optional<Path> cacheFilePath = Optional.ofNullable(options.get("cacheFile")).map(Main::toPath);
+        final ResultCache cache = options.containsKey("cache")
+                ? loadCache(Integer.parseInt(options.get("cache")), cacheFilePath) : null;
 
-        try(final BufferedWriter writer = getOutputWriter(outputFilePath)) {
-            writer.write(result.getVerdict());
+        if (options.containsKey("serverPort")) {
+            runServer(Integer.parseInt(options.get("serverPort")),
+                    parallelismOption.orElse(Runtime.getRuntime().availableProcessors()),
+                    timeLimitOption.orElse(DEFAULT_TIME_LIMIT_MILLIS),
+                    Optional.ofNullable(options.get("sizeLimit")).map(Integer::parseInt).orElse(DEFAULT_SIZE_LIMIT_BYTES),
+                    memoryLimitBytes, cache, cacheFilePath);
+            return;
+        }
+
+        if (options.containsKey("batchInput")) {
+            runBatch(options.get("batchInput"), outputFilePath, parallelismOption.orElse(Runtime.getRuntime().availableProcessors()),
+                    () -> SolveContext.builder().timeLimit(timeLimitOption.orElse(0L)).maxMemory(memoryLimitBytes).build(),
+                    cache);
+            saveCache(cache, cacheFilePath);
+            printStats(options);
+            return;
+        }
+
+        final int parallelism = parallelismOption.orElse(1);
+        final SolveContext context = SolveContext.builder().timeLimit(timeLimitOption.orElse(0L)).maxMemory(memoryLimitBytes).build();
+
+        if (options.containsKey("offHeap")) {
+            final Optional<Path> scratchDirectory = Optional.ofNullable(options.get("scratchDirectory")).map(Main::toPath);
+            writeResult(solveOffHeap(inputFilePath, parallelism, scratchDirectory, context), options, outputFilePath);
+            return;
+        }
+
+        if (options.containsKey("stream")) {
+            final Optional<StreamingFileParser> streamingParser = ParserFactory.getStreamingParser(inputFilePath.get(), context);
+            if (streamingParser.isPresent()) {
+                writeResult(solveStreaming(streamingParser.get(), options.containsKey("verdictOnly"), context),
+                        options, outputFilePath);
+                return;
+            }
+        }
+
+        // An input file whose contents have been solved before is answered without being parsed
+        final Fingerprint content = cache != null && inputFilePath.isPresent() ? contentFingerprint(inputFilePath.get()) : null;
+        if (content != null) {
+            final Optional<SolverResult> cached = cache.getByContent(content);
+            if (cached.isPresent()) {
+                writeResult(cached.get(), options, outputFilePath);
+                return;
+            }
+        }
+
+        final Parser parser = ParserFactory.getParser(inputFilePath, parallelism, context);
+        final HornFormula hornFormula;
+        try {
+            hornFormula = parser.parse();
+        } catch (LimitExceededException e) {
+            writeResult(SolverResult.unknown(e.getMessage()), options, outputFilePath);
+            return;
+        }
+
+        final Fingerprint fingerprint = cache != null ? Fingerprint.of(hornFormula) : null;
+        if (fingerprint != null) {
+            final Optional<SolverResult> cached = cache.get(fingerprint);
+            if (cached.isPresent()) {
+                if (content != null) {
+                    cache.alias(content, fingerprint);
+                    saveCache(cache, cacheFilePath);
+                }
+                writeResult(cached.get(), options, outputFilePath);
+                return;
+            }
+        }
+
+        final Optional<Path> binaryOutputFilePath = Optional.ofNullable(options.get("binaryOutputFile")).map(Main::toPath);
+        if (binaryOutputFilePath.isPresent()) {
+            writeBinary(hornFormula, binaryOutputFilePath.get());
+        }
+
+        if (options.containsKey("query")) {
+            runQuery(hornFormula, options.get("query"), outputFilePath);
+            printStats(options);
+            return;
+        }
+
+        final SolverResult result;
+        if (options.containsKey("preprocessing")) {
+            final Set<Preprocessor.Step> steps = Arrays.stream(options.get("preprocessing").split(","))
+                    .map(Preprocessor.Step::valueOf)
+                    .collect(Collectors.toCollection(() -> EnumSet.noneOf(Preprocessor.Step.class)));
+            final Preprocessor.Preprocessed preprocessed = new Preprocessor(steps).run(hornFormula);
+            printPreprocessingReport(preprocessed);
+            result = preprocessed.complete(solve(preprocessed.formula(), options, parallelismOption, context));
+        } else {
+            result = solve(hornFormula, options, parallelismOption, context);
+        }
+        if (fingerprint != null) {
+            cache.put(fingerprint, content, result);
+            saveCache(cache, cacheFilePath);
+        }
+        writeResult(result, options, outputFilePath);
+    }
+
+    /**
+     * Creates the result cache, loading the saved results if a cache file is given. The cached results may take up a
+     * quarter of the heap. A cache file that cannot be loaded is replaced once the cache is saved.
+     */
+    private static ResultCache loadCache(final int maxEntries, final Optional<Path> cacheFilePath) {
+        final long maxBytes = Runtime.getRuntime().maxMemory() / 4;
+        if (cacheFilePath.isPresent()) {
+            try {
+                return ResultCache.load(cacheFilePath.get(), maxEntries, maxBytes);
+            } catch (IOException e) {
+                System.err.printf("Warning: ignoring result cache '%s': %s%n", cacheFilePath.get(), e.getMessage());
+            }
+        }
+        return new ResultCache(maxEntries, maxBytes);
+    }
+
+    private static void saveCache(final ResultCache cache, final Optional<Path> cacheFilePath) {
+        if (cache == null || cacheFilePath.isEmpty()) {
+            return;
+        }
+        try {
+            cache.save(cacheFilePath.get());
+        } catch (IOException e) {
+            System.err.printf("Error saving result cache '%s': %s%n", cacheFilePath.get(), e.getMessage());
+        }
+    }
+
+    private static Fingerprint contentFingerprint(final Path inputFilePath) {
+        try {
+            return Fingerprint.of(inputFilePath);
+        } catch (IOException e) {
+            System.err.printf("Error reading input file '%s': %s%n", inputFilePath, e.getMessage());
+            System.exit(1);
+        }
+        throw new RuntimeException(); // unreachable
+    }
+
+    /**
+     * Solves the formula component by component with the {@link ComponentSolver} if requested, using all cores unless
+     * the parallelism is given. Otherwise, the formula is solved with the {@link ParallelSolver} if more than one
+     * thread is requested. Unsat cores are only recorded by the sequential {@link Solver}.
+     */
+    private static SolverResult solve(final HornFormula hornFormula, final Map<String, String> options,
+                                      final Optional<Integer> parallelismOption, final SolveContext context) {
+        if (options.containsKey("decompose")) {
+            try (final ComponentSolver solver = new ComponentSolver(
+                    parallelismOption.orElse(Runtime.getRuntime().availableProcessors()))) {
+                final ComponentSolver.Solved solved = solver.run(hornFormula, context);
+                printDecompositionReport(solved);
+                return solved.result();
+            }
+        }
+
+        final int parallelism = parallelismOption.orElse(1);
+        final boolean unsatCore = options.containsKey("unsatCore");
+        if (parallelism == 1 || unsatCore) {
+            return new Solver(unsatCore).run(hornFormula, context);
+        }
+        try (final ParallelSolver solver = new ParallelSolver(parallelism)) {
+            return solver.run(hornFormula, context);
+        }
+    }
+
+    /**
+     * Solves the formula with the {@link OffHeapSolver}. A binary input file is mapped instead of being loaded, any
+     * other input is parsed and then copied off the heap.
+     */
+    private static SolverResult solveOffHeap(final Optional<Path> inputFilePath, final int parallelism,
+                                             final Optional<Path> scratchDirectory, final SolveContext context) {
+        try {
+            final OffHeapSolver solver = new OffHeapSolver(scratchDirectory.orElse(null));
+            if (inputFilePath.isPresent() && BinaryFormat.isBinary(inputFilePath.get())) {
+                final BinaryFormat.MappedContents contents = BinaryFormat.map(inputFilePath.get());
+                return solver.run(contents.symbolTable(), contents.clauseStore(), context);
+            }
+            final HornFormula hornFormula = ParserFactory.getParser(inputFilePath, parallelism, context).parse();
+            return solver.run(hornFormula.getSymbolTable(), OffHeapClauseStore.copyOf(hornFormula.getClauseStore()), context);
+        } catch (LimitExceededException e) {
+            return SolverResult.unknown(e.getMessage());
+        } catch (IOException e) {
+            System.err.printf("Error solving the formula off the heap: %s%n", e.getMessage());
+            System.exit(1);
+        }
+        throw new RuntimeException(); // unreachable
+    }
+
+    /**
+     * Solves the formula with the {@link StreamingSolver}. Errors of its reader thread are reported here, unless the
+     * formula has been found to be unsatisfiable before them.
+     */
+    private static SolverResult solveStreaming(final StreamingFileParser parser, final boolean stopOnUnsat,
+                                               final SolveContext context) {
+        try {
+            return new StreamingSolver(stopOnUnsat).run(parser, context);
+        } catch (InvalidFormulaException e) {
+            System.err.printf("Given formula is not a valid horn formula: %s", e.getMessage());
+            System.exit(1);
+        } catch (NoSuchFileException e) {
+            System.err.printf("File at path '%s' not found", e.getFile());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.printf("Error reading from the input file: %s%n", e.getMessage());
+            System.exit(1);
+        }
+        throw new RuntimeException(); // unreachable
+    }
+
+    private static void writeResult(final SolverResult result, final Map<String, String> options,
+                                    final Optional<Path> outputFilePath) {
+        final ResultWriter resultWriter = new ResultWriter(
+                Optional.ofNullable(options.get("outputFormat")).map(ResultWriter.OutputFormat::valueOf).orElse(ResultWriter.OutputFormat.HUMAN),
+                options.containsKey("verdictOnly"));
+
+        try(final WritableByteChannel channel = getOutputChannel(outputFilePath)) {
+            resultWriter.write(result, channel);
         } catch (IOException e) {
             System.err.printf("Error writing SAT result: %s", e.getMessage());
             System.exit(1);
         }
+        printStats(options);
+    }
+
+    private static void printStats(final Map<String, String> options) {
+        if (options.containsKey("stats")) {
+            System.err.printf("%nStatistics:%n%s", SolverMetrics.get().format());
+        }
+    }
+
+    private static void runQuery(final HornFormula hornFormula, final String symbol, final Optional<Path> outputFilePath) {
+        final IAtom atom = switch (symbol) {
+            case "0" -> Falsum.getInstance();
+            case "1" -> Verum.getInstance();
+            default -> new Atom(symbol);
+        };
+
+        try(final BufferedWriter writer = getOutputWriter(outputFilePath)) {
+            writer.write(String.format("Entailed: %b%n", new QuerySolver(hornFormula).isEntailed(atom)));
+        } catch (IOException e) {
+            System.err.printf("Error writing query result: %s", e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void printPreprocessingReport(final Preprocessor.Preprocessed preprocessed) {
+        System.err.printf("Preprocessing kept %d of %d clauses%n", preprocessed.formula().getClauseCount(),
+                preprocessed.originalClauseCount());
+        for (final Map.Entry<Preprocessor.Step, Integer> entry : preprocessed.removed().entrySet()) {
+            System.err.printf("  %s: %d %s removed%n", entry.getKey(), entry.getValue(),
+                    entry.getKey() == Preprocessor.Step.REDUNDANT_PREMISES ? "premises" : "clauses");
+        }
+    }
+
+    private static void printDecompositionReport(final ComponentSolver.Solved solved) {
+        final Decomposition decomposition = solved.decomposition();
+        if (decomposition == null) {
+            return;
+        }
+        int components = 0;
+        int largest = 0;
+        for (int component = 0; component < decomposition.getComponentCount(); component++) {
+            if (decomposition.getComponentClauseCount(component) > 0) {
+                components++;
+                largest = Math.max(largest, decomposition.getComponentClauseCount(component));
+            }
+        }
+        System.err.printf("Decomposition found %d components with clauses, the largest has %d clauses%n", components, largest);
+        System.err.printf("  %d strongly connected components, the largest has %d atoms%n", decomposition.getSccCount(),
+                decomposition.getLargestSccSize());
+        final SymbolTable symbolTable = decomposition.getHornFormula().getSymbolTable();
+        for (final int component : solved.unsatComponents()) {
+            if (component == 0) {
+                System.err.println("  ⊥ is derived by a clause without atoms");
+            } else {
+                System.err.printf("  ⊥ is derived by the component of '%s' with %d atoms and %d clauses%n",
+                        symbolTable.getSymbol(decomposition.getFirstAtom(component)),
+                        decomposition.getComponentAtomCount(component), decomposition.getComponentClauseCount(component));
+            }
+        }
+    }
+
+    private static void writeBinary(final HornFormula hornFormula, final Path binaryOutputFilePath) {
+        try {
+            BinaryFormat.write(hornFormula.getSymbolTable(), hornFormula.getClauseStore(), binaryOutputFilePath);
+        } catch (IOException e) {
+            System.err.printf("Error writing binary formula: %s%n", e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void runBatch(final String batchInput, final Optional<Path> outputFilePath, final int threads,
+                                 final Supplier<SolveContext> contexts, final ResultCache cache) {
+        try(final BufferedWriter writer = getOutputWriter(outputFilePath)) {
+            new BatchSolver(threads, contexts, cache).run(batchInput, writer);
+        } catch (IOException e) {
+            System.err.printf("Error solving batch '%s': %s%n", batchInput, e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void runServer(final int port, final int threads, final long timeLimitMillis, final int sizeLimitBytes,
+                                  final long memoryLimitBytes, final ResultCache cache, final Optional<Path> cacheFilePath) {
+        try (final SolverServer server = new SolverServer(port, threads, timeLimitMillis, sizeLimitBytes, memoryLimitBytes, cache)) {
+            // The server runs until the process is terminated
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> saveCache(cache, cacheFilePath)));
+            System.err.printf("Listening on port %d%n", server.getPort());
+            server.run();
+        } catch (IOException e) {
+            System.err.printf("Error running the solver server on port %d: %s%n", port, e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static WritableByteChannel getOutputChannel(final Optional<Path> outputFilePath) throws IOException {
+        if (outputFilePath.isPresent()) {
+            return FileChannel.open(outputFilePath.get(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        return new FileOutputStream(FileDescriptor.out).getChannel();
     }
 
     private static BufferedWriter getOutputWriter(final Optional<Path> outputFilePath) throws IOException {
@@ -0,0 +1,156 @@
+package horn.sat.solver;
+
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.store.OffHeapClauseStore;
+import horn.sat.solver.store.OffHeapIntArray;
+import horn.sat.solver.store.OffHeapOccurrenceIndex;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.Model;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Variant of the {@link Solver} for formulas that are too large for the Java heap.
+ *
+ * The solver runs the same unit propagation algorithm, but on an {@link OffHeapClauseStore}, and keeps all of its
+ * working data outside of the heap as well: the occurrence index, the counters of unmarked premises and the queue of
+ * pending atoms are stored in {@link OffHeapIntArray}s, and the marked atoms are the true atoms of an off-heap
+ * {@link Model}. Only the symbol table stays on the heap. Hence, the heap and the pause times of the garbage collector
+ * do not grow with the number of clauses.
+ *
+ * The working arrays are either allocated in direct buffers, which count against the JVM's limit of direct memory, or
+ * backed by temporary files in a scratch directory, which the operating system can page out. A new set of working
+ * arrays is allocated for every run.
+ */
+public class OffHeapSolver {
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+    // Number of clause visits between two checks of the solve context's deadline
+    private static final int CHECK_INTERVAL = 1 << 14;
+
+    private final Path scratchDirectory;
+
+    public OffHeapSolver() {
+        this(null);
+    }
+
+    /**
+     * @param scratchDirectory directory of the temporary files backing the working arrays, or null to allocate them in
+     *  direct buffers
+     */
+    public OffHeapSolver(final Path scratchDirectory) {
+        this.scratchDirectory = scratchDirectory;
+    }
+
+    /**
+     * Determines the satisfiability of the formula with the given symbol table and clauses.
+     *
+     * @param symbolTable symbol table of the formula
+     * @param store clauses of the formula
+     * @return the unsat result, or the minimal model of the formula if it is satisfiable
+     * @throws IOException thrown if the temporary files of the working arrays cannot be created
+     */
+    public SolverResult run(final SymbolTable symbolTable, final OffHeapClauseStore store) throws IOException {
+        return run(symbolTable, store, SolveContext.unlimited());
+    }
+
+    /**
+     * Determines the satisfiability of the formula with the given symbol table and clauses within the limits of the
+     * given context.
+     *
+     * @param symbolTable symbol table of the formula
+     * @param store clauses of the formula
+     * @param context limits of the run
+     * @return the unsat result, the minimal model of the formula if it is satisfiable, or an unknown result if a limit
+     *  has been exceeded
+     * @throws IOException thrown if the temporary files of the working arrays cannot be created
+     */
+    public SolverResult run(final SymbolTable symbolTable, final OffHeapClauseStore store, final SolveContext context)
+            throws IOException {
+        try {
+            context.checkSize(store.getClauseCount(), store.getPremiseCount(), symbolTable.size());
+            return propagate(symbolTable, store, context);
+        } catch (LimitExceededException e) {
+            return SolverResult.unknown(e.getMessage());
+        }
+    }
+
+    private SolverResult propagate(final SymbolTable symbolTable, final OffHeapClauseStore store,
+                                   final SolveContext context) throws IOException {
+        final int atomCount = symbolTable.size();
+        final int clauseCount = store.getClauseCount();
+
+        // The marked atoms are assigned 'true' right away, the remaining atoms of the formula are assigned 'false' once
+        // the propagation has completed
+        final Model model = Model.offHeap(symbolTable, atomCount);
+        final OffHeapIntArray unmarkedPremises = OffHeapIntArray.allocate(clauseCount, scratchDirectory);
+        final OffHeapOccurrenceIndex occurrences = OffHeapOccurrenceIndex.of(store, atomCount, scratchDirectory);
+        final OffHeapIntArray pending = OffHeapIntArray.allocate(atomCount, scratchDirectory);
+        // Every atom is queued at most once, hence the queue positions are bounded by the atom count
+        int head = 0;
+        int tail = 0;
+        // Clause visits left until the next check of the context
+        int steps = CHECK_INTERVAL;
+
+        // '⊤' is only part of the model if it is part of the formula, which it is if any clause implies it
+        if (symbolTable.isInterned(VERUM)) {
+            model.assign(VERUM, true);
+        }
+        pending.set(tail++, VERUM);
+
+        for (int clause = 0; clause < clauseCount; clause++) {
+            if (--steps == 0) {
+                context.checkTime();
+                steps = CHECK_INTERVAL;
+            }
+            final int premiseCount = store.getPremiseEnd(clause) - store.getPremiseStart(clause);
+            unmarkedPremises.set(clause, premiseCount);
+
+            final int impliedAtom = store.getHead(clause);
+            if (premiseCount == 0 && !model.isTrue(impliedAtom)) { // Facts, i.e. clauses with an empty conjunction
+                model.assign(impliedAtom, true);
+                pending.set(tail++, impliedAtom);
+            }
+        }
+
+        while (head < tail && !model.isTrue(FALSUM)) {
+            final int atom = pending.get(head++);
+            final int start = occurrences.getStart(atom);
+            final int end = occurrences.getEnd(atom);
+
+            steps -= end - start;
+            if (steps <= 0) {
+                context.checkTime();
+                steps = CHECK_INTERVAL;
+            }
+
+            for (int i = start; i < end; i++) {
+                final int clause = occurrences.getClause(i);
+                final int unmarked = unmarkedPremises.get(clause) - 1;
+                unmarkedPremises.set(clause, unmarked);
+
+                if (unmarked == 0) {
+                    final int impliedAtom = store.getHead(clause);
+                    if (!model.isTrue(impliedAtom)) {
+                        model.assign(impliedAtom, true);
+                        pending.set(tail++, impliedAtom);
+                    }
+                }
+            }
+        }
+
+        if (model.isTrue(FALSUM)) {
+            return SolverResult.unsat();
+        }
+
+        for (int atom = 0; atom < atomCount; atom++) {
+            if (symbolTable.isInterned(atom) && !model.isTrue(atom)) {
+                model.assign(atom, false);
+            }
+        }
+        return SolverResult.sat(model);
+    }
+}
@@ -0,0 +1,317 @@
+package horn.sat.solver;
+
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.OccurrenceIndex;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.IntList;
+import horn.sat.solver.util.Model;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverMetrics;
+import horn.sat.solver.util.SolverResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Variant of the {@link Solver} that spreads the unit propagation over the threads of a {@link ForkJoinPool}.
+ *
+ * The propagation proceeds in levels: all atoms marked by the previous level form the frontier of the next one, and
+ * the clauses the frontier's atoms occur in are visited in parallel. The counters of unmarked premises are decremented
+ * atomically, so every clause fires exactly once, and an implied atom is marked by a compare-and-set, so every atom is
+ * enqueued exactly once. Every task collects the atoms it marks in a local list and appends them to the shared queue
+ * by reserving a range of the queue with a single atomic add, hence the queue needs no locks. Since the marked atoms
+ * do not depend on the order in which the clauses fire, the result is the same minimal model as the one of the
+ * sequential solver.
+ *
+ * Levels with only a few clause visits, as in long chains of implications, are propagated by the calling thread
+ * alone, as handing them to the pool would cost more than it saves. The occurrence index is still built sequentially.
+ * A solver instance owns its pool, which is shut down by {@link #close()}. Runs of the same instance must not overlap.
+ */
+public class ParallelSolver implements AutoCloseable {
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+    // Number of clause visits below which a task or a whole level is not split any further
+    private static final int GRAIN = 1 << 12;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism number of threads propagating a level
+     */
+    public ParallelSolver(final int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Determines the satisfiability of the given formula.
+     *
+     * @param hornFormula formula whose satisfiability should be determined
+     * @return the unsat result, or the minimal model of the formula if it is satisfiable
+     */
+    public SolverResult run(final HornFormula hornFormula) {
+        return run(hornFormula, SolveContext.unlimited());
+    }
+
+    /**
+     * Determines the satisfiability of the given formula within the limits of the given context. The deadline and the
+     * cancellation flag are checked by every task and between two levels.
+     *
+     * @param hornFormula formula whose satisfiability should be determined
+     * @param context limits of the run
+     * @return the unsat result, the minimal model of the formula if it is satisfiable, or an unknown result if a limit
+     *  has been exceeded
+     */
+    public SolverResult run(final HornFormula hornFormula, final SolveContext context) {
+        try {
+            context.checkSize(hornFormula.getClauseCount(), hornFormula.getClauseStore().getPremiseCount(),
+                    hornFormula.getSymbolTable().size());
+            final long startNanos = System.nanoTime();
+            final long startAllocated = SolverMetrics.isEnabled() ? SolverMetrics.allocatedBytes() : 0;
+            final Propagation propagation = new Propagation(hornFormula, context);
+            final SolverResult result = propagation.run();
+            if (SolverMetrics.isEnabled()) {
+                SolverMetrics.get().recordSolve(startNanos, startAllocated, propagation.head, propagation.visitedClauses(),
+                        propagation.maxQueued);
+            }
+            return result;
+        } catch (LimitExceededException e) {
+            return SolverResult.unknown(e.getMessage());
+        }
+    }
+
+    /**
+     * Shuts down the pool of the solver, waiting for running tasks is not necessary as every run waits for its tasks.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Working data of a single run.
+     */
+    private final class Propagation {
+
+        private final HornFormula hornFormula;
+        private final ClauseStore store;
+        private final SolveContext context;
+        private final OccurrenceIndex occurrences;
+        // Marked atoms are set to 1, the mark of an atom is only ever set by a compare-and-set
+        private final AtomicIntegerArray marked;
+        // Number of premises of each clause that are not yet marked. A clause fires once its counter drops to zero.
+        private final AtomicIntegerArray unmarkedPremises;
+        // Marked atoms in the order of their levels, the atoms of the current level lie between head and the level end
+        private final int[] pending;
+        private final AtomicInteger tail = new AtomicInteger();
+        private int head = 0;
+        // Largest number of atoms waiting in the queue at once, which are the atoms of the largest level
+        private int maxQueued = 0;
+
+        private Propagation(final HornFormula hornFormula, final SolveContext context) {
+            final int atomCount = hornFormula.getSymbolTable().size();
+            this.hornFormula = hornFormula;
+            this.store = hornFormula.getClauseStore();
+            this.context = context;
+            this.occurrences = OccurrenceIndex.of(store, atomCount);
+            this.marked = new AtomicIntegerArray(atomCount);
+            this.unmarkedPremises = new AtomicIntegerArray(store.getClauseCount());
+            this.pending = new int[atomCount];
+        }
+
+        private SolverResult run() {
+            final SymbolTable symbolTable = hornFormula.getSymbolTable();
+            final int atomCount = symbolTable.size();
+
+            marked.set(VERUM, 1);
+            pending[tail.getAndIncrement()] = VERUM;
+            invoke(new InitializationTask(0, store.getClauseCount()), store.getClauseCount());
+
+            while (head < tail.get() && marked.get(FALSUM) == 0) {
+                context.checkTime();
+                final int levelEnd = tail.get();
+                maxQueued = Math.max(maxQueued, levelEnd - head);
+                long visits = 0;
+                for (int i = head; i < levelEnd && visits < GRAIN; i++) {
+                    visits += occurrences.getEnd(pending[i]) - occurrences.getStart(pending[i]);
+                }
+                invoke(new LevelTask(head, levelEnd), visits);
+                head = levelEnd;
+            }
+
+            if (marked.get(FALSUM) != 0) {
+                return SolverResult.unsat();
+            }
+
+            final Model model = new Model(symbolTable, atomCount);
+            for (int atom = 0; atom < atomCount; atom++) {
+                if (symbolTable.isInterned(atom)) {
+                    model.assign(atom, marked.get(atom) != 0);
+                }
+            }
+            return SolverResult.sat(model);
+        }
+
+        /**
+         * Runs the given task in the pool, or in the calling thread if it does not need to be split.
+         */
+        private void invoke(final RecursiveAction task, final long visits) {
+            if (visits < GRAIN) {
+                task.invoke();
+            } else {
+                pool.invoke(task);
+            }
+        }
+
+        private long visitedClauses() {
+            long visitedClauses = 0;
+            for (int i = 0; i < head; i++) {
+                visitedClauses += occurrences.getEnd(pending[i]) - occurrences.getStart(pending[i]);
+            }
+            return visitedClauses;
+        }
+
+        /**
+         * Marks the given atom unless it is marked already, and adds it to the given list of newly marked atoms.
+         */
+        private void mark(final int atom, final IntList marks) {
+            if (marked.get(atom) == 0 && marked.compareAndSet(atom, 0, 1)) {
+                marks.add(atom);
+            }
+        }
+
+        /**
+         * Appends the atoms marked by a task to the queue.
+         */
+        private void enqueue(final IntList marks) {
+            if (!marks.isEmpty()) {
+                final int start = tail.getAndAdd(marks.size());
+                for (int i = 0; i < marks.size(); i++) {
+                    pending[start + i] = marks.get(i);
+                }
+            }
+        }
+
+        /**
+         * Initializes the counters of a range of clauses and marks the atoms implied by facts.
+         */
+        private final class InitializationTask extends RecursiveAction {
+            private final int from;
+            private final int to;
+
+            private InitializationTask(final int from, final int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > GRAIN) {
+                    final int middle = (from + to) >>> 1;
+                    invokeAll(new InitializationTask(from, middle), new InitializationTask(middle, to));
+                    return;
+                }
+
+                context.checkTime();
+                final IntList marks = new IntList();
+                for (int clause = from; clause < to; clause++) {
+                    final int premiseCount = store.getPremiseEnd(clause) - store.getPremiseStart(clause);
+                    unmarkedPremises.setPlain(clause, premiseCount);
+                    if (premiseCount == 0) { // Facts, i.e. clauses with an empty conjunction
+                        mark(store.getHead(clause), marks);
+                    }
+                }
+                enqueue(marks);
+            }
+        }
+
+        /**
+         * Propagates a range of the atoms of the current level. A single atom occurring in many clauses is split into
+         * ranges of its occurrences.
+         */
+        private final class LevelTask extends RecursiveAction {
+            private final int from;
+            private final int to;
+
+            private LevelTask(final int from, final int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > 1) {
+                    long visits = 0;
+                    for (int i = from; i < to && visits <= GRAIN; i++) {
+                        visits += occurrences.getEnd(pending[i]) - occurrences.getStart(pending[i]);
+                    }
+                    if (visits > GRAIN) {
+                        final int middle = (from + to) >>> 1;
+                        invokeAll(new LevelTask(from, middle), new LevelTask(middle, to));
+                        return;
+                    }
+                }
+
+                context.checkTime();
+                final IntList marks = new IntList();
+                final List<OccurrenceTask> forked = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    final int atom = pending[i];
+                    final int start = occurrences.getStart(atom);
+                    final int end = occurrences.getEnd(atom);
+                    if (end - start > GRAIN) {
+                        forked.add(new OccurrenceTask(start, end));
+                    } else {
+                        visit(start, end, marks);
+                    }
+                }
+                enqueue(marks);
+                invokeAll(forked);
+            }
+        }
+
+        /**
+         * Visits a range of the occurrences of a single atom.
+         */
+        private final class OccurrenceTask extends RecursiveAction {
+            private final int from;
+            private final int to;
+
+            private OccurrenceTask(final int from, final int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > GRAIN) {
+                    final int middle = (from + to) >>> 1;
+                    invokeAll(new OccurrenceTask(from, middle), new OccurrenceTask(middle, to));
+                    return;
+                }
+
+                context.checkTime();
+                final IntList marks = new IntList();
+                visit(from, to, marks);
+                enqueue(marks);
+            }
+        }
+
+        /**
+         * Decrements the counters of the clauses between the given positions of the occurrence index and marks the
+         * atoms implied by the clauses that fire.
+         */
+        private void visit(final int from, final int to, final IntList marks) {
+            for (int i = from; i < to; i++) {
+                final int clause = occurrences.getClause(i);
+                if (unmarkedPremises.decrementAndGet(clause) == 0) {
+                    mark(store.getHead(clause), marks);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package horn.sat.solver;
+
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.Model;
+import horn.sat.solver.util.SolverResult;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Simplifies a Horn Formula before it is solved by removing redundant premises and clauses.
+ *
+ * Every {@link Step} can be enabled separately. All steps except {@link Step#UNREACHABLE_ATOMS} produce an equivalent
+ * formula, i.e. the minimal model is unchanged. Pruning unreachable atoms keeps the verdict, but the clauses it removes
+ * are needed to complete the model, which is done by {@link Preprocessed#complete(SolverResult)}.
+ *
+ * The premises of every clause are sorted, which makes duplicate detection and subset checks a single merge over two
+ * clauses. Duplicates are found through a hash table, and subsumption only visits the clauses that share the rarest
+ * premise of the subsuming clause. Since the latter can still be quadratic in the worst case, subsumption stops after a
+ * fixed amount of work proportional to the size of the formula. Hence, the preprocessor runs in near-linear time.
+ *
+ * The simplified formula shares the symbol table of the input formula, so the atoms keep their ids.
+ */
+public class Preprocessor {
+
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+
+    // Number of premise comparisons subsumption may perform per premise and clause of the formula
+    private static final int SUBSUMPTION_EFFORT = 16;
+
+    private final Set<Step> steps;
+
+    /**
+     * @param steps steps to be applied, the steps are always applied in the order of their declaration
+     */
+    public Preprocessor(final Set<Step> steps) {
+        this.steps = steps.isEmpty() ? EnumSet.noneOf(Step.class) : EnumSet.copyOf(steps);
+    }
+
+    /**
+     * Simplifies the given formula.
+     *
+     * @param hornFormula formula to be simplified, it is not modified
+     * @return the simplified formula, along with the number of premises or clauses each step removed
+     */
+    public Preprocessed run(final HornFormula hornFormula) {
+        final ClauseStore store = hornFormula.getClauseStore();
+        final int clauseCount = store.getClauseCount();
+        final Map<Step, Integer> removed = new EnumMap<>(Step.class);
+        for (final Step step : steps) {
+            removed.put(step, 0);
+        }
+
+        // Working copy of the clauses with sorted premises, removed clauses are no longer alive
+        final int[] premises = new int[store.getPremiseCount()];
+        final int[] offsets = new int[clauseCount + 1];
+        final int[] heads = new int[clauseCount];
+        final boolean[] alive = new boolean[clauseCount];
+
+        int premiseCount = 0;
+        for (int clause = 0; clause < clauseCount; clause++) {
+            final int start = premiseCount;
+            for (int i = store.getPremiseStart(clause); i < store.getPremiseEnd(clause); i++) {
+                premises[premiseCount++] = store.getPremise(i);
+            }
+            Arrays.sort(premises, start, premiseCount);
+
+            if (steps.contains(Step.REDUNDANT_PREMISES)) {
+                final int end = premiseCount;
+                premiseCount = start;
+                for (int i = start; i < end; i++) {
+                    if (premises[i] != VERUM && (premiseCount == start || premises[premiseCount - 1] != premises[i])) {
+                        premises[premiseCount++] = premises[i];
+                    }
+                }
+                removed.merge(Step.REDUNDANT_PREMISES, end - premiseCount, Integer::sum);
+            }
+
+            offsets[clause + 1] = premiseCount;
+            heads[clause] = store.getHead(clause);
+            alive[clause] = true;
+
+            if (steps.contains(Step.TAUTOLOGIES) && Arrays.binarySearch(premises, start, premiseCount, heads[clause]) >= 0) {
+                alive[clause] = false;
+                removed.merge(Step.TAUTOLOGIES, 1, Integer::sum);
+            } else if (steps.contains(Step.VERUM_HEADS) && heads[clause] == VERUM) {
+                alive[clause] = false;
+                removed.merge(Step.VERUM_HEADS, 1, Integer::sum);
+            }
+        }
+
+        final Clauses clauses = new Clauses(premises, offsets, heads, alive);
+        if (steps.contains(Step.DUPLICATE_CLAUSES)) {
+            removed.put(Step.DUPLICATE_CLAUSES, clauses.removeDuplicates());
+        }
+        if (steps.contains(Step.SUBSUMPTION)) {
+            removed.put(Step.SUBSUMPTION, clauses.removeSubsumed(hornFormula.getSymbolTable().size()));
+        }
+
+        final ClauseStore.Builder pruned = new ClauseStore.Builder();
+        if (steps.contains(Step.UNREACHABLE_ATOMS)) {
+            removed.put(Step.UNREACHABLE_ATOMS, clauses.removeUnreachable(hornFormula.getSymbolTable().size(), pruned));
+        }
+
+        final ClauseStore.Builder builder = new ClauseStore.Builder(clauseCount);
+        for (int clause = 0; clause < clauseCount; clause++) {
+            if (alive[clause]) {
+                for (int i = offsets[clause]; i < offsets[clause + 1]; i++) {
+                    builder.addPremise(premises[i]);
+                }
+                builder.completeClause(heads[clause]);
+            }
+        }
+
+        return new Preprocessed(new HornFormula(hornFormula.getSymbolTable(), builder.build()), pruned.build(),
+                clauseCount, Collections.unmodifiableMap(removed));
+    }
+
+    /**
+     * Simplified formula and statistics of a preprocessor run.
+     *
+     * @param formula the simplified formula
+     * @param prunedClauses clauses removed by {@link Step#UNREACHABLE_ATOMS}, which are needed to complete the model
+     * @param originalClauseCount number of clauses of the input formula
+     * @param removed number of premises (for {@link Step#REDUNDANT_PREMISES}) or clauses removed by each enabled step
+     */
+    public record Preprocessed(HornFormula formula, ClauseStore prunedClauses, int originalClauseCount,
+                               Map<Step, Integer> removed) {
+
+        /**
+         * Turns the result of solving the simplified formula into the result of the input formula. The verdict is
+         * the same, only the values of the atoms whose clauses were pruned are determined by propagating the pruned
+         * clauses from the model of the simplified formula.
+         *
+         * @param result result of the simplified formula
+         * @return result of the input formula, whose model is the minimal model of the input formula
+         */
+        public SolverResult complete(final SolverResult result) {
+            if (result.getModel().isEmpty() || prunedClauses.getClauseCount() == 0) {
+                return result;
+            }
+
+            // The pruned clauses never imply an atom of the simplified formula, so propagating them from the true
+            // atoms of its model yields the minimal model of the input formula.
+            final Model model = result.getModel().get();
+            final ClauseStore.Builder builder = new ClauseStore.Builder(prunedClauses.getClauseCount() + model.getTrueCount());
+            for (int clause = 0; clause < prunedClauses.getClauseCount(); clause++) {
+                for (int i = prunedClauses.getPremiseStart(clause); i < prunedClauses.getPremiseEnd(clause); i++) {
+                    builder.addPremise(prunedClauses.getPremise(i));
+                }
+                builder.completeClause(prunedClauses.getHead(clause));
+            }
+            for (int atom = model.nextTrue(0); atom >= 0; atom = model.nextTrue(atom + 1)) {
+                builder.completeClause(atom);
+            }
+            return Solver.solve(new HornFormula(formula.getSymbolTable(), builder.build()));
+        }
+    }
+
+    public enum Step {
+        /** Removes repeated premises and premises that are '⊤' from every clause */
+        REDUNDANT_PREMISES,
+        /** Removes clauses whose implied atom is one of their premises */
+        TAUTOLOGIES,
+        /** Removes clauses that imply '⊤' */
+        VERUM_HEADS,
+        /** Removes all but the first of several clauses with the same premises and the same implied atom */
+        DUPLICATE_CLAUSES,
+        /** Removes clauses whose premises are a superset of the premises of another clause with the same implied atom */
+        SUBSUMPTION,
+        /** Removes clauses whose implied atom does not lead to '⊥', since they cannot make the formula unsatisfiable */
+        UNREACHABLE_ATOMS
+    }
+
+    /**
+     * Working copy of the clauses in compressed sparse row layout, with the premises of every clause sorted. The
+     * premises of a clause may contain repetitions unless {@link Step#REDUNDANT_PREMISES} is enabled, so all
+     * comparisons treat the premises as sets.
+     */
+    private static class Clauses {
+        private final int[] premises;
+        private final int[] offsets;
+        private final int[] heads;
+        private final boolean[] alive;
+
+        private Clauses(final int[] premises, final int[] offsets, final int[] heads, final boolean[] alive) {
+            this.premises = premises;
+            this.offsets = offsets;
+            this.heads = heads;
+            this.alive = alive;
+        }
+
+        /**
+         * Removes all alive clauses that equal an earlier alive clause, using an open addressing hash table.
+         *
+         * @return number of removed clauses
+         */
+        private int removeDuplicates() {
+            final int[] slots = new int[Integer.highestOneBit(Math.max(heads.length, 1) * 2 + 1) << 1];
+            Arrays.fill(slots, -1);
+            final int mask = slots.length - 1;
+
+            int removed = 0;
+            for (int clause = 0; clause < heads.length; clause++) {
+                if (!alive[clause]) {
+                    continue;
+                }
+                int slot = hash(clause) & mask;
+                while (slots[slot] >= 0 && !equal(slots[slot], clause)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (slots[slot] >= 0) {
+                    alive[clause] = false;
+                    removed++;
+                } else {
+                    slots[slot] = clause;
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Removes all alive clauses whose premises are a superset of the premises of another alive clause with the
+         * same implied atom. Only the clauses that contain the rarest premise of a subsuming clause are checked, and
+         * the search stops once the effort limit is reached.
+         *
+         * @param atomCount upper bound (exclusive) of all atom ids
+         * @return number of removed clauses
+         */
+        private int removeSubsumed(final int atomCount) {
+            final int clauseCount = heads.length;
+            final int[] sizes = new int[clauseCount];
+            for (int clause = 0; clause < clauseCount; clause++) {
+                sizes[clause] = alive[clause] ? distinctPremises(clause) : 0;
+            }
+
+            // Alive clauses indexed by their distinct premises and by their implied atoms
+            final int[] occurrenceOffsets = new int[atomCount + 1];
+            final int[] headOffsets = new int[atomCount + 1];
+            for (int clause = 0; clause < clauseCount; clause++) {
+                if (alive[clause]) {
+                    for (int i = offsets[clause]; i < offsets[clause + 1]; i++) {
+                        if (i == offsets[clause] || premises[i - 1] != premises[i]) {
+                            occurrenceOffsets[premises[i] + 1]++;
+                        }
+                    }
+                    headOffsets[heads[clause] + 1]++;
+                }
+            }
+            for (int atom = 0; atom < atomCount; atom++) {
+                occurrenceOffsets[atom + 1] += occurrenceOffsets[atom];
+                headOffsets[atom + 1] += headOffsets[atom];
+            }
+            final int[] occurrences = new int[occurrenceOffsets[atomCount]];
+            final int[] headClauses = new int[headOffsets[atomCount]];
+            final int[] occurrencePositions = Arrays.copyOf(occurrenceOffsets, atomCount);
+            final int[] headPositions = Arrays.copyOf(headOffsets, atomCount);
+            for (int clause = 0; clause < clauseCount; clause++) {
+                if (alive[clause]) {
+                    for (int i = offsets[clause]; i < offsets[clause + 1]; i++) {
+                        if (i == offsets[clause] || premises[i - 1] != premises[i]) {
+                            occurrences[occurrencePositions[premises[i]]++] = clause;
+                        }
+                    }
+                    headClauses[headPositions[heads[clause]]++] = clause;
+                }
+            }
+
+            long effort = SUBSUMPTION_EFFORT * ((long) premises.length + clauseCount);
+            int removed = 0;
+            for (int clause = 0; clause < clauseCount && effort > 0; clause++) {
+                if (!alive[clause]) {
+                    continue;
+                }
+
+                // Candidates: the clauses with the same head or those containing a premise, whichever list is shortest
+                int[] candidates = headClauses;
+                int from = headOffsets[heads[clause]];
+                int to = headOffsets[heads[clause] + 1];
+                for (int i = offsets[clause]; i < offsets[clause + 1]; i++) {
+                    final int premise = premises[i];
+                    if (occurrenceOffsets[premise + 1] - occurrenceOffsets[premise] < to - from) {
+                        candidates = occurrences;
+                        from = occurrenceOffsets[premise];
+                        to = occurrenceOffsets[premise + 1];
+                    }
+                }
+
+                for (int i = from; i < to; i++) {
+                    final int candidate = candidates[i];
+                    effort--;
+                    if (candidate == clause || !alive[candidate] || heads[candidate] != heads[clause]
+                            || sizes[candidate] < sizes[clause]
+                            || (sizes[candidate] == sizes[clause] && candidate < clause)) {
+                        continue;
+                    }
+                    effort -= offsets[clause + 1] - offsets[clause] + offsets[candidate + 1] - offsets[candidate];
+                    if (isSubset(clause, candidate)) {
+                        alive[candidate] = false;
+                        removed++;
+                    }
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Removes all alive clauses whose implied atom is not needed to derive '⊥'. Starting from '⊥', an atom is
+         * needed if it is a premise of an alive clause implying a needed atom.
+         *
+         * @param atomCount upper bound (exclusive) of all atom ids
+         * @param pruned builder the removed clauses are added to
+         * @return number of removed clauses
+         */
+        private int removeUnreachable(final int atomCount, final ClauseStore.Builder pruned) {
+            final int clauseCount = heads.length;
+            final int[] headOffsets = new int[atomCount + 1];
+            for (int clause = 0; clause < clauseCount; clause++) {
+                if (alive[clause]) {
+                    headOffsets[heads[clause] + 1]++;
+                }
+            }
+            for (int atom = 0; atom < atomCount; atom++) {
+                headOffsets[atom + 1] += headOffsets[atom];
+            }
+            final int[] headClauses = new int[headOffsets[atomCount]];
+            final int[] headPositions = Arrays.copyOf(headOffsets, atomCount);
+            for (int clause = 0; clause < clauseCount; clause++) {
+                if (alive[clause]) {
+                    headClauses[headPositions[heads[clause]]++] = clause;
+                }
+            }
+
+            final boolean[] needed = new boolean[atomCount];
+            final int[] pending = new int[atomCount];
+            int head = 0;
+            int tail = 0;
+            needed[FALSUM] = true;
+            pending[tail++] = FALSUM;
+            while (head < tail) {
+                final int atom = pending[head++];
+                for (int i = headOffsets[atom]; i < headOffsets[atom + 1]; i++) {
+                    final int clause = headClauses[i];
+                    for (int j = offsets[clause]; j < offsets[clause + 1]; j++) {
+                        if (!needed[premises[j]]) {
+                            needed[premises[j]] = true;
+                            pending[tail++] = premises[j];
+                        }
+                    }
+                }
+            }
+
+            int removed = 0;
+            for (int clause = 0; clause < clauseCount; clause++) {
+                if (alive[clause] && !needed[heads[clause]]) {
+                    for (int i = offsets[clause]; i < offsets[clause + 1]; i++) {
+                        pruned.addPremise(premises[i]);
+                    }
+                    pruned.completeClause(heads[clause]);
+                    alive[clause] = false;
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        private int hash(final int clause) {
+            int hash = heads[clause];
+            for (int i = offsets[clause]; i < offsets[clause + 1]; i++) {
+                if (i == offsets[clause] || premises[i - 1] != premises[i]) {
+                    hash = 31 * hash + premises[i];
+                }
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private boolean equal(final int clause, final int other) {
+            return heads[clause] == heads[other] && isSubset(clause, other) && isSubset(other, clause);
+        }
+
+        /**
+         * Determines whether the premises of the given clause are a subset of the other clause's premises by merging
+         * the sorted premises of both clauses.
+         */
+        private boolean isSubset(final int clause, final int other) {
+            int j = offsets[other];
+            for (int i = offsets[clause]; i < offsets[clause + 1]; i++) {
+                while (j < offsets[other + 1] && premises[j] < premises[i]) {
+                    j++;
+                }
+                if (j == offsets[other + 1] || premises[j] != premises[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int distinctPremises(final int clause) {
+            int count = 0;
+            for (int i = offsets[clause]; i < offsets[clause + 1]; i++) {
+                if (i == offsets[clause] || premises[i - 1] != premises[i]) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
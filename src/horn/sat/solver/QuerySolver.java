@@ -0,0 +1,263 @@
+package horn.sat.solver;
+
+import horn.sat.solver.atoms.Falsum;
+import horn.sat.solver.atoms.IAtom;
+import horn.sat.solver.atoms.Verum;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+
+/**
+ * Answers whether single atoms are entailed by a Horn Formula without computing its full minimal model.
+ *
+ * A query for an atom only explores the cone of the atom: starting from the atom, the clauses implying it are collected
+ * through an index from implied atoms to clauses, and their premises are explored in turn. The unit propagation
+ * algorithm then runs on the clauses of the cone only, and stops as soon as the atom is marked.
+ *
+ * The answers are memoized per atom and reused by later queries. An atom that has been marked is true in the minimal
+ * model, and once the propagation of a cone has completed, all atoms of the cone that are still unmarked are false.
+ * Later queries do not explore beyond atoms with a known value, so the cones of consecutive queries shrink.
+ *
+ * Building the index is linear in the size of the formula, each query is linear in the size of its cone. Instances
+ * are not thread-safe.
+ */
+public class QuerySolver {
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+
+    private static final byte UNKNOWN = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+
+    private final SymbolTable symbolTable;
+    private final ClauseStore store;
+
+    // Clauses implying the atom with id a are stored between headOffsets[a] (inclusive) and headOffsets[a+1] (exclusive)
+    private final int[] headOffsets;
+    private final int[] headClauses;
+
+    // Memoized truth value of every atom in the minimal model
+    private final byte[] values;
+
+    // Working arrays of a query. An atom belongs to the current cone if its stamp equals the query's epoch, and has
+    // been marked by the current query if its mark stamp does.
+    private final int[] atomStamps;
+    private final int[] markStamps;
+    private final int[] coneAtoms;
+    private final int[] coneClauses;
+    private final int[] unknownPremises;
+    private final int[] occurrenceOffsets;
+    private final int[] occurrenceEnds;
+    private final int[] occurrences;
+    private final int[] pending;
+    private int epoch = 0;
+
+    private long exploredClauses = 0;
+
+    public QuerySolver(final HornFormula hornFormula) {
+        this.symbolTable = hornFormula.getSymbolTable();
+        this.store = hornFormula.getClauseStore();
+        final int atomCount = symbolTable.size();
+        final int clauseCount = store.getClauseCount();
+
+        this.headOffsets = new int[atomCount + 1];
+        this.headClauses = new int[clauseCount];
+        for (int clause = 0; clause < clauseCount; clause++) {
+            headOffsets[store.getHead(clause) + 1]++;
+        }
+        for (int atom = 0; atom < atomCount; atom++) {
+            headOffsets[atom + 1] += headOffsets[atom];
+        }
+        final int[] positions = new int[atomCount];
+        System.arraycopy(headOffsets, 0, positions, 0, atomCount);
+        for (int clause = 0; clause < clauseCount; clause++) {
+            headClauses[positions[store.getHead(clause)]++] = clause;
+        }
+
+        this.values = new byte[atomCount];
+        this.values[VERUM] = TRUE;
+
+        this.atomStamps = new int[atomCount];
+        this.markStamps = new int[atomCount];
+        this.coneAtoms = new int[atomCount];
+        this.coneClauses = new int[clauseCount];
+        this.unknownPremises = new int[clauseCount];
+        this.occurrenceOffsets = new int[atomCount];
+        this.occurrenceEnds = new int[atomCount];
+        this.occurrences = new int[store.getPremiseCount()];
+        this.pending = new int[atomCount];
+    }
+
+    /**
+     * Determines whether the formula entails the given atom, i.e. whether the atom is true in every model. Since an
+     * unsatisfiable formula has no model, it entails every atom.
+     *
+     * @param atom atom to be checked
+     * @return 'true' if the atom is entailed, 'false' otherwise
+     */
+    public boolean isEntailed(final IAtom atom) {
+        return isDerivable(atom) || !isSatisfiable();
+    }
+
+    /**
+     * Determines whether the formula is satisfiable, i.e. whether '⊥' cannot be derived.
+     *
+     * @return 'true' if the formula is satisfiable, 'false' otherwise
+     */
+    public boolean isSatisfiable() {
+        return !isDerivable(FALSUM);
+    }
+
+    /**
+     * Determines whether the given atom can be derived from the formula, i.e. whether it is marked by the unit
+     * propagation algorithm. Atoms that are not part of the formula cannot be derived, except for '⊤'.
+     *
+     * @param atom atom to be checked
+     * @return 'true' if the atom is true in the minimal model, 'false' otherwise
+     */
+    public boolean isDerivable(final IAtom atom) {
+        if (atom instanceof Verum) {
+            return true;
+        }
+        final int id = atom instanceof Falsum ? FALSUM : symbolTable.lookup(atom);
+        return id >= 0 && isDerivable(id);
+    }
+
+    /**
+     * Determines whether the atom with the given id can be derived from the formula.
+     *
+     * @param goal id of the atom
+     * @return 'true' if the atom is true in the minimal model, 'false' otherwise
+     */
+    public boolean isDerivable(final int goal) {
+        if (values[goal] == UNKNOWN) {
+            values[goal] = query(goal) ? TRUE : FALSE;
+        }
+        return values[goal] == TRUE;
+    }
+
+    /**
+     * Total number of clauses that have been explored by all queries so far.
+     *
+     * @return number of explored clauses
+     */
+    public long getExploredClauseCount() {
+        return this.exploredClauses;
+    }
+
+    private boolean query(final int goal) {
+        epoch++;
+        int atomCount = 0;
+        int clauseCount = 0;
+        int tail = 0;
+
+        // Collect the cone: all clauses implying an atom of the cone whose premises are not known to be false
+        atomStamps[goal] = epoch;
+        coneAtoms[atomCount++] = goal;
+        for (int next = 0; next < atomCount; next++) {
+            final int atom = coneAtoms[next];
+
+            for (int i = headOffsets[atom]; i < headOffsets[atom + 1]; i++) {
+                final int clause = headClauses[i];
+                int unknown = 0;
+                boolean blocked = false;
+                for (int j = store.getPremiseStart(clause); j < store.getPremiseEnd(clause) && !blocked; j++) {
+                    final int premise = store.getPremise(j);
+                    if (values[premise] == FALSE) {
+                        blocked = true;
+                    } else if (values[premise] == UNKNOWN) {
+                        unknown++;
+                        if (atomStamps[premise] != epoch) {
+                            atomStamps[premise] = epoch;
+                            coneAtoms[atomCount++] = premise;
+                        }
+                    }
+                }
+                exploredClauses++;
+                if (blocked) {
+                    continue;
+                }
+
+                if (unknown == 0) {
+                    if (atom == goal) {
+                        return markPending(tail);
+                    }
+                    if (markStamps[atom] != epoch) {
+                        markStamps[atom] = epoch;
+                        pending[tail++] = atom;
+                    }
+                }
+                unknownPremises[clause] = unknown;
+                coneClauses[clauseCount++] = clause;
+            }
+        }
+
+        // Index the clauses of the cone by their premises with unknown values, all of which are atoms of the cone
+        for (int i = 0; i < atomCount; i++) {
+            occurrenceOffsets[coneAtoms[i]] = 0;
+        }
+        for (int i = 0; i < clauseCount; i++) {
+            final int clause = coneClauses[i];
+            for (int j = store.getPremiseStart(clause); j < store.getPremiseEnd(clause); j++) {
+                if (values[store.getPremise(j)] == UNKNOWN) {
+                    occurrenceOffsets[store.getPremise(j)]++;
+                }
+            }
+        }
+        // Turn the counts into end positions, the insertion below moves them back to the start positions
+        int end = 0;
+        for (int i = 0; i < atomCount; i++) {
+            end += occurrenceOffsets[coneAtoms[i]];
+            occurrenceOffsets[coneAtoms[i]] = end;
+            occurrenceEnds[coneAtoms[i]] = end;
+        }
+        for (int i = clauseCount - 1; i >= 0; i--) {
+            final int clause = coneClauses[i];
+            for (int j = store.getPremiseStart(clause); j < store.getPremiseEnd(clause); j++) {
+                if (values[store.getPremise(j)] == UNKNOWN) {
+                    occurrences[--occurrenceOffsets[store.getPremise(j)]] = clause;
+                }
+            }
+        }
+
+        // Unit propagation restricted to the cone, starting from the atoms implied by clauses without unknown premises
+        int head = 0;
+        while (head < tail) {
+            final int atom = pending[head++];
+            for (int i = occurrenceOffsets[atom]; i < occurrenceEnds[atom]; i++) {
+                final int clause = occurrences[i];
+                if (--unknownPremises[clause] == 0) {
+                    final int impliedAtom = store.getHead(clause);
+                    if (impliedAtom == goal) {
+                        return markPending(tail);
+                    }
+                    if (markStamps[impliedAtom] != epoch) {
+                        markStamps[impliedAtom] = epoch;
+                        pending[tail++] = impliedAtom;
+                    }
+                }
+            }
+        }
+
+        // The propagation has reached its fixpoint, every atom of the cone that is not marked is false
+        markPending(tail);
+        for (int i = 0; i < atomCount; i++) {
+            if (values[coneAtoms[i]] == UNKNOWN) {
+                values[coneAtoms[i]] = FALSE;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Memoizes that all atoms marked by the current query are true. The values of the atoms are only updated once the
+     * query is answered, since the counters of the cone's clauses refer to the values at the start of the query.
+     *
+     * @return 'true', for returning once the goal has been marked
+     */
+    private boolean markPending(final int tail) {
+        for (int i = 0; i < tail; i++) {
+            values[pending[i]] = TRUE;
+        }
+        return true;
+    }
+}
@@ -1,57 +1,275 @@
 package horn.sat.solver;
 
-import horn.sat.solver.atoms.Falsum;
-import horn.sat.solver.atoms.IAtom;
-import horn.sat.solver.atoms.Verum;
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.OccurrenceIndex;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.Model;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverMetrics;
 import horn.sat.solver.util.SolverResult;
+import horn.sat.solver.util.UnsatCore;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.Arrays;
 
 /**
  * Takes a Horn Formula as input and determines whether the formula is satisfiable or not.
  * If the formula is satisfiable, a satisfying configuration is returned.
+ *
+ * The satisfiability is determined using the unit propagation algorithm by Dowling and Gallier, which runs in time
+ * linear in the size of the formula: every clause keeps a counter of its premises that are not yet marked, and every
+ * atom knows the clauses in whose conjunction it occurs. Marking an atom therefore only touches the clauses the atom
+ * actually occurs in, and every clause fires at most once.
+ *
+ * A solver instance keeps its working arrays between runs, so solving many formulas with the same instance does not
+ * allocate them anew for every formula. Instances are not thread-safe.
+ *
+ * With proof logging enabled, the solver additionally records for every marked atom the clause that marked it, which
+ * costs one array write per marked atom. If the formula is unsatisfiable, the recorded reasons are traced back from
+ * '⊥' to extract an {@link UnsatCore}. Proof logging is disabled by default.
+ *
+ * A run can be limited by a {@link SolveContext}. The size of the formula is checked against the context's budget
+ * before any working array is allocated, and its deadline and cancellation flag are checked every
+ * {@value #CHECK_INTERVAL} clause visits, so a run that exceeds a limit returns an UNKNOWN result shortly after.
  */
 public class Solver {
-    private static final IAtom VERUM = Verum.getInstance();
-    private static final IAtom FALSUM = Falsum.getInstance();
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+    // Number of clause visits between two checks of the solve context's deadline
+    private static final int CHECK_INTERVAL = 1 << 14;
+
+    // Working arrays, reused by consecutive runs and only reallocated if a formula does not fit
+    private boolean[] marked = new boolean[0];
+    private int[] unmarkedPremises = new int[0];
+    private int[] pending = new int[0];
+    private int[] reasons = new int[0];
+    private OccurrenceIndex occurrences = null;
+
+    // Number of atoms propagated by the last run and the largest number of atoms waiting in its queue at once,
+    // recorded in the metrics if they are enabled. The latter is only tracked by metered runs.
+    private int propagatedAtoms;
+    private int maxQueuedAtoms;
+
+    private final boolean proofLogging;
+
+    public Solver() {
+        this(false);
+    }
+
+    /**
+     * @param proofLogging whether the results of unsatisfiable formulas should include an {@link UnsatCore}
+     */
+    public Solver(final boolean proofLogging) {
+        this.proofLogging = proofLogging;
+    }
 
     public static SolverResult solve(final HornFormula hornFormula) {
-        // All atoms contained in this set are considered to be 'marked' and are assigned the truth value 'true'.
+        return new Solver().run(hornFormula);
+    }
+
+    /**
+     * Determines the satisfiability of the given formula, reusing the working arrays of previous runs.
+     *
+     * @param hornFormula formula whose satisfiability should be determined
+     * @return the unsat result, or the minimal model of the formula if it is satisfiable
+     */
+    public SolverResult run(final HornFormula hornFormula) {
+        return run(hornFormula, SolveContext.unlimited());
+    }
+
+    /**
+     * Determines the satisfiability of the given formula within the limits of the given context.
+     *
+     * @param hornFormula formula whose satisfiability should be determined
+     * @param context limits of the run
+     * @return the unsat result, the minimal model of the formula if it is satisfiable, or an unknown result if a limit
+     *  has been exceeded
+     */
+    public SolverResult run(final HornFormula hornFormula, final SolveContext context) {
+        try {
+            context.checkSize(hornFormula.getClauseCount(), hornFormula.getClauseStore().getPremiseCount(),
+                    hornFormula.getSymbolTable().size());
+            return SolverMetrics.isEnabled() ? propagateMetered(hornFormula, context) : propagate(hornFormula, context, false);
+        } catch (LimitExceededException e) {
+            return SolverResult.unknown(e.getMessage());
+        }
+    }
+
+    private SolverResult propagateMetered(final HornFormula hornFormula, final SolveContext context) {
+        final long startNanos = System.nanoTime();
+        final long startAllocated = SolverMetrics.allocatedBytes();
+        final SolverResult result = propagate(hornFormula, context, true);
+
+        // Every propagated atom decrements the counters of all clauses it occurs in
+        long visitedClauses = 0;
+        for (int i = 0; i < propagatedAtoms; i++) {
+            visitedClauses += occurrences.getEnd(pending[i]) - occurrences.getStart(pending[i]);
+        }
+        SolverMetrics.get().recordSolve(startNanos, startAllocated, propagatedAtoms, visitedClauses, maxQueuedAtoms);
+        return result;
+    }
+
+    /**
+     * @param metered whether the largest number of atoms waiting in the queue should be tracked
+     */
+    private SolverResult propagate(final HornFormula hornFormula, final SolveContext context, final boolean metered) {
+        final SymbolTable symbolTable = hornFormula.getSymbolTable();
+        final ClauseStore store = hornFormula.getClauseStore();
+        final int atomCount = symbolTable.size();
+        final int clauseCount = store.getClauseCount();
+
+        // All atoms whose entry is set are considered to be 'marked' and are assigned the truth value 'true'.
         //  All un-marked atoms that are contained in the formula are implicitly assigned the truth value 'false'.
-        final Set<IAtom> marked = new HashSet<>();
-        final Set<IAtom> atoms = hornFormula.getAllContainedAtoms();
+        final boolean[] marked = ensureMarked(atomCount);
 
-        if (atoms.contains(VERUM)) {
-            marked.add(VERUM);
+        // Number of premises of each clause that are not yet marked. A clause fires once its counter drops to zero.
+        final int[] unmarkedPremises = ensureUnmarkedPremises(clauseCount);
+        final OccurrenceIndex occurrences = this.occurrences = OccurrenceIndex.of(store, atomCount, this.occurrences);
+
+        // Atoms that have been marked, but whose consequences have not been propagated yet. Every atom is enqueued
+        // at most once, hence the queue never holds more than atomCount entries.
+        final int[] pending = ensurePending(atomCount);
+        // Clause that marked each atom, only recorded if proof logging is enabled
+        final int[] reasons = proofLogging ? ensureReasons(atomCount) : null;
+        int head = 0;
+        int tail = 0;
+        int maxQueued = 0;
+        // Clause visits left until the next check of the context
+        int steps = CHECK_INTERVAL;
+
+        marked[VERUM] = true;
+        pending[tail++] = VERUM;
+
+        for (int clause = 0; clause < clauseCount; clause++) {
+            if (--steps == 0) {
+                context.checkTime();
+                steps = CHECK_INTERVAL;
+            }
+            unmarkedPremises[clause] = store.getPremiseEnd(clause) - store.getPremiseStart(clause);
+
+            final int impliedAtom = store.getHead(clause);
+            if (unmarkedPremises[clause] == 0 && !marked[impliedAtom]) { // Facts, i.e. clauses with an empty conjunction
+                marked[impliedAtom] = true;
+                pending[tail++] = impliedAtom;
+                if (reasons != null) {
+                    reasons[impliedAtom] = clause;
+                }
+            }
         }
 
-        while (true) {
-            //Get a horn clause that under the current assignment evaluates to false.
-            final Optional<HornClause> unsatClause = hornFormula.getUnsatClause(marked);
+        while (head < tail && !marked[FALSUM]) {
+            if (metered && tail - head > maxQueued) {
+                maxQueued = tail - head;
+            }
+            final int atom = pending[head++];
 
-            if (unsatClause.isEmpty()) { // The current configuration satisfies all of the formulas clauses
-                break;
+            steps -= occurrences.getEnd(atom) - occurrences.getStart(atom);
+            if (steps <= 0) {
+                context.checkTime();
+                steps = CHECK_INTERVAL;
             }
 
-            marked.add(unsatClause.get().getImpliedAtom());
+            for (int i = occurrences.getStart(atom); i < occurrences.getEnd(atom); i++) {
+                final int clause = occurrences.getClause(i);
+
+                if (--unmarkedPremises[clause] == 0) {
+                    final int impliedAtom = store.getHead(clause);
+                    if (!marked[impliedAtom]) {
+                        marked[impliedAtom] = true;
+                        pending[tail++] = impliedAtom;
+                        if (reasons != null) {
+                            reasons[impliedAtom] = clause;
+                        }
+                    }
+                }
+            }
         }
 
-        if (marked.contains(FALSUM)) {
+        this.propagatedAtoms = head;
+        this.maxQueuedAtoms = Math.max(maxQueued, tail - head);
+
+        if (marked[FALSUM]) {
             // Falsum must assume the value 'true' in order for the input formula to be satisfiable. However, falsum
             // must always have the value 'false', therefore, the formula is not satisfiable.
-            return SolverResult.unsat();
+            return reasons != null ? SolverResult.unsat(extractCore(symbolTable, store, reasons, tail)) : SolverResult.unsat();
         }
 
-        final Map<IAtom, Boolean> satisfyingConfiguration = new HashMap<>();
+        final Model model = new Model(symbolTable, atomCount);
 
-        for (final IAtom atom : atoms) {
-            satisfyingConfiguration.put(atom, marked.contains(atom));
+        for (int atom = 0; atom < atomCount; atom++) {
+            if (symbolTable.isInterned(atom)) {
+                model.assign(atom, marked[atom]);
+            }
         }
 
-        return SolverResult.sat(satisfyingConfiguration);
+        return SolverResult.sat(model);
+    }
+
+    /**
+     * Collects the reasons of '⊥', of their premises and so on. Since every atom is enqueued after the premises of its
+     * reason, the order of the queue is a valid order of the derivation.
+     *
+     * @param tail number of atoms that have been enqueued, i.e. marked
+     */
+    private UnsatCore extractCore(final SymbolTable symbolTable, final ClauseStore store, final int[] reasons,
+                                  final int tail) {
+        // The marks are no longer needed, so the atoms of the core are unmarked once they have been collected
+        final boolean[] marked = this.marked;
+        final int[] stack = new int[tail];
+        int size = 0;
+        int coreSize = 0;
+
+        marked[FALSUM] = false;
+        stack[size++] = FALSUM;
+        while (size > 0) {
+            final int clause = reasons[stack[--size]];
+            coreSize++;
+            for (int i = store.getPremiseStart(clause); i < store.getPremiseEnd(clause); i++) {
+                final int premise = store.getPremise(i);
+                if (premise != VERUM && marked[premise]) {
+                    marked[premise] = false;
+                    stack[size++] = premise;
+                }
+            }
+        }
+
+        final int[] core = new int[coreSize];
+        int next = 0;
+        for (int i = 0; i < tail; i++) {
+            if (pending[i] != VERUM && !marked[pending[i]]) {
+                core[next++] = reasons[pending[i]];
+            }
+        }
+        return new UnsatCore(symbolTable, store, core);
+    }
+
+    private boolean[] ensureMarked(final int atomCount) {
+        if (marked.length < atomCount) {
+            marked = new boolean[atomCount];
+        } else {
+            Arrays.fill(marked, 0, atomCount, false);
+        }
+        return marked;
+    }
+
+    private int[] ensureUnmarkedPremises(final int clauseCount) {
+        if (unmarkedPremises.length < clauseCount) {
+            unmarkedPremises = new int[clauseCount];
+        }
+        return unmarkedPremises;
+    }
+
+    private int[] ensureReasons(final int atomCount) {
+        if (reasons.length < atomCount) {
+            reasons = new int[atomCount];
+        }
+        return reasons;
+    }
+
+    private int[] ensurePending(final int atomCount) {
+        if (pending.length < atomCount) {
+            pending = new int[atomCount];
+        }
+        return pending;
     }
 }
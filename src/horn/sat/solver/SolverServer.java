@@ -0,0 +1,269 @@
+package horn.sat.solver;
+
+import horn.sat.solver.util.ResultCache;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Long-running solver that accepts formulas over a local TCP socket, so the JVM start-up and JIT warm-up are paid only
+ * once instead of for every formula.
+ *
+ * A client sends a formula in the usual input format, terminated by a line consisting of '---' or by closing its
+ * output. The server answers with the same verdict that is printed for a single formula, followed by a '---' line.
+ * Several formulas can be pipelined on one connection, their verdicts are sent back in the same order. Connections
+ * are served concurrently, while the formulas themselves are solved on a fixed pool of worker threads.
+ *
+ * Every formula is limited in size and solving time. Formulas exceeding the size limit are skipped without being
+ * parsed. Every formula is read and solved within a {@link SolveContext} whose deadline is the time limit, so a formula
+ * exceeding it stops on its own and is answered with an UNKNOWN verdict, and a single huge formula cannot starve the
+ * requests of other clients. Optionally, the context also limits the memory of a formula.
+ */
+public class SolverServer implements Closeable {
+
+    private static final byte[] RESPONSE_SEPARATOR = ("\n" + BatchSolver.SEPARATOR + "\n").getBytes(StandardCharsets.UTF_8);
+
+    // Only the beginning of a line is kept while skipping an oversized formula, it suffices to detect the separator
+    private static final int SKIPPED_LINE_PREFIX = 64;
+    // Time a formula exceeding its time limit is given to stop on its own before it is cancelled
+    private static final long CANCELLATION_GRACE_MILLIS = 100;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+    private final ExecutorService solvers;
+    private final ThreadLocal<SolverWorker> workers;
+
+    private final int threads;
+    private final long timeLimitMillis;
+    private final int sizeLimitBytes;
+    private final long memoryLimitBytes;
+
+    /**
+     * Creates a server listening on the loopback interface.
+     *
+     * @param port port the server listens on
+     * @param threads number of threads solving formulas concurrently
+     * @param timeLimitMillis maximum time spent on a single formula
+     * @param sizeLimitBytes maximum size of a single formula
+     * @param memoryLimitBytes memory budget of a single formula, see {@link SolveContext}, or 0 for none
+     * @param cache cache of results shared by all connections, or null to solve every formula
+     * @throws IOException thrown if the port cannot be bound
+     */
+    public SolverServer(final int port, final int threads, final long timeLimitMillis, final int sizeLimitBytes,
+                        final long memoryLimitBytes, final ResultCache cache) throws IOException {
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.workers = ThreadLocal.withInitial(() -> new SolverWorker(cache));
+        this.solvers = Executors.newFixedThreadPool(threads);
+        this.threads = threads;
+        this.timeLimitMillis = timeLimitMillis;
+        this.sizeLimitBytes = sizeLimitBytes;
+        this.memoryLimitBytes = memoryLimitBytes;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     *
+     * @throws IOException thrown if accepting a connection fails
+     */
+    public void run() throws IOException {
+        warmUp();
+
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            socket.setTcpNoDelay(true);
+            connections.execute(() -> serve(socket));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        solvers.shutdownNow();
+    }
+
+    /**
+     * Solves a small formula repeatedly on every worker thread, so the hot paths are compiled and the readers and
+     * solvers of all workers are allocated before the first request arrives.
+     *
+     * @throws IOException thrown if a worker thread fails to solve the formula
+     */
+    private void warmUp() throws IOException {
+        final StringBuilder formula = new StringBuilder("-> a0\n");
+        for (int i = 1; i < 1000; i++) {
+            formula.append("a").append(i - 1).append(" & a").append(i / 2).append(" -> a").append(i).append('\n');
+        }
+        final byte[] bytes = formula.toString().getBytes(StandardCharsets.UTF_8);
+
+        // Every task waits until all tasks have started, so each thread of the pool takes exactly one of them
+        final CountDownLatch started = new CountDownLatch(threads);
+        final List<Future<?>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            tasks.add(solvers.submit(() -> {
+                started.countDown();
+                started.await();
+                final SolverWorker worker = workers.get();
+                for (int i = 0; i < 200; i++) {
+                    worker.warmUp(ByteBuffer.wrap(bytes), 0, bytes.length);
+                }
+                return null;
+            }));
+        }
+
+        try {
+            for (final Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IOException(String.format("Warming up the solver threads failed: %s", e.getCause().getMessage()), e.getCause());
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (socket;
+             final InputStream input = new BufferedInputStream(socket.getInputStream(), 1 << 16);
+             final OutputStream output = new BufferedOutputStream(socket.getOutputStream(), 1 << 16)) {
+            new Connection(input, output).serve();
+        } catch (IOException e) {
+            // The client has closed the connection or the server is shutting down, nothing left to answer
+        }
+    }
+
+    private String solve(final byte[] request, final int length) throws InterruptedException {
+        final SolveContext context = SolveContext.builder().timeLimit(timeLimitMillis).maxMemory(memoryLimitBytes).build();
+        final Future<String> verdict = solvers.submit(() -> workers.get().solve(ByteBuffer.wrap(request), 0, length, 1, context));
+
+        try {
+            return verdict.get(timeLimitMillis + CANCELLATION_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The formula is still waiting for a solver thread or in a step that does not check its context
+            context.cancel();
+            verdict.cancel(false);
+            return SolverResult.unknown(SolveContext.timeLimitMessage(timeLimitMillis)).getVerdict();
+        } catch (ExecutionException e) {
+            return String.format("Error: %s", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Reads the formulas of a single connection line by line and answers them in order.
+     */
+    private class Connection {
+        private final InputStream input;
+        private final OutputStream output;
+
+        private byte[] request = new byte[1 << 12];
+        private int length = 0;
+        private int lineStart = 0;
+        private boolean oversized = false;
+
+        private Connection(final InputStream input, final OutputStream output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        private void serve() throws IOException {
+            final byte[] chunk = new byte[1 << 16];
+            int read;
+
+            try {
+                while ((read = input.read(chunk)) >= 0) {
+                    for (int i = 0; i < read; i++) {
+                        if (chunk[i] != '\n') {
+                            append(chunk[i]);
+                        } else if (BatchSolver.isSeparator(ByteBuffer.wrap(request), lineStart, length)) {
+                            length = lineStart;
+                            respond();
+                        } else if (oversized) {
+                            length = 0;
+                            lineStart = 0;
+                        } else {
+                            append(chunk[i]);
+                            lineStart = length;
+                        }
+                    }
+                    if (input.available() == 0) { // Pipelined requests are answered in a single write
+                        output.flush();
+                    }
+                }
+
+                if (length > 0 || oversized) {
+                    respond();
+                    output.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void append(final byte character) {
+            if (!oversized && length >= sizeLimitBytes) {
+                oversized = true;
+                length = 0;
+                lineStart = 0;
+            }
+            if (oversized && length >= SKIPPED_LINE_PREFIX) {
+                return;
+            }
+            if (length == request.length) {
+                request = Arrays.copyOf(request, Math.min(request.length * 2, sizeLimitBytes + 1));
+            }
+            request[length++] = character;
+        }
+
+        private void respond() throws IOException, InterruptedException {
+            final String verdict;
+            if (oversized) {
+                verdict = String.format("Error: the formula exceeds the size limit of %d bytes", sizeLimitBytes);
+            } else {
+                verdict = solve(request, length);
+            }
+
+            output.write(verdict.getBytes(StandardCharsets.UTF_8));
+            output.write(RESPONSE_SEPARATOR);
+
+            if (verdict.startsWith("Verdict: " + SolverResult.SatResult.UNKNOWN)) {
+                request = new byte[1 << 12]; // An abandoned solve may still read the old buffer
+            }
+            length = 0;
+            lineStart = 0;
+            oversized = false;
+        }
+    }
+}
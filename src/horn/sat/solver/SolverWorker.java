@@ -0,0 +1,140 @@
+package horn.sat.solver;
+
+import horn.sat.solver.exceptions.InvalidFormulaException;
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.parsers.FormulaReader;
+import horn.sat.solver.util.Fingerprint;
+import horn.sat.solver.util.ResultCache;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Reads and solves formulas one after another, reusing its reader and solver for every formula. Used as per-thread
+ * state by the batch and server modes. Instances are not thread-safe.
+ */
+class SolverWorker {
+
+    private final FormulaReader reader = new FormulaReader();
+    private final Solver solver = new Solver();
+    private final ResultCache cache;
+
+    /**
+     * @param cache cache of results shared by all workers, or null to solve every formula
+     */
+    SolverWorker(final ResultCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Solves the formula stored in the given file.
+     *
+     * @param path path of the file containing the formula
+     * @return the verdict, or an error message if the formula could not be read
+     */
+    String solve(final Path path) {
+        return solve(path, SolveContext.unlimited());
+    }
+
+    /**
+     * Solves the formula stored in the given file within the limits of the given context.
+     *
+     * @param path path of the file containing the formula
+     * @param context limits of reading and solving the formula
+     * @return the verdict, which is UNKNOWN if a limit has been exceeded, or an error message if the formula could not
+     *  be read
+     */
+    String solve(final Path path, final SolveContext context) {
+        try {
+            if (cache != null) {
+                final ByteBuffer contents = reader.load(path);
+                return solveCached(contents, 0, contents.limit(), 1, context);
+            }
+            return solver.run(reader.read(path, context), context).getVerdict();
+        } catch (LimitExceededException e) {
+            return SolverResult.unknown(e.getMessage()).getVerdict();
+        } catch (InvalidFormulaException e) {
+            return String.format("Given formula is not a valid horn formula: %s", e.getMessage());
+        } catch (IOException e) {
+            return String.format("Error reading from the input file: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Solves the formula stored in the given buffer between 'from' (inclusive) and 'to' (exclusive).
+     *
+     * @param buffer buffer containing the UTF-8 encoded formula
+     * @param from start of the formula
+     * @param to end of the formula
+     * @param firstLine number of the formula's first line, used for error messages
+     * @return the verdict, or an error message if the formula is invalid
+     */
+    String solve(final ByteBuffer buffer, final int from, final int to, final long firstLine) {
+        return solve(buffer, from, to, firstLine, SolveContext.unlimited());
+    }
+
+    /**
+     * Solves the formula stored in the given buffer between 'from' (inclusive) and 'to' (exclusive) within the limits
+     * of the given context.
+     *
+     * @param buffer buffer containing the UTF-8 encoded formula
+     * @param from start of the formula
+     * @param to end of the formula
+     * @param firstLine number of the formula's first line, used for error messages
+     * @param context limits of reading and solving the formula
+     * @return the verdict, which is UNKNOWN if a limit has been exceeded, or an error message if the formula is invalid
+     */
+    String solve(final ByteBuffer buffer, final int from, final int to, final long firstLine, final SolveContext context) {
+        try {
+            if (cache != null) {
+                return solveCached(buffer, from, to, firstLine, context);
+            }
+            return solver.run(reader.read(buffer, from, to, firstLine, context), context).getVerdict();
+        } catch (LimitExceededException e) {
+            return SolverResult.unknown(e.getMessage()).getVerdict();
+        } catch (InvalidFormulaException e) {
+            return String.format("Given formula is not a valid horn formula: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Solves the formula stored in the given buffer without looking it up in the cache, which would answer every
+     * repetition but the first, so repeated calls compile the hot paths of the reader and the solver.
+     *
+     * @param buffer buffer containing the UTF-8 encoded formula
+     * @param from start of the formula
+     * @param to end of the formula
+     */
+    void warmUp(final ByteBuffer buffer, final int from, final int to) {
+        solver.run(reader.read(buffer, from, to, 1), SolveContext.unlimited());
+    }
+
+    /**
+     * Looks the formula up in the cache, first by the content fingerprint of its input, then by its canonical
+     * fingerprint, and only solves it if neither has been cached.
+     */
+    private String solveCached(final ByteBuffer buffer, final int from, final int to, final long firstLine,
+                               final SolveContext context) {
+        final Fingerprint content = Fingerprint.of(buffer, from, to);
+        final Optional<SolverResult> byContent = cache.getByContent(content);
+        if (byContent.isPresent()) {
+            return byContent.get().getVerdict();
+        }
+
+        final HornFormula hornFormula = reader.read(buffer, from, to, firstLine, context);
+        final Fingerprint fingerprint = Fingerprint.of(hornFormula);
+        final Optional<SolverResult> cached = cache.get(fingerprint);
+        if (cached.isPresent()) {
+            cache.alias(content, fingerprint);
+            return cached.get().getVerdict();
+        }
+
+        final SolverResult result = solver.run(hornFormula, context);
+        cache.put(fingerprint, content, result);
+        return result.getVerdict();
+    }
+}
@@ -0,0 +1,288 @@
+package horn.sat.solver;
+
+import horn.sat.solver.exceptions.InvalidFormulaException;
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.parsers.StreamingFileParser;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.IntList;
+import horn.sat.solver.util.Model;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverMetrics;
+import horn.sat.solver.util.SolverResult;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Solves a formula while it is being read, overlapping the parsing of the input file with the propagation.
+ *
+ * A reader thread parses the file with a {@link StreamingFileParser} and passes the clauses chunk by chunk through a
+ * bounded queue, so the reader runs at most {@value #QUEUE_CAPACITY} chunks ahead of the propagation. The calling
+ * thread propagates every chunk as soon as it arrives, like the {@link IncrementalSolver}: a new clause only counts
+ * its premises that are not marked yet, and the atoms it marks are propagated through the clauses read so far. Since
+ * marking is monotone, the atoms marked once the whole file has been read are exactly those of the minimal model.
+ *
+ * As soon as '⊥' is marked, the formula is known to be unsatisfiable. If requested, the reader is then stopped and the
+ * rest of the file is never read, which also means that syntax errors in the rest of the file go unnoticed. Otherwise,
+ * the rest of the file is still read, but no longer propagated. Errors of the reader are thrown by the calling
+ * thread once all chunks read before the error have been propagated, unless the formula is unsatisfiable by then and
+ * reading is stopped.
+ */
+public class StreamingSolver {
+    private static final int VERUM = SymbolTable.VERUM;
+    private static final int FALSUM = SymbolTable.FALSUM;
+    // Number of parsed chunks the reader may run ahead of the propagation
+    private static final int QUEUE_CAPACITY = 16;
+    // Number of clause visits between two checks of the solve context's deadline
+    private static final int CHECK_INTERVAL = 1 << 14;
+    // Marks the end of the input in the queue
+    private static final StreamingFileParser.Chunk END = new StreamingFileParser.Chunk(new ClauseStore.Builder().build(), 0);
+
+    private final boolean stopOnUnsat;
+
+    /**
+     * @param stopOnUnsat 'true' if reading should stop as soon as the formula is known to be unsatisfiable
+     */
+    public StreamingSolver(final boolean stopOnUnsat) {
+        this.stopOnUnsat = stopOnUnsat;
+    }
+
+    /**
+     * Reads the formula with the given parser and solves it within the limits of the given context.
+     *
+     * @param parser parser of the formula, must not have been used before
+     * @param context limits of the run
+     * @return the unsat result, or the minimal model of the formula if it is satisfiable, or an unknown result if a
+     *  limit has been exceeded
+     * @throws InvalidFormulaException thrown if the formula is not a valid horn formula
+     * @throws IOException thrown if the file cannot be read
+     */
+    public SolverResult run(final StreamingFileParser parser, final SolveContext context) throws IOException {
+        final long startNanos = SolverMetrics.isEnabled() ? System.nanoTime() : 0;
+        final long startAllocated = SolverMetrics.isEnabled() ? SolverMetrics.allocatedBytes() : 0;
+        final Pipeline pipeline = new Pipeline(parser);
+        final Propagation propagation = new Propagation(context);
+
+        pipeline.reader.start();
+        try {
+            StreamingFileParser.Chunk chunk;
+            while (!(stopOnUnsat && propagation.isUnsat()) && (chunk = pipeline.queue.take()) != END) {
+                if (!propagation.isUnsat()) {
+                    propagation.add(chunk);
+                }
+            }
+            if (!propagation.isUnsat() || !stopOnUnsat) {
+                pipeline.rethrowFailure();
+            }
+            if (SolverMetrics.isEnabled()) {
+                SolverMetrics.get().recordSolve(startNanos, startAllocated, propagation.propagatedAtoms,
+                        propagation.visitedClauses, propagation.maxQueued);
+            }
+            return propagation.result(parser.getSymbolTable());
+        } catch (LimitExceededException e) {
+            return SolverResult.unknown(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SolverResult.unknown("the solver has been interrupted");
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    /**
+     * Reader thread and the queue of the chunks it has read.
+     */
+    private static final class Pipeline {
+
+        private final BlockingQueue<StreamingFileParser.Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Thread reader;
+        private volatile boolean stopped = false;
+        // Exception that ended the reader thread, only read after the end of the input has been taken from the queue
+        private volatile Throwable failure;
+
+        private Pipeline(final StreamingFileParser parser) {
+            this.reader = new Thread(() -> {
+                try {
+                    parser.parse(chunk -> {
+                        if (stopped) {
+                            return false;
+                        }
+                        queue.put(chunk);
+                        return true;
+                    });
+                } catch (RuntimeException | Error | IOException | InterruptedException e) {
+                    failure = e;
+                }
+                // Once stopped, the queue is no longer taken from. The end would then not fit if the queue was full.
+                try {
+                    if (!stopped) {
+                        queue.put(END);
+                    }
+                } catch (InterruptedException e) {
+                    failure = e;
+                }
+            }, "horn-sat-stream-reader");
+            this.reader.setDaemon(true);
+        }
+
+        private void rethrowFailure() throws IOException {
+            if (failure instanceof IOException e) {
+                throw e;
+            }
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+            if (failure instanceof Error e) {
+                throw e;
+            }
+            if (failure != null) {
+                throw new LimitExceededException("the solver has been interrupted");
+            }
+        }
+
+        /**
+         * Stops the reader and waits for it to finish. The reader notices the stop before handing over its next
+         * chunk, and a chunk it is currently handing over fits into the cleared queue.
+         */
+        private void stop() {
+            stopped = true;
+            queue.clear();
+            try {
+                reader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * State of the propagation over all clauses read so far.
+     */
+    private static final class Propagation {
+
+        private final SolveContext context;
+        // Heads and counters of unmarked premises of all clauses read so far, indexed by the clauses' input order
+        private final IntList heads = new IntList();
+        private final IntList unmarkedPremises = new IntList();
+        // Clauses in which an atom occurs as an unmarked premise, indexed by atom id. Lists are created on demand and
+        // dropped once the atom has been propagated, as it is never visited again.
+        private IntList[] occurrences = new IntList[16];
+        private boolean[] marked = new boolean[16];
+        // Atoms in the order in which they have been marked, all atoms before 'propagatedAtoms' have been propagated
+        private final IntList pending = new IntList();
+        private int propagatedAtoms = 0;
+        // Largest number of atoms waiting to be propagated at once
+        private int maxQueued = 0;
+        private long visitedClauses = 0;
+        private long premiseCount = 0;
+        private int steps = CHECK_INTERVAL;
+
+        private Propagation(final SolveContext context) {
+            this.context = context;
+            marked[VERUM] = true;
+        }
+
+        private boolean isUnsat() {
+            return marked[FALSUM];
+        }
+
+        /**
+         * Adds the clauses of the given chunk and propagates their consequences.
+         */
+        private void add(final StreamingFileParser.Chunk chunk) {
+            final ClauseStore store = chunk.clauseStore();
+            ensureAtomCapacity(chunk.atomCount());
+            premiseCount += store.getPremiseCount();
+            context.checkTime();
+            context.checkSize(heads.size() + store.getClauseCount(), premiseCount, chunk.atomCount());
+
+            for (int clause = 0; clause < store.getClauseCount(); clause++) {
+                final int index = heads.size();
+                int unmarked = 0;
+                // Marked premises never have to be looked at again, hence they are neither counted nor indexed
+                for (int i = store.getPremiseStart(clause); i < store.getPremiseEnd(clause); i++) {
+                    final int atom = store.getPremise(i);
+                    if (!marked[atom]) {
+                        if (occurrences[atom] == null) {
+                            occurrences[atom] = new IntList(4);
+                        }
+                        occurrences[atom].add(index);
+                        unmarked++;
+                    }
+                }
+                heads.add(store.getHead(clause));
+                unmarkedPremises.add(unmarked);
+
+                if (unmarked == 0) {
+                    mark(store.getHead(clause));
+                }
+            }
+            propagate();
+        }
+
+        private void propagate() {
+            while (propagatedAtoms < pending.size() && !marked[FALSUM]) {
+                maxQueued = Math.max(maxQueued, pending.size() - propagatedAtoms);
+                final int atom = pending.get(propagatedAtoms++);
+                final IntList clauses = occurrences[atom];
+                if (clauses == null) {
+                    continue;
+                }
+                occurrences[atom] = null;
+
+                steps -= clauses.size();
+                if (steps <= 0) {
+                    context.checkTime();
+                    steps = CHECK_INTERVAL;
+                }
+                visitedClauses += clauses.size();
+
+                for (int i = 0; i < clauses.size(); i++) {
+                    final int clause = clauses.get(i);
+                    final int unmarked = unmarkedPremises.get(clause) - 1;
+                    unmarkedPremises.set(clause, unmarked);
+
+                    if (unmarked == 0) {
+                        mark(heads.get(clause));
+                    }
+                }
+            }
+        }
+
+        private void mark(final int atom) {
+            if (!marked[atom]) {
+                marked[atom] = true;
+                pending.add(atom);
+            }
+        }
+
+        private void ensureAtomCapacity(final int atomCount) {
+            if (atomCount > marked.length) {
+                final int capacity = Math.max(atomCount, marked.length * 2);
+                marked = Arrays.copyOf(marked, capacity);
+                occurrences = Arrays.copyOf(occurrences, capacity);
+            }
+        }
+
+        /**
+         * Returns the result of all clauses read. The symbol table may only be read once the reader has finished,
+         * which it has once the end of the input has been taken from the queue.
+         */
+        private SolverResult result(final SymbolTable symbolTable) {
+            if (marked[FALSUM]) {
+                return SolverResult.unsat();
+            }
+            final Model model = new Model(symbolTable, symbolTable.size());
+            ensureAtomCapacity(symbolTable.size());
+            for (int atom = 0; atom < symbolTable.size(); atom++) {
+                if (symbolTable.isInterned(atom)) {
+                    model.assign(atom, marked[atom]);
+                }
+            }
+            return SolverResult.sat(model);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package horn.sat.solver.exceptions;
+
+public class LimitExceededException extends RuntimeException {
+
+    public LimitExceededException(final String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,256 @@
+package horn.sat.solver.generator;
+
+import horn.sat.solver.exceptions.InvalidInputException;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible Horn Formulas of a given size in the input format accepted by the parsers.
+ *
+ * Every family comes in a satisfiable and an unsatisfiable variant. The unsatisfiable variant only differs by a single
+ * goal clause that implies falsum, so both variants have the same size and the unsatisfiable one is only detected
+ * after (almost) all atoms have been propagated. Generating the same family with the same seed and size always
+ * yields the same formula.
+ */
+public class FormulaGenerator {
+
+    // Number of premises of the clauses of the fan-in family
+    private static final int FAN_IN = 32;
+    // Number of levels of the fan-out family
+    private static final int FAN_OUT_DEPTH = 8;
+    // Maximum number of nested groups in a clause of the nested parentheses family
+    private static final int MAX_NESTING_DEPTH = 32;
+
+    private final long seed;
+    private final int k;
+
+    public FormulaGenerator(final long seed) {
+        this(seed, 3);
+    }
+
+    /**
+     * @param seed seed of the random families
+     * @param k maximum number of premises of the clauses of the random families
+     */
+    public FormulaGenerator(final long seed, final int k) {
+        this.seed = seed;
+        this.k = k;
+    }
+
+    /**
+     * Writes a formula of the given family, one clause per line.
+     *
+     * @param family family of the generated formula
+     * @param clauseCount approximate number of clauses of the generated formula
+     * @param satisfiable whether the generated formula should be satisfiable
+     * @param writer writer the formula is written to
+     * @throws IOException thrown if the formula cannot be written
+     */
+    public void write(final Family family, final int clauseCount, final boolean satisfiable, final Writer writer)
+            throws IOException {
+        final String goal = switch (family) {
+            case CHAIN -> writeChain(clauseCount, writer);
+            case TREE -> writeTree(clauseCount, 2, writer);
+            case FAN_IN -> writeTree(clauseCount, FAN_IN, writer);
+            case FAN_OUT -> writeFanOut(clauseCount, writer);
+            case RANDOM_HORN -> writeRandomHorn(clauseCount, writer);
+            case NESTED_PARENTHESES -> writeNestedParentheses(clauseCount, writer);
+        };
+
+        if (!satisfiable) {
+            writer.write(goal);
+            writer.write(" -> 0\n");
+        }
+    }
+
+    /**
+     * Returns a formula of the given family as string, one clause per line.
+     *
+     * @param family family of the generated formula
+     * @param clauseCount approximate number of clauses of the generated formula
+     * @param satisfiable whether the generated formula should be satisfiable
+     * @return the generated formula
+     */
+    public String generate(final Family family, final int clauseCount, final boolean satisfiable) {
+        final StringWriter writer = new StringWriter();
+        try {
+            write(family, clauseCount, satisfiable, writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // unreachable, writing to a string does not fail
+        }
+        return writer.toString();
+    }
+
+    /**
+     * a0, a0 -> a1, a1 -> a2, ... every atom is only derived after its predecessor.
+     */
+    private static String writeChain(final int clauseCount, final Writer writer) throws IOException {
+        writer.write("-> a0\n");
+        for (int i = 1; i < clauseCount; i++) {
+            writeClause(writer, "a" + (i - 1), "a" + i);
+        }
+        return "a" + Math.max(clauseCount - 1, 0);
+    }
+
+    /**
+     * Reduction tree whose leaves are facts and whose inner nodes are implied by the conjunction of their children.
+     */
+    private static String writeTree(final int clauseCount, final int fanIn, final Writer writer) throws IOException {
+        final int leaves = Math.max(1, clauseCount - clauseCount / fanIn);
+        for (int i = 0; i < leaves; i++) {
+            writer.write("-> n0_" + i + "\n");
+        }
+
+        int level = 0;
+        int width = leaves;
+        while (width > 1) {
+            final int parents = (width + fanIn - 1) / fanIn;
+            for (int parent = 0; parent < parents; parent++) {
+                final StringBuilder conjunction = new StringBuilder();
+                for (int child = parent * fanIn; child < Math.min(width, (parent + 1) * fanIn); child++) {
+                    if (conjunction.length() > 0) {
+                        conjunction.append(" & ");
+                    }
+                    conjunction.append('n').append(level).append('_').append(child);
+                }
+                writeClause(writer, conjunction.toString(), "n" + (level + 1) + "_" + parent);
+            }
+            level++;
+            width = parents;
+        }
+        return "n" + level + "_0";
+    }
+
+    /**
+     * A single fact implies every atom of the first level, and every atom of the following levels is implied by up to
+     * k random atoms of the level before, so every level is as wide as the formula allows.
+     */
+    private String writeFanOut(final int clauseCount, final Writer writer) throws IOException {
+        final Random random = new Random(seed);
+        final int width = Math.max(1, (clauseCount - 1) / FAN_OUT_DEPTH);
+        writer.write("-> f\n");
+        for (int atom = 0; atom < width; atom++) {
+            writeClause(writer, "f", "w1_" + atom);
+        }
+
+        for (int level = 2; level <= FAN_OUT_DEPTH; level++) {
+            for (int atom = 0; atom < width; atom++) {
+                final StringBuilder conjunction = new StringBuilder();
+                final int premises = 1 + random.nextInt(k);
+                for (int i = 0; i < premises; i++) {
+                    if (i > 0) {
+                        conjunction.append(" & ");
+                    }
+                    conjunction.append('w').append(level - 1).append('_').append(random.nextInt(width));
+                }
+                writeClause(writer, conjunction.toString(), "w" + level + "_" + atom);
+            }
+        }
+        return "w" + FAN_OUT_DEPTH + "_" + (width - 1);
+    }
+
+    /**
+     * Random clauses with up to k premises, where every premise is an atom with a smaller index than the implied atom.
+     * A tenth of the atoms are facts, and every atom is implied by some clause, so all atoms are eventually derived.
+     */
+    private String writeRandomHorn(final int clauseCount, final Writer writer) throws IOException {
+        final Random random = new Random(seed);
+        final int facts = writeFacts(clauseCount, writer);
+
+        for (int atom = facts; atom < clauseCount; atom++) {
+            final StringBuilder conjunction = new StringBuilder();
+            final int premises = 1 + random.nextInt(k);
+            for (int i = 0; i < premises; i++) {
+                if (i > 0) {
+                    conjunction.append(" & ");
+                }
+                conjunction.append('x').append(random.nextInt(atom));
+            }
+            writeClause(writer, conjunction.toString(), "x" + atom);
+        }
+        return "x" + (Math.max(clauseCount, facts) - 1);
+    }
+
+    /**
+     * Like the random family, but the premises of every clause are wrapped in randomly nested groups, some of which
+     * are empty, e.g. '((x3 & ()) & ((x1)))'.
+     */
+    private String writeNestedParentheses(final int clauseCount, final Writer writer) throws IOException {
+        final Random random = new Random(seed);
+        final int facts = writeFacts(clauseCount, writer);
+
+        for (int atom = facts; atom < clauseCount; atom++) {
+            final StringBuilder conjunction = new StringBuilder("x").append(random.nextInt(atom));
+            final int depth = 1 + random.nextInt(MAX_NESTING_DEPTH);
+            for (int i = 0; i < depth; i++) {
+                switch (random.nextInt(4)) {
+                    case 0 -> conjunction.insert(0, '(').append(')');
+                    case 1 -> conjunction.insert(0, '(').append(" & ())");
+                    default -> conjunction.insert(0, '(').append(" & (x").append(random.nextInt(atom)).append("))");
+                }
+            }
+            writeClause(writer, conjunction.toString(), "x" + atom);
+        }
+        return "x" + (Math.max(clauseCount, facts) - 1);
+    }
+
+    private static int writeFacts(final int clauseCount, final Writer writer) throws IOException {
+        final int facts = Math.max(1, clauseCount / 10);
+        for (int i = 0; i < facts; i++) {
+            writer.write("-> x" + i + "\n");
+        }
+        return facts;
+    }
+
+    private static void writeClause(final Writer writer, final String conjunction, final String impliedAtom)
+            throws IOException {
+        writer.write(conjunction);
+        writer.write(" -> ");
+        writer.write(impliedAtom);
+        writer.write('\n');
+    }
+
+    /**
+     * Writes a single generated formula. Whether the formula is satisfiable is drawn from the seed and the ratio of
+     * unsatisfiable formulas.
+     */
+    public static void main(String[] args) {
+        final GeneratorOptions options;
+        try {
+            options = GeneratorOptions.parse(args, false);
+        } catch (InvalidInputException e) {
+            System.err.println("Usage: FormulaGenerator [-f FAMILY] [-n CLAUSES] [-s SEED] [-k K] [-u UNSAT_RATIO] [-o OUTPUT_FILE]");
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        final boolean satisfiable = new SplittableRandom(options.seed()).nextDouble() >= options.unsatRatio();
+        final FormulaGenerator generator = new FormulaGenerator(options.seed(), options.k());
+
+        try (final BufferedWriter writer = options.outputFile() == null
+                ? new BufferedWriter(new PrintWriter(System.out))
+                : new BufferedWriter(new FileWriter(options.outputFile()))) {
+            generator.write(options.families().get(0), options.clauseCount(), satisfiable, writer);
+        } catch (IOException e) {
+            System.err.printf("Error writing the generated formula: %s%n", e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public enum Family {
+        CHAIN,
+        TREE,
+        FAN_IN,
+        FAN_OUT,
+        RANDOM_HORN,
+        NESTED_PARENTHESES
+    }
+}
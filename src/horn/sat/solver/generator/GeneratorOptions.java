@@ -0,0 +1,127 @@
+package horn.sat.solver.generator;
+
+import horn.sat.solver.exceptions.InvalidInputException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Command line options shared by the {@link FormulaGenerator} and the {@link ScalingHarness}.
+ *
+ * @param families generated families, a single one for the generator
+ * @param clauseCount number of clauses of the generated formula, or the largest size measured by the harness
+ * @param seed seed of the random families and of the choice between satisfiable and unsatisfiable formulas
+ * @param k maximum number of premises of the clauses of the random families
+ * @param unsatRatio ratio of unsatisfiable formulas between 0 and 1
+ * @param instances number of formulas generated by the harness per family and size
+ * @param outputFile file the generator writes to, or null for the standard output
+ */
+record GeneratorOptions(List<FormulaGenerator.Family> families, int clauseCount, long seed, int k, double unsatRatio,
+                        int instances, String outputFile) {
+
+    /**
+     * Parses the given arguments, rejecting options that do not apply to the tool.
+     *
+     * @param args commandline arguments
+     * @param harness whether the options are parsed for the harness instead of the generator
+     * @return the parsed options, unspecified options have their default value
+     * @throws InvalidInputException thrown if an option is not supported, specified multiple times or invalid
+     */
+    static GeneratorOptions parse(final String[] args, final boolean harness) throws InvalidInputException {
+        List<FormulaGenerator.Family> families = harness
+                ? Arrays.asList(FormulaGenerator.Family.values())
+                : List.of(FormulaGenerator.Family.RANDOM_HORN);
+        int clauseCount = harness ? 1_000_000 : 1000;
+        long seed = 1;
+        int k = 3;
+        double unsatRatio = 0.5;
+        int instances = 1;
+        String outputFile = null;
+
+        final Set<String> specified = new HashSet<>();
+        for (int i = 0; i < args.length; i += 2) {
+            final String option = args[i];
+            if (!specified.add(option)) {
+                throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", option));
+            }
+            if (i + 1 >= args.length) {
+                throw new InvalidInputException(String.format("Option '%s' is missing its argument", option));
+            }
+            final String value = args[i + 1].trim();
+
+            switch (option) {
+                case "-f" -> families = parseFamilies(value, harness);
+                case "-n" -> clauseCount = parsePositiveInteger(option, value);
+                case "-s" -> seed = parseLong(option, value);
+                case "-k" -> k = parsePositiveInteger(option, value);
+                case "-u" -> unsatRatio = parseRatio(option, value);
+                case "-r" -> {
+                    if (!harness) {
+                        throw new InvalidInputException(String.format("'%s' is not recognized a supported option!", option));
+                    }
+                    instances = parsePositiveInteger(option, value);
+                }
+                case "-o" -> {
+                    if (harness) {
+                        throw new InvalidInputException(String.format("'%s' is not recognized a supported option!", option));
+                    }
+                    outputFile = value;
+                }
+                default -> throw new InvalidInputException(String.format("'%s' is not recognized a supported option!", option));
+            }
+        }
+        return new GeneratorOptions(families, clauseCount, seed, k, unsatRatio, instances, outputFile);
+    }
+
+    private static List<FormulaGenerator.Family> parseFamilies(final String value, final boolean harness)
+            throws InvalidInputException {
+        final List<FormulaGenerator.Family> families = new ArrayList<>();
+        for (final String family : value.split(",")) {
+            try {
+                families.add(FormulaGenerator.Family.valueOf(family.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException(String.format("'%s' is not a known formula family, expected one of %s",
+                        family, Arrays.toString(FormulaGenerator.Family.values())));
+            }
+        }
+        if (!harness && families.size() != 1) {
+            throw new InvalidInputException("Option '-f' expects a single formula family");
+        }
+        return families;
+    }
+
+    private static int parsePositiveInteger(final String option, final String value) throws InvalidInputException {
+        try {
+            final int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new InvalidInputException(String.format("Option '%s' expects a positive integer, but got '%s'", option, value));
+    }
+
+    private static long parseLong(final String option, final String value) throws InvalidInputException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException(String.format("Option '%s' expects an integer, but got '%s'", option, value));
+        }
+    }
+
+    private static double parseRatio(final String option, final String value) throws InvalidInputException {
+        try {
+            final double ratio = Double.parseDouble(value);
+            if (ratio >= 0 && ratio <= 1) {
+                return ratio;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new InvalidInputException(String.format("Option '%s' expects a number between 0 and 1, but got '%s'", option, value));
+    }
+}
@@ -0,0 +1,429 @@
+package horn.sat.solver.generator;
+
+import horn.sat.solver.ComponentSolver;
+import horn.sat.solver.DecrementalSolver;
+import horn.sat.solver.HornClause;
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.IncrementalSolver;
+import horn.sat.solver.OffHeapSolver;
+import horn.sat.solver.ParallelSolver;
+import horn.sat.solver.Preprocessor;
+import horn.sat.solver.QuerySolver;
+import horn.sat.solver.Solver;
+import horn.sat.solver.StreamingSolver;
+import horn.sat.solver.atoms.IAtom;
+import horn.sat.solver.exceptions.InvalidFormulaException;
+import horn.sat.solver.exceptions.InvalidInputException;
+import horn.sat.solver.parsers.FormulaReader;
+import horn.sat.solver.parsers.ParserFactory;
+import horn.sat.solver.parsers.StreamingFileParser;
+import horn.sat.solver.store.BinaryFormat;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.Model;
+import horn.sat.solver.util.ResultWriter;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverResult;
+import horn.sat.solver.util.UnsatCore;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Solves generated formulas of growing size and prints the time and peak heap per formula, so a super-linear
+ * regression shows up as a growing time per clause.
+ *
+ * The sizes grow by a factor of ten from a thousand clauses up to the requested size. Every formula is parsed with
+ * the default file parser and solved with {@link Solver#solve}. The result is then cross-checked against the other
+ * engines of the solver, i.e. the {@link IncrementalSolver}, the {@link DecrementalSolver}, the parallel file parser,
+ * the {@link StreamingSolver}, the {@link QuerySolver} and the {@link Preprocessor}, and its model is checked against every clause of the formula.
+ * The parallel file parser must also assign every atom the same id, so its output is the same byte for byte.
+ * The unsat core of unsatisfiable formulas is checked to be unsatisfiable on its own. The harness exits with
+ * status 1 if any check fails.
+ */
+public class ScalingHarness {
+
+    private static final int SMALLEST_SIZE = 1000;
+    private static final int CROSS_CHECK_PARALLELISM = 4;
+    private static final int WARM_UP_ROUNDS = 20;
+    // Time per clause growing by more than this factor between two sizes is reported as non-linear
+    private static final double NON_LINEAR_GROWTH = 2.0;
+    // Put in front of and behind a generated formula to make it unsatisfiable and then invalid. The contradiction is
+    // repeated until it fills a whole chunk of the streaming parser, so the syntax error is always in a later chunk.
+    private static final byte[] CONTRADICTION = "-> contradiction\ncontradiction -> 0\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SYNTAX_ERROR = "\ncontradiction & -> 0\n".getBytes(StandardCharsets.UTF_8);
+
+    private final GeneratorOptions options;
+    // Draws whether a generated formula is satisfiable, in the order the formulas are generated
+    private final SplittableRandom verdicts;
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .collect(Collectors.toList());
+
+    private int failedChecks = 0;
+
+    private ScalingHarness(final GeneratorOptions options) {
+        this.options = options;
+        this.verdicts = new SplittableRandom(options.seed());
+    }
+
+    public static void main(String[] args) {
+        final GeneratorOptions options;
+        try {
+            options = GeneratorOptions.parse(args, true);
+        } catch (InvalidInputException e) {
+            System.err.println("Usage: ScalingHarness [-f FAMILY,...] [-n MAX_CLAUSES] [-s SEED] [-k K] [-u UNSAT_RATIO] [-r INSTANCES]");
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        final ScalingHarness harness = new ScalingHarness(options);
+        try {
+            harness.run();
+        } catch (IOException e) {
+            System.err.printf("Error writing a generated formula: %s%n", e.getMessage());
+            System.exit(1);
+        }
+        if (harness.failedChecks > 0) {
+            System.err.printf("%d cross-checks failed%n", harness.failedChecks);
+            System.exit(1);
+        }
+    }
+
+    private void run() throws IOException {
+        warmUp();
+
+        System.out.printf("%-18s %10s %-5s %10s %10s %10s %10s  %s%n",
+                "family", "clauses", "sat", "parse ms", "solve ms", "ns/clause", "peak MB", "check");
+
+        for (final FormulaGenerator.Family family : options.families()) {
+            double previousNanosPerClause = Double.NaN;
+
+            for (long size = SMALLEST_SIZE; size <= options.clauseCount(); size *= 10) {
+                final double nanosPerClause = measure(family, (int) size);
+                final double growth = nanosPerClause / previousNanosPerClause;
+                if (growth > NON_LINEAR_GROWTH) {
+                    System.out.printf("%-18s %10d time per clause grew by a factor of %.1f, possibly non-linear%n",
+                            family, size, growth);
+                }
+                previousNanosPerClause = nanosPerClause;
+            }
+        }
+    }
+
+    /**
+     * Solves the small formulas repeatedly, so the measurements of the first sizes are not dominated by the JIT.
+     */
+    private void warmUp() {
+        final FormulaReader reader = new FormulaReader();
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            for (final FormulaGenerator.Family family : options.families()) {
+                final String formula = new FormulaGenerator(round, options.k()).generate(family, SMALLEST_SIZE, true);
+                final byte[] bytes = formula.getBytes(StandardCharsets.UTF_8);
+                Solver.solve(reader.read(ByteBuffer.wrap(bytes), 0, bytes.length, 1));
+            }
+        }
+    }
+
+    /**
+     * Measures all instances of the given family and size.
+     *
+     * @return time per clause of parsing and solving of the fastest instance in nanoseconds, which is the least
+     *  affected by garbage collection and other noise
+     */
+    private double measure(final FormulaGenerator.Family family, final int size) throws IOException {
+        double fastestNanosPerClause = Double.POSITIVE_INFINITY;
+
+        for (int instance = 0; instance < options.instances(); instance++) {
+            final long seed = options.seed() + instance;
+            final boolean satisfiable = verdicts.nextDouble() >= options.unsatRatio();
+            final Path path = Files.createTempFile("horn-scaling-", ".txt");
+
+            try {
+                try (final BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                    new FormulaGenerator(seed, options.k()).write(family, size, satisfiable, writer);
+                }
+
+                System.gc();
+                heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+                final long parseStart = System.nanoTime();
+                final HornFormula hornFormula = ParserFactory.getParser(Optional.of(path)).parse();
+                final long solveStart = System.nanoTime();
+                final SolverResult result = Solver.solve(hornFormula);
+                final long solveEnd = System.nanoTime();
+                final long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+                final String check = crossCheck(path, hornFormula, result, satisfiable);
+                final int clauses = hornFormula.getClauseCount();
+                final double nanosPerClause = (double) (solveEnd - parseStart) / clauses;
+                fastestNanosPerClause = Math.min(fastestNanosPerClause, nanosPerClause);
+
+                System.out.printf("%-18s %10d %-5s %10.1f %10.1f %10.1f %10.1f  %s%n",
+                        family, clauses, result.getSatResult(),
+                        (solveStart - parseStart) / 1e6, (solveEnd - solveStart) / 1e6,
+                        nanosPerClause, peakHeap / (double) (1 << 20), check);
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+        return fastestNanosPerClause;
+    }
+
+    /**
+     * Compares the result of {@link Solver#solve} with the results of the other engines and the expected verdict.
+     *
+     * @return 'ok', or a description of all failed checks
+     */
+    private String crossCheck(final Path path, final HornFormula hornFormula, final SolverResult result,
+                              final boolean satisfiable) throws IOException {
+        final Optional<Set<IAtom>> model = trueAtoms(result);
+        final List<String> failures = new ArrayList<>();
+
+        if (model.isPresent() != satisfiable) {
+            failures.add(String.format("expected %s", satisfiable ? "SAT" : "UNSAT"));
+        }
+        if (model.isPresent()) {
+            for (int clause = 0; clause < hornFormula.getClauseCount(); clause++) {
+                if (!hornFormula.getClause(clause).satisfiedByGivenConfiguration(model.get())) {
+                    failures.add(String.format("clause %d violated by the model", clause));
+                    break;
+                }
+            }
+        }
+
+        final IncrementalSolver incrementalSolver = new IncrementalSolver();
+        incrementalSolver.addFormula(hornFormula);
+        if (!trueAtoms(incrementalSolver.getResult()).equals(model)) {
+            failures.add("IncrementalSolver differs");
+        }
+
+        final DecrementalSolver decrementalSolver = new DecrementalSolver();
+        for (int clause = 0; clause < hornFormula.getClauseCount(); clause++) {
+            decrementalSolver.addClause(hornFormula.getClause(clause));
+        }
+        if (!trueAtoms(decrementalSolver.getResult()).equals(model)) {
+            failures.add("DecrementalSolver differs");
+        }
+
+        final HornFormula parallelFormula = ParserFactory.getParser(Optional.of(path), CROSS_CHECK_PARALLELISM).parse();
+        final SolverResult parallelParsed = Solver.solve(parallelFormula);
+        if (!trueAtoms(parallelParsed).equals(model)) {
+            failures.add("ParallelFileParser differs");
+        } else if (!sameIds(parallelFormula, hornFormula) || !Arrays.equals(render(parallelParsed), render(result))) {
+            failures.add("ParallelFileParser ids differ");
+        }
+
+        try (final ParallelSolver parallelSolver = new ParallelSolver(CROSS_CHECK_PARALLELISM)) {
+            final SolverResult parallel = parallelSolver.run(hornFormula);
+            if (!trueAtoms(parallel).equals(model) || !sameAtoms(parallel, result)) {
+                failures.add("ParallelSolver differs");
+            }
+        }
+
+        try (final ComponentSolver componentSolver = new ComponentSolver(CROSS_CHECK_PARALLELISM)) {
+            final SolverResult decomposed = componentSolver.run(hornFormula).result();
+            if (!trueAtoms(decomposed).equals(model) || !sameAtoms(decomposed, result)) {
+                failures.add("ComponentSolver differs");
+            }
+        }
+
+        final SolverResult streamed = new StreamingSolver(false)
+                .run(ParserFactory.getStreamingParser(path, SolveContext.unlimited()).orElseThrow(), SolveContext.unlimited());
+        if (!trueAtoms(streamed).equals(model) || !sameAtoms(streamed, result)) {
+            failures.add("StreamingSolver differs");
+        }
+        final SolverResult stopped = new StreamingSolver(true)
+                .run(ParserFactory.getStreamingParser(path, SolveContext.unlimited()).orElseThrow(), SolveContext.unlimited());
+        if (stopped.getModel().isPresent() != model.isPresent()) {
+            failures.add("StreamingSolver verdict differs");
+        }
+        checkStreamingStopsBeforeSyntaxError(path, failures);
+
+        final SolverResult logged = new Solver(true).run(hornFormula);
+        if (logged.getUnsatCore().isPresent() != (!satisfiable) || (logged.getUnsatCore().isPresent()
+                && !isUnsatCore(hornFormula, logged.getUnsatCore().get()))) {
+            failures.add("UnsatCore invalid");
+        }
+
+        final QuerySolver querySolver = new QuerySolver(hornFormula);
+        if (querySolver.isSatisfiable() != model.isPresent()) {
+            failures.add("QuerySolver verdict differs");
+        } else if (result.getModel().isPresent()) {
+            for (int atom = 0; atom < hornFormula.getSymbolTable().size(); atom++) {
+                if (result.getModel().get().contains(atom)
+                        && querySolver.isDerivable(atom) != result.getModel().get().isTrue(atom)) {
+                    failures.add(String.format("QuerySolver differs for atom %d", atom));
+                    break;
+                }
+            }
+        }
+
+        final Path binaryPath = Files.createTempFile("horn-scaling-", ".hsb");
+        try {
+            BinaryFormat.write(hornFormula.getSymbolTable(), hornFormula.getClauseStore(), binaryPath);
+            final BinaryFormat.MappedContents mapped = BinaryFormat.map(binaryPath);
+            final SolverResult offHeap = new OffHeapSolver(binaryPath.getParent()).run(mapped.symbolTable(), mapped.clauseStore());
+            if (!trueAtoms(offHeap).equals(model) || !sameAtoms(offHeap, result)) {
+                failures.add("OffHeapSolver differs");
+            }
+        } finally {
+            Files.deleteIfExists(binaryPath);
+        }
+
+        final Preprocessor.Preprocessed preprocessed = new Preprocessor(EnumSet.allOf(Preprocessor.Step.class)).run(hornFormula);
+        if (!trueAtoms(preprocessed.complete(Solver.solve(preprocessed.formula()))).equals(model)) {
+            failures.add("Preprocessor differs");
+        }
+
+        if (failures.isEmpty()) {
+            return "ok";
+        }
+        failedChecks++;
+        return String.join(", ", failures);
+    }
+
+    /**
+     * Checks that a syntax error after a contradiction is not reported by a {@link StreamingSolver} that stops reading
+     * once the formula is unsatisfiable, however far its reader has run ahead, but is reported if reading goes on.
+     */
+    private static void checkStreamingStopsBeforeSyntaxError(final Path path, final List<String> failures)
+            throws IOException {
+        final Path invalidPath = Files.createTempFile("horn-scaling-", ".txt");
+        try {
+            try (final OutputStream output = Files.newOutputStream(invalidPath)) {
+                for (int written = 0; written < StreamingFileParser.CHUNK_SIZE; written += CONTRADICTION.length) {
+                    output.write(CONTRADICTION);
+                }
+                Files.copy(path, output);
+                output.write(SYNTAX_ERROR);
+            }
+            try {
+                final SolverResult stopped = new StreamingSolver(true)
+                        .run(ParserFactory.getStreamingParser(invalidPath, SolveContext.unlimited()).orElseThrow(),
+                                SolveContext.unlimited());
+                if (stopped.getSatResult() != SolverResult.SatResult.UNSAT) {
+                    failures.add("StreamingSolver misses the contradiction");
+                }
+            } catch (InvalidFormulaException e) {
+                failures.add("StreamingSolver reports a syntax error after the contradiction");
+            }
+            try {
+                new StreamingSolver(false).run(
+                        ParserFactory.getStreamingParser(invalidPath, SolveContext.unlimited()).orElseThrow(),
+                        SolveContext.unlimited());
+                failures.add("StreamingSolver misses the syntax error");
+            } catch (InvalidFormulaException e) {
+                // expected, the whole file has been read
+            }
+        } finally {
+            Files.deleteIfExists(invalidPath);
+        }
+    }
+
+    /**
+     * Checks that the core's clauses on their own are unsatisfiable.
+     */
+    private static boolean isUnsatCore(final HornFormula hornFormula, final UnsatCore core) {
+        final Set<HornClause> clauses = new HashSet<>();
+        for (final int clause : core.getClauses()) {
+            clauses.add(hornFormula.getClause(clause));
+        }
+        return Solver.solve(new HornFormula(clauses)).getSatResult() == SolverResult.SatResult.UNSAT;
+    }
+
+    /**
+     * Checks that both formulas assign every atom the same id and consist of the same clauses in the same order.
+     */
+    private static boolean sameIds(final HornFormula hornFormula, final HornFormula expected) {
+        final SymbolTable symbolTable = hornFormula.getSymbolTable();
+        final SymbolTable expectedSymbolTable = expected.getSymbolTable();
+        if (symbolTable.size() != expectedSymbolTable.size()) {
+            return false;
+        }
+        for (int atom = 0; atom < symbolTable.size(); atom++) {
+            if (symbolTable.isInterned(atom) != expectedSymbolTable.isInterned(atom)
+                    || !symbolTable.getSymbolBytes(atom).equals(expectedSymbolTable.getSymbolBytes(atom))) {
+                return false;
+            }
+        }
+
+        final ClauseStore store = hornFormula.getClauseStore();
+        final ClauseStore expectedStore = expected.getClauseStore();
+        if (store.getClauseCount() != expectedStore.getClauseCount()
+                || store.getPremiseCount() != expectedStore.getPremiseCount()) {
+            return false;
+        }
+        for (int clause = 0; clause < store.getClauseCount(); clause++) {
+            if (store.getHead(clause) != expectedStore.getHead(clause)
+                    || store.getPremiseEnd(clause) != expectedStore.getPremiseEnd(clause)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < store.getPremiseCount(); i++) {
+            if (store.getPremise(i) != expectedStore.getPremise(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Renders the result in the JSON Lines format, which lists the atoms in the order of their ids.
+     */
+    private static byte[] render(final SolverResult result) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ResultWriter(ResultWriter.OutputFormat.JSON_LINES, false).write(result, Channels.newChannel(output));
+        return output.toByteArray();
+    }
+
+    /**
+     * Checks that the models of both results, if any, contain the same atom ids.
+     */
+    private static boolean sameAtoms(final SolverResult result, final SolverResult expected) {
+        if (result.getModel().isEmpty() || expected.getModel().isEmpty()) {
+            return result.getModel().isEmpty() == expected.getModel().isEmpty();
+        }
+        final Model model = result.getModel().get();
+        final Model expectedModel = expected.getModel().get();
+        for (int atom = 0; atom < Math.max(model.size(), expectedModel.size()); atom++) {
+            if (model.contains(atom) != expectedModel.contains(atom)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the atoms assigned 'true' by the result's model, or an empty optional if the formula is unsatisfiable.
+     */
+    private static Optional<Set<IAtom>> trueAtoms(final SolverResult result) {
+        return result.getModel().map(model -> {
+            final Set<IAtom> atoms = new HashSet<>();
+            for (int atom = model.nextTrue(0); atom >= 0; atom = model.nextTrue(atom + 1)) {
+                atoms.add(model.getSymbolTable().toAtom(atom));
+            }
+            return atoms;
+        });
+    }
+}
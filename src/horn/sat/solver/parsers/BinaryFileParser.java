@@ -0,0 +1,41 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.store.BinaryFormat;
+import horn.sat.solver.util.SolveContext;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Load horn formula from a file in the {@link BinaryFormat}, which requires neither tokenizing nor hashing. Loading is
+ * not interrupted by the solve context, the size of the loaded formula is checked against its budget afterwards.
+ */
+public class BinaryFileParser implements Parser {
+
+    private final Path path;
+    private final SolveContext context;
+
+    BinaryFileParser(final Path path, final SolveContext context) {
+        this.path = path;
+        this.context = context;
+    }
+
+    @Override
+    public HornFormula parse() {
+        try {
+            final BinaryFormat.Contents contents = BinaryFormat.read(path);
+            context.checkSize(contents.clauseStore().getClauseCount(), contents.clauseStore().getPremiseCount(),
+                    contents.symbolTable().size(), contents.symbolTable().getArenaSize());
+            return new HornFormula(contents.symbolTable(), contents.clauseStore());
+        } catch (NoSuchFileException e) {
+            System.err.printf("File at path '%s' not found", path.toString());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.printf("Error reading from the input file: %s%n", e.getMessage());
+            System.exit(1);
+        }
+        throw new RuntimeException(); // unreachable
+    }
+}
@@ -0,0 +1,254 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.exceptions.InvalidAtomException;
+import horn.sat.solver.exceptions.InvalidClauseException;
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolInterner;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.SolveContext;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Single pass tokenizer that reads horn clauses directly from the bytes of a buffer.
+ *
+ * The accepted syntax is the one of the {@link LinearParser}: every line contains exactly one clause of the form
+ * 'conjunction -> atom', conjuncts are separated by '&' and can be grouped using parentheses, and lines starting with
+ * '#' are comments. Atoms are interned straight from the buffer through a {@link SymbolInterner} and the parsed
+ * clauses are appended to a {@link ClauseStore.Builder}, so no intermediate strings or objects are created.
+ */
+class ClauseTokenizer {
+
+    // Number of lines between two checks of the solve context's limits
+    private static final int CHECK_INTERVAL = 1 << 12;
+
+    private final SymbolInterner symbolTable;
+    private final ClauseStore.Builder builder;
+
+    // Position information of the line that is currently being parsed, used for error messages
+    private long line;
+    private int lineStart;
+
+    ClauseTokenizer(final SymbolInterner symbolTable, final ClauseStore.Builder builder) {
+        this.symbolTable = symbolTable;
+        this.builder = builder;
+    }
+
+    /**
+     * Parses all lines in the given buffer between 'from' (inclusive) and 'to' (exclusive). The range must start at
+     * the beginning of a line and either end directly after a line break or at the end of the input.
+     *
+     * @param buffer buffer containing the UTF-8 encoded formula
+     * @param from start of the range to be parsed
+     * @param to end of the range to be parsed
+     * @param firstLine number of the first line in the range, used for error messages
+     * @return the number of the line following the parsed range
+     * @throws InvalidAtomException thrown if an atom's identifier is blank
+     * @throws InvalidClauseException thrown if the format of a clause is invalid, e.g. missing parenthesis, etc.
+     */
+    long parseLines(final ByteBuffer buffer, final int from, final int to, final long firstLine)
+            throws InvalidAtomException, InvalidClauseException {
+        return parseLines(buffer, from, to, firstLine, SolveContext.unlimited());
+    }
+
+    /**
+     * Parses all lines in the given range like {@link #parseLines(ByteBuffer, int, int, long)}, checking the limits of
+     * the given context every {@value #CHECK_INTERVAL} lines.
+     *
+     * @throws LimitExceededException thrown if the context has been cancelled, its deadline has passed or the clauses
+     *  parsed so far exceed its budget
+     */
+    long parseLines(final ByteBuffer buffer, final int from, final int to, final long firstLine,
+                    final SolveContext context) throws InvalidAtomException, InvalidClauseException, LimitExceededException {
+        this.line = firstLine;
+
+        int start = from;
+        int steps = CHECK_INTERVAL;
+        while (start < to) {
+            if (--steps == 0) {
+                context.checkTime();
+                context.checkSize(builder.getClauseCount(), builder.getPremiseCount(), symbolTable.size(), symbolTable.getArenaSize());
+                steps = CHECK_INTERVAL;
+            }
+            int end = start;
+            while (end < to && buffer.get(end) != '\n') {
+                end++;
+            }
+
+            final int next = end + 1;
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+
+            this.lineStart = start;
+            parseLine(buffer, start, end);
+
+            this.line++;
+            start = next;
+        }
+        return this.line;
+    }
+
+    private void parseLine(final ByteBuffer buffer, final int start, final int end) {
+        final int firstCharacter = skipWhitespace(buffer, start, end);
+
+        if (firstCharacter < end && buffer.get(firstCharacter) == '#') { // Allow comments of the form '# ... '
+            return;
+        }
+        if (firstCharacter == end) {
+            throw clauseError(start, "Clause must not be blank");
+        }
+
+        final int arrow = findArrow(buffer, start, end);
+        parseConjunction(buffer, start, arrow);
+
+        final int headStart = skipWhitespace(buffer, arrow + 2, end);
+        int headEnd = end;
+        while (headEnd > headStart && isWhitespace(buffer.get(headEnd - 1))) {
+            headEnd--;
+        }
+
+        if (headStart == headEnd) {
+            throw new InvalidAtomException(position(headStart) + "Symbol must not be empty");
+        }
+
+        builder.completeClause(internAtom(buffer, headStart, headEnd));
+    }
+
+    /**
+     * Returns the position of the clause's implication arrow, which must occur exactly once.
+     */
+    private int findArrow(final ByteBuffer buffer, final int start, final int end) {
+        int arrow = -1;
+
+        for (int i = start; i < end - 1; i++) {
+            if (buffer.get(i) == '-' && buffer.get(i + 1) == '>') {
+                if (arrow >= 0) {
+                    throw clauseError(i, "Clause does not follow the required format 'conjunction -> atom'");
+                }
+                arrow = i;
+                i++;
+            }
+        }
+
+        if (arrow < 0) {
+            throw clauseError(end, "Clause does not follow the required format 'conjunction -> atom'");
+        }
+        return arrow;
+    }
+
+    private void parseConjunction(final ByteBuffer buffer, final int start, final int end) {
+        int depth = 0;
+        boolean expectConjunct = true;
+        // Position of the last '&' that has not yet been followed by a conjunct, -1 if there is none
+        int pendingSeparator = -1;
+        boolean afterOpeningParenthesis = false;
+
+        int index = start;
+        while (index < end) {
+            final byte character = buffer.get(index);
+
+            if (isWhitespace(character)) { // ignoring superfluous whitespaces
+                index++;
+                continue;
+            }
+
+            if (expectConjunct) {
+                if (character == '(') {
+                    depth++;
+                    afterOpeningParenthesis = true;
+                    index++;
+                    continue;
+                }
+                if (character == ')' && afterOpeningParenthesis) { // empty sub-conjunction
+                    depth--;
+                    expectConjunct = false;
+                    pendingSeparator = -1;
+                    afterOpeningParenthesis = false;
+                    index++;
+                    continue;
+                }
+                if (character == '&' || character == ')') {
+                    throw clauseError(index, String.format("Found unexpected '%s' in conjunction", (char) character));
+                }
+
+                final int conjunctEnd = findEndOfConjunct(buffer, index, end);
+                builder.addPremise(internAtom(buffer, index, conjunctEnd));
+
+                expectConjunct = false;
+                pendingSeparator = -1;
+                afterOpeningParenthesis = false;
+                index = conjunctEnd;
+                continue;
+            }
+
+            if (character == '&') {
+                expectConjunct = true;
+                pendingSeparator = index;
+            } else if (character == ')') {
+                if (depth == 0) {
+                    throw clauseError(index, "Found unexpected ')' in conjunction");
+                }
+                depth--;
+            } else {
+                throw clauseError(index, "Invalid conjunction provided, conjuncts must be separated by '&'");
+            }
+            index++;
+        }
+
+        if (depth > 0) {
+            throw clauseError(end, "Closing parenthesis is missing in conjunction");
+        }
+        if (pendingSeparator >= 0) {
+            throw clauseError(pendingSeparator, "Conjunction is missing a conjunct");
+        }
+    }
+
+    private int findEndOfConjunct(final ByteBuffer buffer, final int start, final int end) {
+        int index = start;
+
+        while (index < end) {
+            final byte character = buffer.get(index);
+
+            if (isWhitespace(character) || character == '&' || character == '(' || character == ')') {
+                return index;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    private int internAtom(final ByteBuffer buffer, final int start, final int end) {
+        if (end - start == 1) {
+            final byte character = buffer.get(start);
+            if (character == '0') {
+                return symbolTable.internConstant(SymbolTable.FALSUM);
+            }
+            if (character == '1') {
+                return symbolTable.internConstant(SymbolTable.VERUM);
+            }
+        }
+        return symbolTable.intern(buffer, start, end);
+    }
+
+    private static int skipWhitespace(final ByteBuffer buffer, final int start, final int end) {
+        int index = start;
+        while (index < end && isWhitespace(buffer.get(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isWhitespace(final byte character) {
+        return character == ' ' || character == '\t' || character == '\r' || character == '\f' || character == 0x0B;
+    }
+
+    private InvalidClauseException clauseError(final int index, final String message) {
+        return new InvalidClauseException(position(index) + message);
+    }
+
+    private String position(final int index) {
+        return String.format("line %d, column %d: ", line, index - lineStart + 1);
+    }
+}
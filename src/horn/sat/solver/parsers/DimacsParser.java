@@ -0,0 +1,103 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.exceptions.InvalidFormulaException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.SolveContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read horn formula from a file in the DIMACS CNF format, see {@link DimacsTokenizer} for the accepted syntax.
+ *
+ * Like the {@link MappedFileParser}, the file is memory-mapped window by window and tokenized straight into the
+ * symbol table and clause store. Clauses that contain more than one positive literal are rejected.
+ */
+public class DimacsParser implements Parser {
+
+    // Largest region mapped at once, a single mapping is limited to Integer.MAX_VALUE bytes
+    private static final long MAX_WINDOW_SIZE = 1L << 30;
+    // Number of bytes inspected to recognize a DIMACS file
+    private static final int SNIFF_SIZE = 1 << 16;
+
+    private final Path path;
+    private final SolveContext context;
+
+    DimacsParser(final Path path, final SolveContext context) {
+        this.path = path;
+        this.context = context;
+    }
+
+    /**
+     * Determines whether the given file is a DIMACS CNF formula, i.e. whether its first line that is not a DIMACS
+     * comment is a problem line 'p cnf ...'. Lines of the text format contain '->', so they are never taken for
+     * DIMACS comments.
+     *
+     * @param path path of the file
+     * @return 'true' if the file is a DIMACS formula, 'false' if it is not or cannot be read
+     */
+    public static boolean isDimacs(final Path path) {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), SNIFF_SIZE));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the buffer is full or the end of the file has been reached
+            }
+            final String prefix = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+
+            for (final String line : prefix.split("\n")) {
+                final String trimmed = line.strip();
+                if (trimmed.isEmpty() || (trimmed.startsWith("c") && !trimmed.contains("->"))) {
+                    continue;
+                }
+                return trimmed.matches("p\\s+cnf(\\s.*)?");
+            }
+            return false;
+        } catch (IOException e) {
+            return false; // Left to the text parsers, which report the error
+        }
+    }
+
+    @Override
+    public HornFormula parse() {
+        final SymbolTable symbolTable = new SymbolTable();
+        final ClauseStore.Builder builder = new ClauseStore.Builder();
+        final DimacsTokenizer tokenizer = new DimacsTokenizer(symbolTable, builder);
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            long line = 1;
+
+            while (position < size) {
+                final long length = Math.min(size - position, MAX_WINDOW_SIZE);
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                final int end = position + length < size
+                        ? MappedFileParser.endOfLastLine(buffer, (int) length, line)
+                        : (int) length;
+                line = tokenizer.parseLines(buffer, 0, end, line, context);
+                position += end;
+            }
+            tokenizer.finish();
+        } catch (InvalidFormulaException e) {
+            System.err.printf("Given formula is not a valid horn formula: %s", e.getMessage());
+            System.exit(1);
+        } catch (NoSuchFileException e) {
+            System.err.printf("File at path '%s' not found", path.toString());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.printf("Error reading from the input file: %s%n", e.getMessage());
+            System.exit(1);
+        }
+
+        return new HornFormula(symbolTable, builder.build());
+    }
+}
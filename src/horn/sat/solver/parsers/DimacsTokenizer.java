@@ -0,0 +1,279 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.exceptions.InvalidClauseException;
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolInterner;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.SolveContext;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Single pass tokenizer that reads Horn clauses from the bytes of a DIMACS CNF formula.
+ *
+ * A DIMACS formula starts with the problem line 'p cnf VARIABLES CLAUSES', followed by the clauses. Every clause is a
+ * list of non-zero literals terminated by '0' and may span several lines, lines starting with 'c' are comments, and a
+ * line starting with '%' ends the formula. A clause is a Horn clause if it contains at most one positive literal: its
+ * negative literals become the premises, its positive literal the implied atom, and a clause without a positive
+ * literal implies falsum. The variable v is mapped to the atom 'xv'; every variable is interned once, afterwards its
+ * id is found through an array indexed by the variable.
+ *
+ * The state of the current clause is kept between calls, so the input can be passed in several ranges of lines.
+ */
+class DimacsTokenizer {
+
+    private static final int NO_LITERAL = 0;
+    // Number of lines between two checks of the solve context's limits
+    private static final int CHECK_INTERVAL = 1 << 12;
+
+    private final SymbolInterner symbolTable;
+    private final ClauseStore.Builder builder;
+
+    // Ids of the variables' atoms, 0 for variables that have not been interned yet
+    private int[] ids = new int[0];
+    private final ByteBuffer symbol = ByteBuffer.allocate(12);
+
+    private boolean headerParsed = false;
+    private boolean ended = false;
+    private int declaredVariables;
+    private boolean clauseStarted = false;
+    private int positiveLiteral = NO_LITERAL;
+
+    // Position information of the line that is currently being parsed, used for error messages
+    private long line;
+    private int lineStart;
+
+    DimacsTokenizer(final SymbolInterner symbolTable, final ClauseStore.Builder builder) {
+        this.symbolTable = symbolTable;
+        this.builder = builder;
+    }
+
+    /**
+     * Parses all lines in the given buffer between 'from' (inclusive) and 'to' (exclusive). The range must start at
+     * the beginning of a line and either end directly after a line break or at the end of the input.
+     *
+     * @param buffer buffer containing the DIMACS formula
+     * @param from start of the range to be parsed
+     * @param to end of the range to be parsed
+     * @param firstLine number of the first line in the range, used for error messages
+     * @return the number of the line following the parsed range
+     * @throws InvalidClauseException thrown if the formula is malformed or a clause is not a Horn clause
+     */
+    long parseLines(final ByteBuffer buffer, final int from, final int to, final long firstLine)
+            throws InvalidClauseException {
+        return parseLines(buffer, from, to, firstLine, SolveContext.unlimited());
+    }
+
+    /**
+     * Parses all lines in the given range like {@link #parseLines(ByteBuffer, int, int, long)}, checking the limits of
+     * the given context every {@value #CHECK_INTERVAL} lines.
+     *
+     * @throws LimitExceededException thrown if the context has been cancelled, its deadline has passed or the clauses
+     *  parsed so far exceed its budget
+     */
+    long parseLines(final ByteBuffer buffer, final int from, final int to, final long firstLine,
+                    final SolveContext context) throws InvalidClauseException, LimitExceededException {
+        this.line = firstLine;
+
+        int start = from;
+        int steps = CHECK_INTERVAL;
+        while (start < to && !ended) {
+            if (--steps == 0) {
+                context.checkTime();
+                context.checkSize(builder.getClauseCount(), builder.getPremiseCount(), symbolTable.size(), symbolTable.getArenaSize());
+                steps = CHECK_INTERVAL;
+            }
+            int end = start;
+            while (end < to && buffer.get(end) != '\n') {
+                end++;
+            }
+
+            this.lineStart = start;
+            parseLine(buffer, start, end);
+
+            this.line++;
+            start = end + 1;
+        }
+        return this.line;
+    }
+
+    /**
+     * Checks that the formula has been completed, i.e. it has a problem line and its last clause is terminated.
+     *
+     * @throws InvalidClauseException thrown if the formula is incomplete
+     */
+    void finish() throws InvalidClauseException {
+        if (!headerParsed) {
+            throw new InvalidClauseException("Problem line 'p cnf VARIABLES CLAUSES' is missing");
+        }
+        if (clauseStarted) {
+            throw new InvalidClauseException(String.format("line %d: Last clause is not terminated by '0'", line - 1));
+        }
+    }
+
+    private void parseLine(final ByteBuffer buffer, final int start, final int end) {
+        int index = skipWhitespace(buffer, start, end);
+        if (index == end) {
+            return;
+        }
+
+        switch (buffer.get(index)) {
+            case 'c' -> {
+                return;
+            }
+            case '%' -> {
+                ended = true;
+                return;
+            }
+            case 'p' -> {
+                parseProblemLine(buffer, index, end);
+                return;
+            }
+            default -> {
+                if (!headerParsed) {
+                    throw clauseError(index, "Clauses must be preceded by the problem line 'p cnf VARIABLES CLAUSES'");
+                }
+            }
+        }
+
+        while (index < end) {
+            final int literalEnd = findEndOfToken(buffer, index, end);
+            parseLiteral(buffer, index, literalEnd);
+            index = skipWhitespace(buffer, literalEnd, end);
+        }
+    }
+
+    private void parseProblemLine(final ByteBuffer buffer, final int start, final int end) {
+        if (headerParsed) {
+            throw clauseError(start, "Problem line must not be specified more than once");
+        }
+
+        final int formatStart = skipWhitespace(buffer, start + 1, end);
+        final int formatEnd = findEndOfToken(buffer, formatStart, end);
+        if (formatStart == start + 1 || formatEnd - formatStart != 3 || buffer.get(formatStart) != 'c'
+                || buffer.get(formatStart + 1) != 'n' || buffer.get(formatStart + 2) != 'f') {
+            throw clauseError(start, "Problem line does not follow the required format 'p cnf VARIABLES CLAUSES'");
+        }
+
+        final int variablesStart = skipWhitespace(buffer, formatEnd, end);
+        final int variablesEnd = findEndOfToken(buffer, variablesStart, end);
+        final int clausesStart = skipWhitespace(buffer, variablesEnd, end);
+        final int clausesEnd = findEndOfToken(buffer, clausesStart, end);
+        final long variables = parseNumber(buffer, variablesStart, variablesEnd);
+        final long clauses = parseNumber(buffer, clausesStart, clausesEnd);
+
+        if (variables < 0 || clauses < 0 || skipWhitespace(buffer, clausesEnd, end) != end) {
+            throw clauseError(start, "Problem line does not follow the required format 'p cnf VARIABLES CLAUSES'");
+        }
+        if (variables >= Integer.MAX_VALUE - 1) {
+            throw clauseError(variablesStart, String.format("Formula exceeds the maximum number of %d variables",
+                    Integer.MAX_VALUE - 2));
+        }
+
+        declaredVariables = (int) variables;
+        ids = new int[declaredVariables + 1];
+        headerParsed = true;
+    }
+
+    private void parseLiteral(final ByteBuffer buffer, final int start, final int end) {
+        final boolean negative = buffer.get(start) == '-';
+        final long variable = parseNumber(buffer, negative ? start + 1 : start, end);
+
+        if (variable < 0 || (negative && variable == 0)) {
+            throw clauseError(start, "Invalid literal, expected an integer");
+        }
+        if (variable > declaredVariables) {
+            throw clauseError(start, String.format("Variable %d exceeds the %d variables declared in the problem line",
+                    variable, declaredVariables));
+        }
+
+        if (variable == 0) { // End of the clause
+            builder.completeClause(positiveLiteral == NO_LITERAL
+                    ? symbolTable.internConstant(SymbolTable.FALSUM)
+                    : idOf(positiveLiteral));
+            clauseStarted = false;
+            positiveLiteral = NO_LITERAL;
+            return;
+        }
+
+        clauseStarted = true;
+        if (negative) {
+            builder.addPremise(idOf((int) variable));
+        } else if (positiveLiteral == NO_LITERAL || positiveLiteral == variable) {
+            positiveLiteral = (int) variable;
+        } else {
+            throw clauseError(start, String.format("Clause is not a Horn clause, it contains the positive literals %d and %d",
+                    positiveLiteral, variable));
+        }
+    }
+
+    /**
+     * Returns the id of the given variable's atom, interning the atom on the variable's first occurrence.
+     */
+    private int idOf(final int variable) {
+        if (ids[variable] == 0) {
+            symbol.clear();
+            symbol.put((byte) 'x');
+            final int digitsStart = symbol.position();
+            for (int remaining = variable; remaining > 0; remaining /= 10) {
+                symbol.put((byte) ('0' + remaining % 10));
+            }
+            reverse(symbol, digitsStart, symbol.position());
+            ids[variable] = symbolTable.intern(symbol, 0, symbol.position());
+        }
+        return ids[variable];
+    }
+
+    /**
+     * Parses the unsigned decimal number between 'start' and 'end'.
+     *
+     * @return the number, or -1 if the range is empty, contains a non-digit or exceeds the range of an int
+     */
+    private static long parseNumber(final ByteBuffer buffer, final int start, final int end) {
+        if (start == end || end - start > 10) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = start; i < end; i++) {
+            final byte character = buffer.get(i);
+            if (character < '0' || character > '9') {
+                return -1;
+            }
+            number = number * 10 + (character - '0');
+        }
+        return number <= Integer.MAX_VALUE ? number : -1;
+    }
+
+    private static void reverse(final ByteBuffer buffer, final int from, final int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            final byte character = buffer.get(i);
+            buffer.put(i, buffer.get(j));
+            buffer.put(j, character);
+        }
+    }
+
+    private static int findEndOfToken(final ByteBuffer buffer, final int start, final int end) {
+        int index = start;
+        while (index < end && !isWhitespace(buffer.get(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipWhitespace(final ByteBuffer buffer, final int start, final int end) {
+        int index = start;
+        while (index < end && isWhitespace(buffer.get(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isWhitespace(final byte character) {
+        return character == ' ' || character == '\t' || character == '\r' || character == '\f' || character == 0x0B;
+    }
+
+    private InvalidClauseException clauseError(final int index, final String message) {
+        return new InvalidClauseException(String.format("line %d, column %d: %s", line, index - lineStart + 1, message));
+    }
+}
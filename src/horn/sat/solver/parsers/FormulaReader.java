@@ -0,0 +1,127 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.exceptions.InvalidFormulaException;
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reusable reader for many formulas in a row, e.g. by a worker thread that processes a batch of small formulas.
+ *
+ * The reader keeps its symbol table, clause store and read buffer between formulas. The formula returned by a read
+ * shares this storage and is therefore only valid until the next read. Instances are not thread-safe.
+ */
+public class FormulaReader {
+
+    private final SymbolTable symbolTable = new SymbolTable();
+    private final ClauseStore.Builder builder = new ClauseStore.Builder();
+    private final ClauseTokenizer tokenizer = new ClauseTokenizer(symbolTable, builder);
+
+    private ByteBuffer readBuffer = ByteBuffer.allocate(1 << 16);
+
+    /**
+     * Reads the formula stored in the given buffer between 'from' (inclusive) and 'to' (exclusive).
+     *
+     * @param buffer buffer containing the UTF-8 encoded formula
+     * @param from start of the formula, must be at the beginning of a line
+     * @param to end of the formula, must be directly after a line break or at the end of the input
+     * @param firstLine number of the formula's first line, used for error messages
+     * @return the formula, valid until the next read
+     * @throws InvalidFormulaException thrown if the formula is not a valid horn formula
+     */
+    public HornFormula read(final ByteBuffer buffer, final int from, final int to, final long firstLine)
+            throws InvalidFormulaException {
+        return read(buffer, from, to, firstLine, SolveContext.unlimited());
+    }
+
+    /**
+     * Reads the formula stored in the given buffer between 'from' (inclusive) and 'to' (exclusive) within the limits
+     * of the given context.
+     *
+     * @param buffer buffer containing the UTF-8 encoded formula
+     * @param from start of the formula, must be at the beginning of a line
+     * @param to end of the formula, must be directly after a line break or at the end of the input
+     * @param firstLine number of the formula's first line, used for error messages
+     * @param context limits of reading the formula
+     * @return the formula, valid until the next read
+     * @throws InvalidFormulaException thrown if the formula is not a valid horn formula
+     * @throws LimitExceededException thrown if a limit of the context has been exceeded
+     */
+    public HornFormula read(final ByteBuffer buffer, final int from, final int to, final long firstLine,
+                            final SolveContext context) throws InvalidFormulaException, LimitExceededException {
+        final long startNanos = SolverMetrics.isEnabled() ? System.nanoTime() : 0;
+        final long startAllocated = SolverMetrics.isEnabled() ? SolverMetrics.allocatedBytes() : 0;
+
+        symbolTable.clear();
+        builder.clear();
+        tokenizer.parseLines(buffer, from, to, firstLine, context);
+        final HornFormula hornFormula = new HornFormula(symbolTable, builder.view());
+
+        if (SolverMetrics.isEnabled()) {
+            MeteredParser.record(startNanos, startAllocated, to - from, hornFormula);
+        }
+        return hornFormula;
+    }
+
+    /**
+     * Reads the formula stored in the given file.
+     *
+     * @param path path of the file containing the formula
+     * @return the formula, valid until the next read
+     * @throws InvalidFormulaException thrown if the formula is not a valid horn formula
+     * @throws IOException thrown if the file cannot be read
+     */
+    public HornFormula read(final Path path) throws InvalidFormulaException, IOException {
+        return read(path, SolveContext.unlimited());
+    }
+
+    /**
+     * Reads the formula stored in the given file within the limits of the given context.
+     *
+     * @param path path of the file containing the formula
+     * @param context limits of reading the formula
+     * @return the formula, valid until the next read
+     * @throws InvalidFormulaException thrown if the formula is not a valid horn formula
+     * @throws LimitExceededException thrown if a limit of the context has been exceeded
+     * @throws IOException thrown if the file cannot be read
+     */
+    public HornFormula read(final Path path, final SolveContext context)
+            throws InvalidFormulaException, LimitExceededException, IOException {
+        final ByteBuffer contents = load(path);
+        return read(contents, 0, contents.limit(), 1, context);
+    }
+
+    /**
+     * Reads the contents of the given file into the reader's buffer without parsing them.
+     *
+     * @param path path of the file
+     * @return buffer holding the file's contents between position 0 and its limit, valid until the next read or load
+     * @throws IOException thrown if the file cannot be read
+     */
+    public ByteBuffer load(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("File '%s' is too large to be read into memory", path));
+            }
+            if (readBuffer.capacity() < size) {
+                readBuffer = ByteBuffer.allocate((int) size);
+            }
+
+            readBuffer.clear().limit((int) size);
+            while (readBuffer.hasRemaining() && channel.read(readBuffer) >= 0) {
+                // read until the buffer is full or the end of the file has been reached
+            }
+            return readBuffer.flip();
+        }
+    }
+}
@@ -4,10 +4,10 @@ import horn.sat.solver.HornClause;
 import horn.sat.solver.atoms.IAtom;
 import horn.sat.solver.exceptions.InvalidAtomException;
 import horn.sat.solver.exceptions.InvalidClauseException;
+import horn.sat.solver.util.SolverMetrics;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
 
 /**
  * Parses a line representing a horn clause and build the corresponding {@link HornClause} object.
@@ -27,6 +27,9 @@ public abstract class LinearParser implements Parser {
         if (line.isBlank()) {
             throw new InvalidClauseException("Clause must not be blank");
         }
+        if (SolverMetrics.isEnabled()) {
+            SolverMetrics.get().recordLineTokenized();
+        }
 
         final String[] splitClause = line.split("->");
 
@@ -113,16 +116,7 @@ public abstract class LinearParser implements Parser {
             final char character = conjunction.charAt(index);
 
             if (character == '&') {
-                final String trailingSubstring = conjunction.substring(index+1);
-
-                final long trailingValidCharacters = IntStream
-                        .range(0, trailingSubstring.length())
-                        .mapToObj(trailingSubstring::charAt)
-                        .distinct()
-                        .filter(val -> !val.equals('&') && !val.equals(')') & !Character.isWhitespace(val))
-                        .count();
-
-                if (trailingValidCharacters == 0) {
+                if (!containsConjunct(index + 1, conjunction)) {
                     throw new InvalidClauseException(String.format("Conjunction '%s' is missing a conjunct", conjunction));
                 }
 
@@ -139,6 +133,25 @@ public abstract class LinearParser implements Parser {
         return index;
     }
 
+    /**
+     * Checks whether the conjunction contains a character that can start a conjunct at or after the given position.
+     * The search stops at the first such character, hence it does not need to scan the whole trailing substring.
+     *
+     * @param start position where the search starts
+     * @param conjunction scope on which the search is performed
+     * @return 'true' if a character other than '&', ')' and whitespaces follows, 'false' otherwise
+     */
+    private boolean containsConjunct(final int start, final String conjunction) {
+        for (int i = start; i < conjunction.length(); i++) {
+            final char character = conjunction.charAt(i);
+
+            if (character != '&' && character != ')' && !Character.isWhitespace(character)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Starting from the given start index, this method searches the end of the conjunct's identifier.
      *
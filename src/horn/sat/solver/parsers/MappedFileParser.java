@@ -0,0 +1,80 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.exceptions.InvalidClauseException;
+import horn.sat.solver.exceptions.InvalidFormulaException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.SolveContext;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read horn formula from a specified input file by memory-mapping it and tokenizing its bytes in a single pass.
+ *
+ * Files larger than a single mapping can address are mapped window by window, where every window ends at a line
+ * break, so no clause is ever split between two windows.
+ */
+public class MappedFileParser implements Parser {
+
+    // Largest region mapped at once, a single mapping is limited to Integer.MAX_VALUE bytes
+    private static final long MAX_WINDOW_SIZE = 1L << 30;
+
+    private final Path path;
+    private final SolveContext context;
+
+    MappedFileParser(final Path path, final SolveContext context) {
+        this.path = path;
+        this.context = context;
+    }
+
+    @Override
+    public HornFormula parse() {
+        final SymbolTable symbolTable = new SymbolTable();
+        final ClauseStore.Builder builder = new ClauseStore.Builder();
+        final ClauseTokenizer tokenizer = new ClauseTokenizer(symbolTable, builder);
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            long line = 1;
+
+            while (position < size) {
+                final long length = Math.min(size - position, MAX_WINDOW_SIZE);
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                final int end = position + length < size ? endOfLastLine(buffer, (int) length, line) : (int) length;
+                line = tokenizer.parseLines(buffer, 0, end, line, context);
+                position += end;
+            }
+        } catch (InvalidFormulaException e) {
+            System.err.printf("Given formula is not a valid horn formula: %s", e.getMessage());
+            System.exit(1);
+        } catch (NoSuchFileException e) {
+            System.err.printf("File at path '%s' not found", path.toString());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.printf("Error reading from the input file: %s%n", e.getMessage());
+            System.exit(1);
+        }
+
+        return new HornFormula(symbolTable, builder.build());
+    }
+
+    /**
+     * Returns the position directly after the last line break in the given window.
+     */
+    static int endOfLastLine(final MappedByteBuffer buffer, final int length, final long line) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        throw new InvalidClauseException(String.format("line %d: Clause exceeds the maximum length of %d bytes", line, length));
+    }
+}
@@ -0,0 +1,51 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.util.SolverMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Records the time, input size and formula size of every parse of the wrapped parser in the {@link SolverMetrics}.
+ * Only used if the metrics are enabled, otherwise the parsers are not wrapped at all.
+ */
+class MeteredParser implements Parser {
+
+    private final Parser parser;
+    private final Optional<Path> path;
+
+    MeteredParser(final Parser parser, final Optional<Path> path) {
+        this.parser = parser;
+        this.path = path;
+    }
+
+    @Override
+    public HornFormula parse() {
+        final long startNanos = System.nanoTime();
+        final long startAllocated = SolverMetrics.allocatedBytes();
+        final HornFormula hornFormula = parser.parse();
+        record(startNanos, startAllocated, size(), hornFormula);
+        return hornFormula;
+    }
+
+    static void record(final long startNanos, final long startAllocated, final long bytes, final HornFormula hornFormula) {
+        final int clauses = hornFormula.getClauseCount();
+        SolverMetrics.get().recordParse(startNanos, startAllocated, bytes, clauses,
+                (long) hornFormula.getClauseStore().getPremiseCount() + clauses,
+                hornFormula.getSymbolTable().size() - 2);
+    }
+
+    /**
+     * Size of the input file, or 0 for interactive input.
+     */
+    private long size() {
+        try {
+            return path.isPresent() ? Files.size(path.get()) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.exceptions.InvalidClauseException;
+import horn.sat.solver.exceptions.InvalidFormulaException;
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.SolveContext;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Read horn formula from a specified input file using several threads.
+ *
+ * The memory-mapped input is split into chunks at line breaks, which are tokenized concurrently on a
+ * {@link ForkJoinPool}. Every chunk interns its atoms in a symbol table of its own, so the threads never contend for a
+ * lock. The chunks' symbol tables are merged into the formula's symbol table in input order, and the clauses of every
+ * chunk are then translated to the merged ids on the pool. Hence, every atom is assigned the same id as by the
+ * sequential parsers, the ids follow the order in which the atoms first appear in the input.
+ */
+public class ParallelFileParser implements Parser {
+
+    // Largest region mapped at once, a single mapping is limited to Integer.MAX_VALUE bytes
+    private static final long MAX_WINDOW_SIZE = 1L << 30;
+    // Smaller chunks do not amortize the cost of scheduling them
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    // Number of chunks per thread, more chunks than threads balance out chunks that take longer to parse
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Path path;
+    private final int parallelism;
+    private final SolveContext context;
+
+    ParallelFileParser(final Path path, final int parallelism, final SolveContext context) {
+        this.path = path;
+        this.parallelism = parallelism;
+        this.context = context;
+    }
+
+    @Override
+    public HornFormula parse() {
+        final SymbolTable symbolTable = new SymbolTable();
+        final List<ClauseStore> stores = new ArrayList<>();
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            long line = 1;
+
+            while (position < size) {
+                final long length = Math.min(size - position, MAX_WINDOW_SIZE);
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                final int end = position + length < size ? endOfLastLine(buffer, (int) length, line) : (int) length;
+                line = parseWindow(pool, buffer, end, line, symbolTable, stores);
+                position += end;
+            }
+        } catch (InvalidFormulaException e) {
+            System.err.printf("Given formula is not a valid horn formula: %s", e.getMessage());
+            System.exit(1);
+        } catch (NoSuchFileException e) {
+            System.err.printf("File at path '%s' not found", path.toString());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.printf("Error reading from the input file: %s%n", e.getMessage());
+            System.exit(1);
+        } finally {
+            pool.shutdown();
+        }
+
+        return new HornFormula(symbolTable, ClauseStore.concat(stores));
+    }
+
+    /**
+     * Parses the given window chunk by chunk, merges the chunks' atoms into the given symbol table and appends the
+     * resulting clause stores in input order.
+     *
+     * @return the number of the line following the window
+     */
+    private long parseWindow(final ForkJoinPool pool, final MappedByteBuffer buffer, final int end, final long firstLine,
+                             final SymbolTable symbolTable, final List<ClauseStore> stores) {
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, end / (parallelism * CHUNKS_PER_THREAD));
+        final List<ForkJoinTask<ChunkResult>> tasks = new ArrayList<>();
+
+        int start = 0;
+        while (start < end) {
+            int chunkEnd = (int) Math.min(end, (long) start + chunkSize);
+            while (chunkEnd < end && buffer.get(chunkEnd - 1) != '\n') {
+                chunkEnd++;
+            }
+
+            final int from = start;
+            final int to = chunkEnd;
+            tasks.add(pool.submit(() -> parseChunk(buffer, from, to, context)));
+            start = chunkEnd;
+        }
+
+        long line = firstLine;
+        final List<ClauseStore> parsed = new ArrayList<>();
+        final List<ForkJoinTask<ClauseStore>> remapped = new ArrayList<>();
+        for (int chunk = 0; chunk < tasks.size(); chunk++) {
+            final ChunkResult result;
+            try {
+                result = tasks.get(chunk).join();
+            } catch (LimitExceededException e) {
+                tasks.stream().skip(chunk + 1).forEach(remaining -> remaining.cancel(false));
+                throw e;
+            }
+            // The chunk's symbol table is no longer needed once it has been merged
+            tasks.set(chunk, null);
+
+            if (result.error() != null) {
+                tasks.stream().skip(chunk + 1).forEach(remaining -> remaining.cancel(false));
+                // Only now the number of the chunk's first line is known. Parsing the chunk again reproduces the
+                // error with the line number relative to the whole input.
+                new ClauseTokenizer(new SymbolTable(), new ClauseStore.Builder())
+                        .parseLines(buffer, result.from(), result.to(), line);
+                throw result.error();
+            }
+
+            final int[] ids = symbolTable.merge(result.symbolTable());
+            final ClauseStore store = result.store();
+            remapped.add(pool.submit(() -> store.remap(ids)));
+            parsed.add(store);
+            line += result.lines();
+            checkSize(stores, parsed, symbolTable);
+        }
+
+        for (final ForkJoinTask<ClauseStore> task : remapped) {
+            stores.add(task.join());
+        }
+        return line;
+    }
+
+    /**
+     * Checks the clauses of all chunks read so far and all atoms merged so far against the budget, every chunk has
+     * only checked its own clauses and atoms.
+     */
+    private void checkSize(final List<ClauseStore> stores, final List<ClauseStore> parsed,
+                           final SymbolTable symbolTable) {
+        int clauses = 0;
+        long premises = 0;
+        for (final List<ClauseStore> list : List.of(stores, parsed)) {
+            for (final ClauseStore store : list) {
+                clauses += store.getClauseCount();
+                premises += store.getPremiseCount();
+            }
+        }
+        context.checkSize(clauses, premises, symbolTable.size(), symbolTable.getArenaSize());
+    }
+
+    /**
+     * Parses a chunk with a symbol table of its own. The chunk's clauses reference the ids of that symbol table and
+     * are read from the builder's arrays, which are copied once the clauses are translated to the merged ids.
+     */
+    private static ChunkResult parseChunk(final MappedByteBuffer buffer, final int from, final int to,
+                                          final SolveContext context) {
+        final SymbolTable symbolTable = new SymbolTable();
+        final ClauseStore.Builder builder = new ClauseStore.Builder();
+        final ClauseTokenizer tokenizer = new ClauseTokenizer(symbolTable, builder);
+
+        try {
+            final long lines = tokenizer.parseLines(buffer, from, to, 1, context) - 1;
+            return new ChunkResult(from, to, symbolTable, builder.view(), lines, null);
+        } catch (InvalidFormulaException e) {
+            return new ChunkResult(from, to, null, null, 0, e);
+        }
+    }
+
+    /**
+     * Returns the position directly after the last line break in the given window.
+     */
+    private static int endOfLastLine(final MappedByteBuffer buffer, final int length, final long line) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        throw new InvalidClauseException(String.format("line %d: Clause exceeds the maximum length of %d bytes", line, length));
+    }
+
+    /**
+     * Outcome of parsing a single chunk, either the chunk's symbol table, clauses and number of lines, or the error that
+     * occurred.
+     */
+    private record ChunkResult(int from, int to, SymbolTable symbolTable, ClauseStore store, long lines,
+                               InvalidFormulaException error) {
+    }
+}
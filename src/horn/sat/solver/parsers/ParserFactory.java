@@ -1,5 +1,9 @@
 package horn.sat.solver.parsers;
 
+import horn.sat.solver.store.BinaryFormat;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverMetrics;
+
 import java.nio.file.Path;
 import java.util.Optional;
 
@@ -9,13 +13,76 @@ public class ParserFactory {
      * Returns a situation appropriate parser
      *
      * @param inputFilePath path to the file containing the Horn Formula to be tested for satisfiability
-     * @return  if an input file path is specified a {@link FileParser} is used, otherwise a
-     *  {@link InteractiveParser} is returned.
+     * @return  if an input file path is specified a {@link MappedFileParser} is used, a {@link BinaryFileParser} if the
+     *  file starts with the magic number of the {@link BinaryFormat}, or a {@link DimacsParser} if the file is a
+     *  DIMACS CNF formula. Otherwise a {@link InteractiveParser} is returned.
      */
     public static Parser getParser(final Optional<Path> inputFilePath) {
+        return getParser(inputFilePath, 1, SolveContext.unlimited());
+    }
+
+    /**
+     * Returns a situation appropriate parser that reads input files using the given number of threads
+     *
+     * @param inputFilePath path to the file containing the Horn Formula to be tested for satisfiability
+     * @param parallelism number of threads used to read an input file
+     * @return  if an input file path of a formula in the text format is specified and more than one thread should be used, a
+     *  {@link ParallelFileParser} is returned, otherwise the parser returned by {@link #getParser(Optional)}.
+     */
+    public static Parser getParser(final Optional<Path> inputFilePath, final int parallelism) {
+        return getParser(inputFilePath, parallelism, SolveContext.unlimited());
+    }
+
+    /**
+     * Returns the parser returned by {@link #getParser(Optional, int)}, which reads the input file within the limits of
+     * the given context. The parsers of files throw a {@link horn.sat.solver.exceptions.LimitExceededException} once a
+     * limit has been exceeded, interactive input is not limited.
+     *
+     * @param inputFilePath path to the file containing the Horn Formula to be tested for satisfiability
+     * @param parallelism number of threads used to read an input file
+     * @param context limits of reading the formula
+     * @return a situation appropriate parser
+     */
+    public static Parser getParser(final Optional<Path> inputFilePath, final int parallelism, final SolveContext context) {
+        return metered(inputFilePath, selectParser(inputFilePath, parallelism, context));
+    }
+
+    /**
+     * Returns a parser that hands the clauses of the given file to a consumer chunk by chunk, while the file is read.
+     *
+     * @param inputFilePath path to the file containing the Horn Formula to be tested for satisfiability
+     * @param context limits of reading the formula
+     * @return a {@link StreamingFileParser}, or an empty optional if the file is a binary or DIMACS formula, which can
+     *  only be read as a whole
+     */
+    public static Optional<StreamingFileParser> getStreamingParser(final Path inputFilePath, final SolveContext context) {
+        if (BinaryFormat.isBinary(inputFilePath) || DimacsParser.isDimacs(inputFilePath)) {
+            return Optional.empty();
+        }
+        return Optional.of(new StreamingFileParser(inputFilePath, context));
+    }
+
+    private static Parser selectParser(final Optional<Path> inputFilePath, final int parallelism,
+                                       final SolveContext context) {
         if (inputFilePath.isEmpty()) {
             return new InteractiveParser();
         }
-        return new FileParser(inputFilePath.get());
+        if (BinaryFormat.isBinary(inputFilePath.get())) {
+            return new BinaryFileParser(inputFilePath.get(), context);
+        }
+        if (DimacsParser.isDimacs(inputFilePath.get())) {
+            return new DimacsParser(inputFilePath.get(), context);
+        }
+        if (parallelism > 1) {
+            return new ParallelFileParser(inputFilePath.get(), parallelism, context);
+        }
+        return new MappedFileParser(inputFilePath.get(), context);
+    }
+
+    /**
+     * Wraps the given parser in a {@link MeteredParser} if the {@link SolverMetrics} are enabled.
+     */
+    private static Parser metered(final Optional<Path> inputFilePath, final Parser parser) {
+        return SolverMetrics.isEnabled() ? new MeteredParser(parser, inputFilePath) : parser;
     }
 }
@@ -0,0 +1,129 @@
+package horn.sat.solver.parsers;
+
+import horn.sat.solver.exceptions.InvalidFormulaException;
+import horn.sat.solver.exceptions.LimitExceededException;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+import horn.sat.solver.util.SolveContext;
+import horn.sat.solver.util.SolverMetrics;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read horn formula from a specified input file chunk by chunk, handing the clauses of every chunk to a consumer as
+ * soon as the chunk has been tokenized, so they can be solved while the rest of the file is still being read.
+ *
+ * The file is memory-mapped like by the {@link MappedFileParser} and split into chunks of about {@value #CHUNK_SIZE}
+ * bytes at line breaks. Every chunk's clauses are stored in a clause store of their own, which is not modified after
+ * it has been handed over, while all chunks intern their atoms in the parser's symbol table. The consumer can stop the
+ * parser early, e.g. once the formula is known to be unsatisfiable, and the rest of the file is never read.
+ */
+public class StreamingFileParser {
+
+    // Larger chunks delay the first clauses, smaller chunks do not amortize handing them over to another thread
+    public static final int CHUNK_SIZE = 1 << 16;
+    // Largest region mapped at once, a single mapping is limited to Integer.MAX_VALUE bytes
+    private static final long MAX_WINDOW_SIZE = 1L << 30;
+
+    private final Path path;
+    private final SolveContext context;
+    private final SymbolTable symbolTable = new SymbolTable();
+
+    StreamingFileParser(final Path path, final SolveContext context) {
+        this.path = path;
+        this.context = context;
+    }
+
+    /**
+     * Parses the file and passes the clauses of every chunk to the given consumer, in input order.
+     *
+     * @param consumer consumer of the chunks, which may block until it is ready for the next chunk
+     * @return 'true' if the whole file has been read, 'false' if the consumer has stopped the parser
+     * @throws InvalidFormulaException thrown if a chunk is not a valid horn formula, after all chunks before it have
+     *  been handed over
+     * @throws LimitExceededException thrown if a limit of the parser's context has been exceeded
+     * @throws IOException thrown if the file cannot be read
+     * @throws InterruptedException thrown if the thread has been interrupted while handing over a chunk
+     */
+    public boolean parse(final ChunkConsumer consumer) throws InvalidFormulaException, LimitExceededException,
+            IOException, InterruptedException {
+        final long startNanos = SolverMetrics.isEnabled() ? System.nanoTime() : 0;
+        final long startAllocated = SolverMetrics.isEnabled() ? SolverMetrics.allocatedBytes() : 0;
+        long clauses = 0;
+        long premises = 0;
+        long bytes = 0;
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            long line = 1;
+
+            while (position < size) {
+                final long length = Math.min(size - position, MAX_WINDOW_SIZE);
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                final int end = position + length < size
+                        ? MappedFileParser.endOfLastLine(buffer, (int) length, line) : (int) length;
+
+                int start = 0;
+                while (start < end) {
+                    int chunkEnd = (int) Math.min(end, (long) start + CHUNK_SIZE);
+                    while (chunkEnd < end && buffer.get(chunkEnd - 1) != '\n') {
+                        chunkEnd++;
+                    }
+
+                    final ClauseStore.Builder builder = new ClauseStore.Builder(CHUNK_SIZE >> 4);
+                    line = new ClauseTokenizer(symbolTable, builder).parseLines(buffer, start, chunkEnd, line, context);
+                    clauses += builder.getClauseCount();
+                    premises += builder.getPremiseCount();
+                    bytes += chunkEnd - start;
+                    context.checkSize((int) Math.min(clauses, Integer.MAX_VALUE), premises, symbolTable.size(),
+                            symbolTable.getArenaSize());
+
+                    if (!consumer.accept(new Chunk(builder.view(), symbolTable.size()))) {
+                        return false;
+                    }
+                    start = chunkEnd;
+                }
+                position += end;
+            }
+        } finally {
+            if (SolverMetrics.isEnabled()) {
+                SolverMetrics.get().recordParse(startNanos, startAllocated, bytes, clauses, premises + clauses,
+                        symbolTable.size() - 2);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the symbol table all chunks intern their atoms in. It is only complete, and may only be read by another
+     * thread, once {@link #parse(ChunkConsumer)} has returned.
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Clauses of a single chunk.
+     *
+     * @param clauseStore clauses of the chunk in input order
+     * @param atomCount number of atom ids interned by the parser up to the end of the chunk
+     */
+    public record Chunk(ClauseStore clauseStore, int atomCount) {
+    }
+
+    @FunctionalInterface
+    public interface ChunkConsumer {
+
+        /**
+         * @param chunk clauses of the next chunk
+         * @return 'true' if the parser should continue, 'false' if it should stop
+         * @throws InterruptedException thrown if the thread has been interrupted while waiting to take the chunk
+         */
+        boolean accept(Chunk chunk) throws InterruptedException;
+    }
+}
@@ -0,0 +1,384 @@
+package horn.sat.solver.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary serialization of a symbol table and a clause store, which can be loaded without parsing or hashing.
+ *
+ * The file starts with a header, followed by the sections of the symbol table and the clause store exactly as they
+ * are laid out in memory: the symbol offsets of the symbol table, the offsets, heads and premises of the clause store,
+ * and finally the UTF-8 arena with all symbols. All integers are stored as 32 bit little-endian values, so loading a
+ * section is a single bulk copy out of the memory-mapped file. The hash table of the symbol table is not stored, it is
+ * only rebuilt if atoms are interned into a loaded table.
+ *
+ * The header consists of the magic number, the format version, the flags, the sizes of all sections and a CRC32C
+ * checksum over all sections. Since the clause sections are laid out like a clause store, they can also be mapped
+ * without copying them, see {@link #map(Path)}. Since the magic number starts with a byte that cannot start a UTF-8 encoded line, a
+ * binary file is never mistaken for a formula in the text format.
+ */
+public class BinaryFormat {
+
+    private static final byte[] MAGIC = {(byte) 0x89, 'H', 'S', 'B'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 36;
+
+    private static final int FALSUM_INTERNED = 1;
+    private static final int VERUM_INTERNED = 2;
+
+    // Largest region mapped or buffered at once, a multiple of the integer size
+    private static final int WINDOW_SIZE = 1 << 30;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Determines whether the given file starts with the magic number of the binary format.
+     *
+     * @param path path of the file
+     * @return 'true' if the file is a binary formula, 'false' if it is not or cannot be read
+     */
+    public static boolean isBinary(final Path path) {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // read until the magic number is complete or the end of the file has been reached
+            }
+            return !magic.hasRemaining() && magic.flip().equals(ByteBuffer.wrap(MAGIC));
+        } catch (IOException e) {
+            return false; // Left to the text parsers, which report the error
+        }
+    }
+
+    /**
+     * Writes the given symbol table and clause store to the given file, replacing its contents.
+     *
+     * @param symbolTable symbol table of the formula
+     * @param store clauses of the formula
+     * @param path path of the written file
+     * @throws IOException thrown if the file cannot be written
+     */
+    public static void write(final SymbolTable symbolTable, final ClauseStore store, final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final SectionWriter writer = new SectionWriter(channel);
+            channel.position(HEADER_SIZE);
+
+            final int size = symbolTable.size();
+            writer.writeInts(symbolTable.symbolOffsets(), size + 1);
+            writer.writeInts(store.offsets(), store.getClauseCount() + 1);
+            writer.writeInts(store.heads(), store.getClauseCount());
+            writer.writeInts(store.premises(), store.getPremiseCount());
+            writer.writeBytes(symbolTable.arena(), symbolTable.arenaLength());
+            writer.flush();
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .put(MAGIC)
+                    .putInt(VERSION)
+                    .putInt((symbolTable.isInterned(SymbolTable.FALSUM) ? FALSUM_INTERNED : 0)
+                            | (symbolTable.isInterned(SymbolTable.VERUM) ? VERUM_INTERNED : 0))
+                    .putInt(size)
+                    .putInt(symbolTable.arenaLength())
+                    .putInt(store.getClauseCount())
+                    .putInt(store.getPremiseCount())
+                    .putLong(writer.checksum.getValue())
+                    .flip();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+    }
+
+    /**
+     * Loads the symbol table and clause store stored in the given file.
+     *
+     * @param path path of the binary file
+     * @return the loaded symbol table and clause store
+     * @throws IOException thrown if the file cannot be read, is not a binary formula or is corrupt
+     */
+    public static Contents read(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final Header header = readHeader(channel, path);
+            final int flags = header.flags();
+            final int size = header.size();
+            final int arenaLength = header.arenaLength();
+            final int clauseCount = header.clauseCount();
+            final int premiseCount = header.premiseCount();
+            final long checksum = header.checksum();
+
+            final SectionReader reader = new SectionReader(channel, HEADER_SIZE);
+            final int[] symbolOffsets = reader.readInts(size + 1);
+            final int[] offsets = reader.readInts(clauseCount + 1);
+            final int[] heads = reader.readInts(clauseCount);
+            final int[] premises = reader.readInts(premiseCount);
+            final byte[] arena = reader.readBytes(arenaLength);
+
+            if (reader.checksum.getValue() != checksum) {
+                throw new IOException(String.format("Binary formula '%s' is corrupt: checksum mismatch", path));
+            }
+            if (!isValid(symbolOffsets, arenaLength, size) || !isValid(offsets, heads, premises, size)) {
+                throw new IOException(String.format("Binary formula '%s' is corrupt: invalid sections", path));
+            }
+
+            final SymbolTable symbolTable = new SymbolTable(arena, arenaLength, symbolOffsets, size,
+                    (flags & FALSUM_INTERNED) != 0, (flags & VERUM_INTERNED) != 0);
+            return new Contents(symbolTable, new ClauseStore(premises, offsets, heads, clauseCount));
+        }
+    }
+
+    /**
+     * Maps the clause store of the given file instead of copying it onto the heap, only the symbol table is loaded.
+     * The clauses are paged in by the operating system while they are read, and the file must not be modified while
+     * the store is in use. Like {@link #read(Path)}, the whole file is verified against its checksum.
+     *
+     * @param path path of the binary file
+     * @return the loaded symbol table and the mapped clause store
+     * @throws IOException thrown if the file cannot be read, is not a binary formula or is corrupt
+     */
+    public static MappedContents map(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final Header header = readHeader(channel, path);
+            final int size = header.size();
+            final int clauseCount = header.clauseCount();
+            final int premiseCount = header.premiseCount();
+
+            final SectionReader reader = new SectionReader(channel, HEADER_SIZE);
+            final int[] symbolOffsets = reader.readInts(size + 1);
+            final long offsetsPosition = reader.position;
+            final long headsPosition = offsetsPosition + (clauseCount + 1L) * Integer.BYTES;
+            final long premisesPosition = headsPosition + (long) clauseCount * Integer.BYTES;
+            reader.skip((clauseCount + 1L + clauseCount + premiseCount) * Integer.BYTES);
+            final byte[] arena = reader.readBytes(header.arenaLength());
+
+            if (reader.checksum.getValue() != header.checksum()) {
+                throw new IOException(String.format("Binary formula '%s' is corrupt: checksum mismatch", path));
+            }
+            final OffHeapClauseStore store = new OffHeapClauseStore(
+                    OffHeapIntArray.map(channel, premisesPosition, premiseCount, FileChannel.MapMode.READ_ONLY),
+                    OffHeapIntArray.map(channel, offsetsPosition, clauseCount + 1L, FileChannel.MapMode.READ_ONLY),
+                    OffHeapIntArray.map(channel, headsPosition, clauseCount, FileChannel.MapMode.READ_ONLY),
+                    clauseCount);
+            if (!isValid(symbolOffsets, header.arenaLength(), size) || !isValid(store, premiseCount, size)) {
+                throw new IOException(String.format("Binary formula '%s' is corrupt: invalid sections", path));
+            }
+
+            final SymbolTable symbolTable = new SymbolTable(arena, header.arenaLength(), symbolOffsets, size,
+                    (header.flags() & FALSUM_INTERNED) != 0, (header.flags() & VERUM_INTERNED) != 0);
+            return new MappedContents(symbolTable, store);
+        }
+    }
+
+    /**
+     * Reads and checks the header of the given file.
+     */
+    private static Header readHeader(final FileChannel channel, final Path path) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            throw new IOException(String.format("File '%s' is too short to be a binary formula", path));
+        }
+        final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+
+        final byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!ByteBuffer.wrap(magic).equals(ByteBuffer.wrap(MAGIC))) {
+            throw new IOException(String.format("File '%s' is not a binary formula", path));
+        }
+        final int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Binary formula '%s' has the unsupported version %d", path, version));
+        }
+        final Header fields = new Header(header.getInt(), header.getInt(), header.getInt(), header.getInt(),
+                header.getInt(), header.getLong());
+        final int size = fields.size();
+        final int arenaLength = fields.arenaLength();
+        final int clauseCount = fields.clauseCount();
+        final int premiseCount = fields.premiseCount();
+
+        final long expectedSize = HEADER_SIZE + 4L * ((size + 1L) + (clauseCount + 1L)
+                + clauseCount + premiseCount) + arenaLength;
+        if (size < 2 || arenaLength < 0 || clauseCount < 0
+                || premiseCount < 0 || channel.size() != expectedSize) {
+            throw new IOException(String.format("Binary formula '%s' is corrupt: invalid header", path));
+        }
+        return fields;
+    }
+
+    /**
+     * Checks that all symbols lie within the arena.
+     */
+    private static boolean isValid(final int[] symbolOffsets, final int arenaLength, final int size) {
+        for (int id = SymbolTable.VERUM + 1; id < size; id++) {
+            if (symbolOffsets[id] < 0 || symbolOffsets[id] > symbolOffsets[id + 1] || symbolOffsets[id + 1] > arenaLength) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the clauses only refer to existing atoms and premises, so the solver never reads out of bounds.
+     */
+    private static boolean isValid(final int[] offsets, final int[] heads, final int[] premises, final int size) {
+        if (offsets[0] != 0 || offsets[heads.length] != premises.length) {
+            return false;
+        }
+        for (int clause = 0; clause < heads.length; clause++) {
+            if (offsets[clause] > offsets[clause + 1] || heads[clause] < 0 || heads[clause] >= size) {
+                return false;
+            }
+        }
+        for (final int premise : premises) {
+            if (premise < 0 || premise >= size) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the clauses of a mapped store like {@link #isValid(int[], int[], int[], int)}.
+     */
+    private static boolean isValid(final OffHeapClauseStore store, final int premiseCount, final int size) {
+        if (store.getPremiseStart(0) != 0 || store.getPremiseCount() != premiseCount) {
+            return false;
+        }
+        for (int clause = 0; clause < store.getClauseCount(); clause++) {
+            if (store.getPremiseStart(clause) > store.getPremiseEnd(clause) || store.getHead(clause) < 0
+                    || store.getHead(clause) >= size) {
+                return false;
+            }
+        }
+        for (int i = 0; i < store.getPremiseCount(); i++) {
+            if (store.getPremise(i) < 0 || store.getPremise(i) >= size) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Symbol table and clause store of a loaded binary formula.
+     */
+    public record Contents(SymbolTable symbolTable, ClauseStore clauseStore) {
+    }
+
+    /**
+     * Symbol table and mapped clause store of a binary formula.
+     */
+    public record MappedContents(SymbolTable symbolTable, OffHeapClauseStore clauseStore) {
+    }
+
+    /**
+     * Flags and section sizes of a binary file, and the checksum over its sections.
+     */
+    private record Header(int flags, int size, int arenaLength, int clauseCount, int premiseCount, long checksum) {
+    }
+
+    /**
+     * Writes the sections through a reused buffer and computes their checksum on the way.
+     */
+    private static class SectionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C checksum = new CRC32C();
+
+        private SectionWriter(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void writeInts(final int[] values, final int count) throws IOException {
+            for (int written = 0; written < count; ) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    flush();
+                }
+                final int chunk = Math.min(count - written, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, written, chunk);
+                buffer.position(buffer.position() + chunk * Integer.BYTES);
+                written += chunk;
+            }
+        }
+
+        private void writeBytes(final byte[] values, final int count) throws IOException {
+            for (int written = 0; written < count; ) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                final int chunk = Math.min(count - written, buffer.remaining());
+                buffer.put(values, written, chunk);
+                written += chunk;
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads the sections one after another by mapping them window by window, and computes their checksum on the way.
+     */
+    private static class SectionReader {
+        private final FileChannel channel;
+        private final CRC32C checksum = new CRC32C();
+        private long position;
+
+        private SectionReader(final FileChannel channel, final long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        private int[] readInts(final int count) throws IOException {
+            final int[] values = new int[count];
+            for (int read = 0; read < count; ) {
+                final int chunk = Math.min(count - read, WINDOW_SIZE / Integer.BYTES);
+                final MappedByteBuffer window = map((long) chunk * Integer.BYTES);
+                final IntBuffer ints = window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                ints.get(values, read, chunk);
+                read += chunk;
+            }
+            return values;
+        }
+
+        private byte[] readBytes(final int count) throws IOException {
+            final byte[] values = new byte[count];
+            for (int read = 0; read < count; ) {
+                final int chunk = Math.min(count - read, WINDOW_SIZE);
+                map(chunk).get(values, read, chunk);
+                read += chunk;
+            }
+            return values;
+        }
+
+        /**
+         * Skips the given number of bytes, which are only added to the checksum.
+         */
+        private void skip(final long count) throws IOException {
+            for (long skipped = 0; skipped < count; ) {
+                final long chunk = Math.min(count - skipped, WINDOW_SIZE);
+                map(chunk);
+                skipped += chunk;
+            }
+        }
+
+        private MappedByteBuffer map(final long length) throws IOException {
+            final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            checksum.update(window.duplicate());
+            position += length;
+            return window;
+        }
+    }
+}
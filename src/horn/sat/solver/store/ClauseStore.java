@@ -0,0 +1,224 @@
+package horn.sat.solver.store;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flat storage of all clauses of a formula in compressed sparse row layout.
+ *
+ * The premises of the clause with index c are stored in the premise array between offsets[c] (inclusive) and
+ * offsets[c+1] (exclusive), its implied atom is stored at heads[c]. All atoms are referenced through the ids that
+ * were handed out by a {@link SymbolTable}.
+ */
+public class ClauseStore {
+
+    private final int[] premises;
+    private final int[] offsets;
+    private final int[] heads;
+    private final int clauseCount;
+
+    ClauseStore(final int[] premises, final int[] offsets, final int[] heads, final int clauseCount) {
+        this.premises = premises;
+        this.offsets = offsets;
+        this.heads = heads;
+        this.clauseCount = clauseCount;
+    }
+
+    /**
+     * Concatenates the given stores into a single store, the clauses keep their relative order.
+     *
+     * @param stores stores to be concatenated
+     * @return store containing the clauses of all given stores
+     */
+    public static ClauseStore concat(final List<ClauseStore> stores) {
+        int clauseCount = 0;
+        int premiseCount = 0;
+        for (final ClauseStore store : stores) {
+            clauseCount = Math.addExact(clauseCount, store.getClauseCount());
+            premiseCount = Math.addExact(premiseCount, store.getPremiseCount());
+        }
+
+        final int[] premises = new int[premiseCount];
+        final int[] offsets = new int[clauseCount + 1];
+        final int[] heads = new int[clauseCount];
+
+        int clause = 0;
+        int premise = 0;
+        for (final ClauseStore store : stores) {
+            System.arraycopy(store.premises, 0, premises, premise, store.getPremiseCount());
+            System.arraycopy(store.heads, 0, heads, clause, store.clauseCount);
+            for (int i = 1; i <= store.clauseCount; i++) {
+                offsets[clause + i] = store.offsets[i] + premise;
+            }
+            clause += store.clauseCount;
+            premise += store.getPremiseCount();
+        }
+
+        return new ClauseStore(premises, offsets, heads, clauseCount);
+    }
+
+    public int getClauseCount() {
+        return this.clauseCount;
+    }
+
+    /**
+     * Returns the total number of premises over all clauses.
+     *
+     * @return number of entries in the premise array
+     */
+    public int getPremiseCount() {
+        return this.offsets[clauseCount];
+    }
+
+    public int getPremiseStart(final int clause) {
+        return this.offsets[clause];
+    }
+
+    public int getPremiseEnd(final int clause) {
+        return this.offsets[clause + 1];
+    }
+
+    public int getPremise(final int index) {
+        return this.premises[index];
+    }
+
+    public int getHead(final int clause) {
+        return this.heads[clause];
+    }
+
+    /**
+     * Returns a copy of this store in which the id of every atom is replaced, e.g. to translate the ids of clauses that
+     * have been read with a symbol table of their own into the ids of another symbol table.
+     *
+     * @param ids new ids, indexed by the ids used in this store
+     * @return store containing the same clauses in the same order, referencing the atoms through the new ids
+     */
+    public ClauseStore remap(final int[] ids) {
+        final int[] remappedPremises = new int[getPremiseCount()];
+        for (int i = 0; i < remappedPremises.length; i++) {
+            remappedPremises[i] = ids[premises[i]];
+        }
+        final int[] remappedHeads = new int[clauseCount];
+        for (int clause = 0; clause < clauseCount; clause++) {
+            remappedHeads[clause] = ids[heads[clause]];
+        }
+        return new ClauseStore(remappedPremises, Arrays.copyOf(offsets, clauseCount + 1), remappedHeads, clauseCount);
+    }
+
+    // Raw arrays for the binary format, they may be longer than the store's premises and clauses
+
+    int[] premises() {
+        return this.premises;
+    }
+
+    int[] offsets() {
+        return this.offsets;
+    }
+
+    int[] heads() {
+        return this.heads;
+    }
+
+    /**
+     * Incrementally builds a {@link ClauseStore}. The premises of a clause are added one after another, followed by
+     * the clause's implied atom which completes the clause.
+     */
+    public static class Builder {
+
+        private int[] premises;
+        private int[] offsets;
+        private int[] heads;
+        private int premiseCount = 0;
+        private int clauseCount = 0;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(final int expectedClauses) {
+            final int capacity = Math.max(expectedClauses, 1);
+            this.premises = new int[capacity * 2];
+            this.offsets = new int[capacity + 1];
+            this.heads = new int[capacity];
+        }
+
+        /**
+         * Adds a premise to the clause that is currently being built.
+         *
+         * @param atom id of the premise
+         */
+        public void addPremise(final int atom) {
+            if (premiseCount == premises.length) {
+                premises = Arrays.copyOf(premises, grow(premises.length));
+            }
+            premises[premiseCount++] = atom;
+        }
+
+        /**
+         * Completes the clause that is currently being built. All premises added since the last completed clause
+         * belong to this clause.
+         *
+         * @param head id of the clause's implied atom
+         * @return index of the completed clause
+         */
+        public int completeClause(final int head) {
+            if (clauseCount == heads.length) {
+                heads = Arrays.copyOf(heads, grow(heads.length));
+                offsets = Arrays.copyOf(offsets, heads.length + 1);
+            }
+            heads[clauseCount] = head;
+            offsets[++clauseCount] = premiseCount;
+            return clauseCount - 1;
+        }
+
+        /**
+         * Discards all premises that have been added since the last completed clause.
+         */
+        public void discardClause() {
+            premiseCount = offsets[clauseCount];
+        }
+
+        public int getClauseCount() {
+            return this.clauseCount;
+        }
+
+        public int getPremiseCount() {
+            return this.premiseCount;
+        }
+
+        /**
+         * Removes all clauses, so the builder can be reused for another formula.
+         */
+        public void clear() {
+            premiseCount = 0;
+            clauseCount = 0;
+        }
+
+        /**
+         * Returns a store that shares the builder's arrays instead of copying them. The store is only valid until the
+         * builder is modified again.
+         *
+         * @return store containing all clauses completed so far
+         */
+        public ClauseStore view() {
+            return new ClauseStore(premises, offsets, heads, clauseCount);
+        }
+
+        public ClauseStore build() {
+            return new ClauseStore(
+                    Arrays.copyOf(premises, premiseCount),
+                    Arrays.copyOf(offsets, clauseCount + 1),
+                    Arrays.copyOf(heads, clauseCount),
+                    clauseCount
+            );
+        }
+
+        private static int grow(final int length) {
+            final int newLength = length + (length >> 1) + 1;
+            if (newLength < 0) {
+                throw new OutOfMemoryError("Clause store exceeds the maximum array size");
+            }
+            return newLength;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package horn.sat.solver.store;
+
+import java.util.Arrays;
+
+/**
+ * Associates every atom with the clauses in whose conjunction it occurs. An atom that occurs several times in the
+ * same conjunction is associated with that clause once per occurrence.
+ *
+ * Like the {@link ClauseStore}, the index is stored in compressed sparse row layout: the clauses of the atom with id a
+ * are stored between offsets[a] (inclusive) and offsets[a+1] (exclusive).
+ */
+public class OccurrenceIndex {
+
+    private final int[] clauses;
+    private final int[] offsets;
+
+    private OccurrenceIndex(final int[] clauses, final int[] offsets) {
+        this.clauses = clauses;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Builds the index of the given clause store in time linear in the size of the store.
+     *
+     * @param store clauses to be indexed
+     * @param atomCount upper bound (exclusive) of all atom ids used in the store
+     * @return occurrence index of the store's premises
+     */
+    public static OccurrenceIndex of(final ClauseStore store, final int atomCount) {
+        return of(store, atomCount, null);
+    }
+
+    /**
+     * Builds the index of the given clause store, reusing the arrays of a previously built index if they are large
+     * enough. The previous index must not be used anymore afterwards.
+     *
+     * @param store clauses to be indexed
+     * @param atomCount upper bound (exclusive) of all atom ids used in the store
+     * @param reuse previously built index whose arrays may be reused, can be null
+     * @return occurrence index of the store's premises
+     */
+    public static OccurrenceIndex of(final ClauseStore store, final int atomCount, final OccurrenceIndex reuse) {
+        final int premiseCount = store.getPremiseCount();
+        final int[] offsets = reuse != null && reuse.offsets.length > atomCount ? reuse.offsets : new int[atomCount + 1];
+        final int[] clauses = reuse != null && reuse.clauses.length >= premiseCount ? reuse.clauses : new int[premiseCount];
+
+        Arrays.fill(offsets, 0, atomCount + 1, 0);
+        for (int i = 0; i < premiseCount; i++) {
+            offsets[store.getPremise(i) + 1]++;
+        }
+        for (int atom = 0; atom < atomCount; atom++) {
+            offsets[atom + 1] += offsets[atom];
+        }
+
+        // offsets[a] is used as insertion position of atom a, afterwards it points to the start of atom a+1
+        for (int clause = 0; clause < store.getClauseCount(); clause++) {
+            for (int i = store.getPremiseStart(clause); i < store.getPremiseEnd(clause); i++) {
+                clauses[offsets[store.getPremise(i)]++] = clause;
+            }
+        }
+        for (int atom = atomCount; atom > 0; atom--) {
+            offsets[atom] = offsets[atom - 1];
+        }
+        offsets[0] = 0;
+
+        return new OccurrenceIndex(clauses, offsets);
+    }
+
+    public int getStart(final int atom) {
+        return this.offsets[atom];
+    }
+
+    public int getEnd(final int atom) {
+        return this.offsets[atom + 1];
+    }
+
+    public int getClause(final int index) {
+        return this.clauses[index];
+    }
+}
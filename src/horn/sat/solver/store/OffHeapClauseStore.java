@@ -0,0 +1,83 @@
+package horn.sat.solver.store;
+
+import horn.sat.solver.exceptions.LimitExceededException;
+
+/**
+ * Clauses of a formula in the compressed sparse row layout of the {@link ClauseStore}, stored outside of the Java heap
+ * in {@link OffHeapIntArray}s. A store is either copied from a clause store or mapped straight from a file in the
+ * {@link BinaryFormat}, see {@link BinaryFormat#map(java.nio.file.Path)}, in which case its clauses are only paged in
+ * while they are read.
+ *
+ * Clause and premise indices are ints, like those of the {@link ClauseStore} and the sections of the binary format, so
+ * a store holds at most {@value #MAX_PREMISES} premises. The arrays themselves are addressed by long indices.
+ */
+public class OffHeapClauseStore {
+
+    /**
+     * Largest number of premises of a store, the indices into its premise array, the {@link OffHeapOccurrenceIndex}
+     * and the queue of the {@link horn.sat.solver.OffHeapSolver} are ints.
+     */
+    public static final int MAX_PREMISES = Integer.MAX_VALUE;
+
+    private final OffHeapIntArray premises;
+    private final OffHeapIntArray offsets;
+    private final OffHeapIntArray heads;
+    private final int clauseCount;
+
+    OffHeapClauseStore(final OffHeapIntArray premises, final OffHeapIntArray offsets, final OffHeapIntArray heads,
+                       final int clauseCount) {
+        if (premises.length() > MAX_PREMISES) {
+            throw new LimitExceededException(String.format(
+                    "the off-heap clause store is limited to %d premises, but the formula has %d",
+                    MAX_PREMISES, premises.length()));
+        }
+        this.premises = premises;
+        this.offsets = offsets;
+        this.heads = heads;
+        this.clauseCount = clauseCount;
+    }
+
+    /**
+     * Copies the given store into direct buffers. Afterwards, the given store can be garbage collected.
+     *
+     * @param store clauses to be copied
+     * @return store containing the same clauses in the same order
+     */
+    public static OffHeapClauseStore copyOf(final ClauseStore store) {
+        return new OffHeapClauseStore(
+                OffHeapIntArray.copyOf(store.premises(), store.getPremiseCount()),
+                OffHeapIntArray.copyOf(store.offsets(), store.getClauseCount() + 1),
+                OffHeapIntArray.copyOf(store.heads(), store.getClauseCount()),
+                store.getClauseCount()
+        );
+    }
+
+    public int getClauseCount() {
+        return this.clauseCount;
+    }
+
+    /**
+     * Returns the total number of premises over all clauses.
+     *
+     * @return number of entries in the premise array
+     */
+    public int getPremiseCount() {
+        return this.offsets.get(clauseCount);
+    }
+
+    public int getPremiseStart(final int clause) {
+        return this.offsets.get(clause);
+    }
+
+    public int getPremiseEnd(final int clause) {
+        return this.offsets.get(clause + 1);
+    }
+
+    public int getPremise(final int index) {
+        return this.premises.get(index);
+    }
+
+    public int getHead(final int clause) {
+        return this.heads.get(clause);
+    }
+}
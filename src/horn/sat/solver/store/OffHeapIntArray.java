@@ -0,0 +1,129 @@
+package horn.sat.solver.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed-length array of ints stored outside of the Java heap, either in direct buffers or in buffers mapped from a
+ * file. The garbage collector neither copies nor scans the contents, so the size of the array does not affect the
+ * pause times.
+ *
+ * A single buffer is limited to 2 GB, hence the array is split into segments of {@value #SEGMENT_SIZE} ints, and an
+ * index selects its segment by its upper bits. Instances are not thread-safe.
+ */
+public class OffHeapIntArray {
+
+    private static final int SEGMENT_SHIFT = 28;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final IntBuffer[] segments;
+    private final long length;
+
+    private OffHeapIntArray(final IntBuffer[] segments, final long length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    /**
+     * Allocates an array in direct buffers, which count against the JVM's limit of direct memory. All elements are
+     * initialized with 0.
+     *
+     * @param length number of elements
+     * @return the allocated array
+     */
+    public static OffHeapIntArray allocate(final long length) {
+        final IntBuffer[] segments = new IntBuffer[segmentCount(length)];
+        for (int segment = 0; segment < segments.length; segment++) {
+            segments[segment] = ByteBuffer.allocateDirect(segmentLength(length, segment) * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asIntBuffer();
+        }
+        return new OffHeapIntArray(segments, length);
+    }
+
+    /**
+     * Allocates an array backed by a temporary file in the given directory, so the operating system can page it out
+     * instead of keeping it in memory. The file is deleted right away and only removed from the disk once the array
+     * has been garbage collected. All elements are initialized with 0.
+     *
+     * @param length number of elements
+     * @param directory directory the temporary file is created in, or null to allocate the array in direct buffers
+     * @return the allocated array
+     * @throws IOException thrown if the temporary file cannot be created or mapped
+     */
+    public static OffHeapIntArray allocate(final long length, final Path directory) throws IOException {
+        if (directory == null) {
+            return allocate(length);
+        }
+        final Path file = Files.createTempFile(directory, "horn-sat-", ".tmp");
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE)) {
+            return map(channel, 0, length, FileChannel.MapMode.READ_WRITE);
+        }
+    }
+
+    /**
+     * Maps a section of little-endian ints of the given file. Mapping a section beyond the end of the file in the
+     * read-write mode extends the file.
+     *
+     * @param channel channel of the file
+     * @param position position of the section in the file
+     * @param length number of ints in the section
+     * @param mode mode of the mapping
+     * @return array whose elements are the ints of the section
+     * @throws IOException thrown if the section cannot be mapped
+     */
+    public static OffHeapIntArray map(final FileChannel channel, final long position, final long length,
+                                      final FileChannel.MapMode mode) throws IOException {
+        final IntBuffer[] segments = new IntBuffer[segmentCount(length)];
+        for (int segment = 0; segment < segments.length; segment++) {
+            segments[segment] = channel.map(mode, position + ((long) segment << SEGMENT_SHIFT) * Integer.BYTES,
+                            (long) segmentLength(length, segment) * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+        }
+        return new OffHeapIntArray(segments, length);
+    }
+
+    /**
+     * Copies the first 'length' elements of the given array into direct buffers.
+     *
+     * @param values elements to be copied
+     * @param length number of elements to be copied
+     * @return the copied array
+     */
+    public static OffHeapIntArray copyOf(final int[] values, final int length) {
+        final OffHeapIntArray array = allocate(length);
+        for (int segment = 0; segment < array.segments.length; segment++) {
+            array.segments[segment].put(0, values, segment << SEGMENT_SHIFT, segmentLength(length, segment));
+        }
+        return array;
+    }
+
+    public long length() {
+        return this.length;
+    }
+
+    public int get(final long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) index & SEGMENT_MASK);
+    }
+
+    public void set(final long index, final int value) {
+        segments[(int) (index >>> SEGMENT_SHIFT)].put((int) index & SEGMENT_MASK, value);
+    }
+
+    private static int segmentCount(final long length) {
+        return (int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+    }
+
+    private static int segmentLength(final long length, final int segment) {
+        return (int) Math.min(SEGMENT_SIZE, length - ((long) segment << SEGMENT_SHIFT));
+    }
+}
@@ -0,0 +1,72 @@
+package horn.sat.solver.store;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Occurrence index of an {@link OffHeapClauseStore}, laid out like the {@link OccurrenceIndex} but stored outside of
+ * the Java heap: the clauses of the atom with id a are stored between offsets[a] (inclusive) and offsets[a+1]
+ * (exclusive). Since a store has at most {@value OffHeapClauseStore#MAX_PREMISES} premises, the offsets are ints.
+ */
+public class OffHeapOccurrenceIndex {
+
+    private final OffHeapIntArray clauses;
+    private final OffHeapIntArray offsets;
+
+    private OffHeapOccurrenceIndex(final OffHeapIntArray clauses, final OffHeapIntArray offsets) {
+        this.clauses = clauses;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Builds the index of the given clause store in time linear in the size of the store.
+     *
+     * @param store clauses to be indexed
+     * @param atomCount upper bound (exclusive) of all atom ids used in the store
+     * @param scratchDirectory directory of the temporary files backing the index, or null for direct buffers
+     * @return occurrence index of the store's premises
+     * @throws IOException thrown if the temporary files cannot be created
+     */
+    public static OffHeapOccurrenceIndex of(final OffHeapClauseStore store, final int atomCount,
+                                            final Path scratchDirectory) throws IOException {
+        final int premiseCount = store.getPremiseCount();
+        final OffHeapIntArray offsets = OffHeapIntArray.allocate(atomCount + 1L, scratchDirectory);
+        final OffHeapIntArray clauses = OffHeapIntArray.allocate(premiseCount, scratchDirectory);
+
+        for (int i = 0; i < premiseCount; i++) {
+            final int atom = store.getPremise(i);
+            offsets.set(atom + 1, offsets.get(atom + 1) + 1);
+        }
+        for (int atom = 0; atom < atomCount; atom++) {
+            offsets.set(atom + 1, offsets.get(atom + 1) + offsets.get(atom));
+        }
+
+        // offsets[a] is used as insertion position of atom a, afterwards it points to the start of atom a+1
+        for (int clause = 0; clause < store.getClauseCount(); clause++) {
+            for (int i = store.getPremiseStart(clause); i < store.getPremiseEnd(clause); i++) {
+                final int atom = store.getPremise(i);
+                final int position = offsets.get(atom);
+                clauses.set(position, clause);
+                offsets.set(atom, position + 1);
+            }
+        }
+        for (int atom = atomCount; atom > 0; atom--) {
+            offsets.set(atom, offsets.get(atom - 1));
+        }
+        offsets.set(0, 0);
+
+        return new OffHeapOccurrenceIndex(clauses, offsets);
+    }
+
+    public int getStart(final int atom) {
+        return this.offsets.get(atom);
+    }
+
+    public int getEnd(final int atom) {
+        return this.offsets.get(atom + 1);
+    }
+
+    public int getClause(final int index) {
+        return this.clauses.get(index);
+    }
+}
@@ -0,0 +1,42 @@
+package horn.sat.solver.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hands out the integer ids of atoms while a formula is being read.
+ */
+public interface SymbolInterner {
+
+    /**
+     * Returns the id of the atom whose UTF-8 encoded symbol is stored in the given buffer between the positions
+     * 'from' (inclusive) and 'to' (exclusive). The atom is interned if it is not yet known.
+     *
+     * @param buffer buffer containing the symbol
+     * @param from start of the symbol in the buffer
+     * @param to end of the symbol in the buffer
+     * @return id of the atom
+     */
+    int intern(ByteBuffer buffer, int from, int to);
+
+    /**
+     * Marks the given truth value constant as part of the formula.
+     *
+     * @param id either {@link SymbolTable#FALSUM} or {@link SymbolTable#VERUM}
+     * @return the given id
+     */
+    int internConstant(int id);
+
+    /**
+     * Number of ids handed out so far, including the ids reserved for the truth value constants.
+     *
+     * @return upper bound (exclusive) of all ids
+     */
+    int size();
+
+    /**
+     * Total length of the UTF-8 encoded symbols of all atoms interned so far.
+     *
+     * @return number of bytes taken up by the symbols
+     */
+    long getArenaSize();
+}
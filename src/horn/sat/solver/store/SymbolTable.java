@@ -0,0 +1,397 @@
+package horn.sat.solver.store;
+
+import horn.sat.solver.atoms.Atom;
+import horn.sat.solver.atoms.Falsum;
+import horn.sat.solver.atoms.IAtom;
+import horn.sat.solver.atoms.Verum;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns every atom of a formula exactly once and assigns it a dense integer id.
+ *
+ * The ids 0 and 1 are reserved for the truth value constants ⊥ and ⊤, all other atoms are numbered consecutively
+ * starting from 2 in the order in which they are interned. The symbols themselves are kept as UTF-8 bytes in a single
+ * arena and are looked up through an open-addressing hash table, so no per-atom objects are created.
+ */
+public class SymbolTable implements SymbolInterner {
+
+    public static final int FALSUM = 0;
+    public static final int VERUM = 1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] arena = new byte[INITIAL_CAPACITY * 8];
+    private int arenaLength = 0;
+
+    // The symbol of the atom with id i is stored in the arena between symbolOffsets[i] and symbolOffsets[i+1]
+    private int[] symbolOffsets = new int[INITIAL_CAPACITY + 1];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size = 2;
+
+    // Slots contain the id of the atom + 1, an empty slot is marked with 0. The length is always a power of two.
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+    // The constants are always assigned an id, but are only considered to be part of the formula once interned.
+    private boolean falsumInterned = false;
+    private boolean verumInterned = false;
+
+    public SymbolTable() {
+    }
+
+    /**
+     * Creates a table from the symbols of a previously built table, as stored by the {@link BinaryFormat}. The hash
+     * table is only rebuilt once an atom is interned or looked up, solving a loaded formula never needs it.
+     */
+    SymbolTable(final byte[] arena, final int arenaLength, final int[] symbolOffsets, final int size,
+                final boolean falsumInterned, final boolean verumInterned) {
+        this.arena = arena;
+        this.arenaLength = arenaLength;
+        this.symbolOffsets = symbolOffsets;
+        this.hashes = null;
+        this.size = size;
+        this.slots = null;
+        this.falsumInterned = falsumInterned;
+        this.verumInterned = verumInterned;
+    }
+
+    /**
+     * Returns the id of the given atom, the atom is added to the table if it is not yet contained.
+     *
+     * @param atom atom to be interned
+     * @return id of the atom
+     */
+    public int intern(final IAtom atom) {
+        if (atom instanceof Falsum) {
+            return internConstant(FALSUM);
+        }
+        if (atom instanceof Verum) {
+            return internConstant(VERUM);
+        }
+        return intern(atom.toString());
+    }
+
+    /**
+     * Returns the id of the atom with the given symbol, the atom is added to the table if it is not yet contained.
+     * Note that the symbols '0' and '1' are not mapped to the truth value constants.
+     *
+     * @param symbol symbol of the atom to be interned
+     * @return id of the atom
+     */
+    public int intern(final String symbol) {
+        final byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+        return intern(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Returns the id of the atom whose UTF-8 encoded symbol is stored in the given buffer between the positions
+     * 'from' (inclusive) and 'to' (exclusive). The buffer's position and limit are not modified.
+     *
+     * @param buffer buffer containing the symbol
+     * @param from start of the symbol in the buffer
+     * @param to end of the symbol in the buffer
+     * @return id of the atom
+     */
+    @Override
+    public int intern(final ByteBuffer buffer, final int from, final int to) {
+        return intern(buffer, from, to, hash(buffer, from, to));
+    }
+
+    /**
+     * Interns the symbol of the atom with the given id in another symbol table.
+     *
+     * @param other symbol table containing the atom
+     * @param id id of the atom in the other symbol table
+     * @return id of the atom in this symbol table
+     */
+    public int intern(final SymbolTable other, final int id) {
+        if (id == FALSUM || id == VERUM) {
+            return internConstant(id);
+        }
+        other.ensureIndex();
+        final int start = other.symbolOffsets[id];
+        final int end = other.symbolOffsets[id + 1];
+        return intern(ByteBuffer.wrap(other.arena), start, end, other.hashes[id]);
+    }
+
+    /**
+     * Interns all atoms of another symbol table in the order of their ids, so atoms that are new to this table are
+     * numbered in the order in which they have been interned in the other one. The truth value constants are interned
+     * if they have been interned in the other table.
+     *
+     * @param other symbol table whose atoms are interned
+     * @return ids in this symbol table, indexed by the ids in the other symbol table
+     */
+    public int[] merge(final SymbolTable other) {
+        final int[] ids = new int[other.size];
+        ids[FALSUM] = FALSUM;
+        ids[VERUM] = VERUM;
+        for (int id = VERUM + 1; id < other.size; id++) {
+            ids[id] = intern(other, id);
+        }
+        if (other.falsumInterned) {
+            internConstant(FALSUM);
+        }
+        if (other.verumInterned) {
+            internConstant(VERUM);
+        }
+        return ids;
+    }
+
+    int intern(final ByteBuffer buffer, final int from, final int to, final int hash) {
+        ensureIndex();
+        final int mask = slots.length - 1;
+
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            final int id = slots[slot] - 1;
+            if (hashes[id] == hash && symbolEquals(id, buffer, from, to)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        final int id = append(buffer, from, to, hash);
+        slots[slot] = id + 1;
+
+        if ((size - 2) * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Removes all atoms from the table, so it can be reused for another formula.
+     */
+    public void clear() {
+        if (slots == null) {
+            hashes = new int[INITIAL_CAPACITY];
+            slots = new int[INITIAL_CAPACITY * 2];
+        } else if (slots.length > 4 * Math.max(INITIAL_CAPACITY * 2, (size - 2) * 2)) {
+            slots = new int[INITIAL_CAPACITY * 2]; // Do not keep a huge table around for a single large formula
+        } else {
+            Arrays.fill(slots, 0);
+        }
+        size = 2;
+        arenaLength = 0;
+        falsumInterned = false;
+        verumInterned = false;
+    }
+
+    /**
+     * Returns the id of the given atom without interning it.
+     *
+     * @param atom atom to be looked up
+     * @return id of the atom, or -1 if the atom has not been interned
+     */
+    public int lookup(final IAtom atom) {
+        if (atom instanceof Falsum) {
+            return falsumInterned ? FALSUM : -1;
+        }
+        if (atom instanceof Verum) {
+            return verumInterned ? VERUM : -1;
+        }
+        return lookup(atom.toString());
+    }
+
+    /**
+     * Returns the id of the atom with the given symbol without interning it.
+     *
+     * @param symbol symbol of the atom
+     * @return id of the atom, or -1 if no atom with this symbol has been interned
+     */
+    public int lookup(final String symbol) {
+        final byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        final int hash = hash(buffer, 0, bytes.length);
+        ensureIndex();
+        final int mask = slots.length - 1;
+
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            final int id = slots[slot] - 1;
+            if (hashes[id] == hash && symbolEquals(id, buffer, 0, bytes.length)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public long getArenaSize() {
+        return this.arenaLength;
+    }
+
+    /**
+     * Determines whether the atom with the given id is part of the formula. All regular atoms are part of the formula
+     * as soon as they have an id, the truth value constants only once they have been interned explicitly.
+     *
+     * @param id id of the atom
+     * @return 'true' if the atom has been interned, 'false' otherwise
+     */
+    public boolean isInterned(final int id) {
+        return switch (id) {
+            case FALSUM -> falsumInterned;
+            case VERUM -> verumInterned;
+            default -> id > VERUM && id < size;
+        };
+    }
+
+    /**
+     * Marks the given truth value constant as part of the formula.
+     *
+     * @param id either {@link #FALSUM} or {@link #VERUM}
+     * @return the given id
+     */
+    @Override
+    public int internConstant(final int id) {
+        if (id == FALSUM) {
+            falsumInterned = true;
+        } else if (id == VERUM) {
+            verumInterned = true;
+        } else {
+            throw new IllegalArgumentException(String.format("'%d' is not the id of a truth value constant", id));
+        }
+        return id;
+    }
+
+    /**
+     * Returns the symbol of the atom with the given id.
+     *
+     * @param id id of the atom
+     * @return the atom's symbol
+     */
+    public String getSymbol(final int id) {
+        return toAtom(id).toString();
+    }
+
+    /**
+     * Returns the UTF-8 encoded symbol of the atom with the given id without creating a string.
+     *
+     * @param id id of the atom
+     * @return read-only buffer whose remaining bytes are the atom's symbol
+     */
+    public ByteBuffer getSymbolBytes(final int id) {
+        if (id == FALSUM || id == VERUM) {
+            return ByteBuffer.wrap(toAtom(id).toString().getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+        }
+        final int start = symbolOffsets[id];
+        return ByteBuffer.wrap(arena, start, symbolOffsets[id + 1] - start).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the atom with the given id.
+     *
+     * @param id id of the atom
+     * @return the truth value constant for the ids 0 and 1, an {@link Atom} with the interned symbol otherwise
+     */
+    public IAtom toAtom(final int id) {
+        if (id == FALSUM) {
+            return Falsum.getInstance();
+        }
+        if (id == VERUM) {
+            return Verum.getInstance();
+        }
+        final int start = symbolOffsets[id];
+        return new Atom(new String(arena, start, symbolOffsets[id + 1] - start, StandardCharsets.UTF_8));
+    }
+
+    // Raw arrays for the binary format, they may be longer than the table's atoms and symbols
+
+    byte[] arena() {
+        return this.arena;
+    }
+
+    int arenaLength() {
+        return this.arenaLength;
+    }
+
+    int[] symbolOffsets() {
+        return this.symbolOffsets;
+    }
+
+    private int append(final ByteBuffer buffer, final int from, final int to, final int hash) {
+        final int length = to - from;
+
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            symbolOffsets = Arrays.copyOf(symbolOffsets, size * 2 + 1);
+        }
+        if (arenaLength + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLength + length));
+        }
+
+        buffer.get(from, arena, arenaLength, length);
+        arenaLength += length;
+
+        final int id = size++;
+        hashes[id] = hash;
+        symbolOffsets[id + 1] = arenaLength;
+        return id;
+    }
+
+    /**
+     * Rebuilds the hashes and the hash table of a table that has been loaded without them.
+     */
+    private void ensureIndex() {
+        if (slots != null) {
+            return;
+        }
+        int slotCount = INITIAL_CAPACITY * 2;
+        while ((size - 2) * 2 > slotCount) {
+            slotCount *= 2;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(arena);
+        hashes = new int[symbolOffsets.length - 1];
+        for (int id = 2; id < size; id++) {
+            hashes[id] = hash(buffer, symbolOffsets[id], symbolOffsets[id + 1]);
+        }
+        rehash(slotCount);
+    }
+
+    private void rehash() {
+        rehash(slots.length * 2);
+    }
+
+    private void rehash(final int slotCount) {
+        final int[] newSlots = new int[slotCount];
+        final int mask = newSlots.length - 1;
+
+        for (int id = 2; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        this.slots = newSlots;
+    }
+
+    private boolean symbolEquals(final int id, final ByteBuffer buffer, final int from, final int to) {
+        final int start = symbolOffsets[id];
+        if (symbolOffsets[id + 1] - start != to - from) {
+            return false;
+        }
+        for (int i = 0; i < to - from; i++) {
+            if (arena[start + i] != buffer.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int hash(final ByteBuffer buffer, final int from, final int to) {
+        int hash = 0x811c9dc5; // FNV-1a
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ buffer.get(i)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,9 +1,14 @@
 package horn.sat.solver.util;
 
+import horn.sat.solver.Preprocessor;
 import horn.sat.solver.exceptions.InvalidInputException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class CliParser {
 
@@ -35,9 +40,196 @@ public class CliParser {
                     options.put("outputFile", getValue(i, "-o", args));
                     i++;
                 }
+                case "-w" -> {
+                    if (options.containsKey("binaryOutputFile")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-w"));
+                    }
+                    options.put("binaryOutputFile", getValue(i, "-w", args));
+                    i++;
+                }
+                case "-f" -> {
+                    if (options.containsKey("outputFormat")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-f"));
+                    }
+                    options.put("outputFormat", getOutputFormatValue(i, "-f", args));
+                    i++;
+                }
+                case "-q" -> {
+                    if (options.containsKey("verdictOnly")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-q"));
+                    }
+                    options.put("verdictOnly", "true");
+                }
+                case "-r" -> {
+                    if (options.containsKey("preprocessing")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-r"));
+                    }
+                    options.put("preprocessing", getPreprocessingValue(i, "-r", args));
+                    i++;
+                }
+                case "-e" -> {
+                    if (options.containsKey("query")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-e"));
+                    }
+                    options.put("query", getValue(i, "-e", args));
+                    i++;
+                }
+                case "-x" -> {
+                    if (options.containsKey("unsatCore")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-x"));
+                    }
+                    options.put("unsatCore", "true");
+                }
+                case "-d" -> {
+                    if (options.containsKey("decompose")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-d"));
+                    }
+                    options.put("decompose", "true");
+                }
+                case "--stream" -> {
+                    if (options.containsKey("stream")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "--stream"));
+                    }
+                    options.put("stream", "true");
+                }
+                case "--stats" -> {
+                    if (options.containsKey("stats")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "--stats"));
+                    }
+                    options.put("stats", "true");
+                }
+                case "--off-heap" -> {
+                    if (options.containsKey("offHeap")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "--off-heap"));
+                    }
+                    options.put("offHeap", "true");
+                }
+                case "--scratch" -> {
+                    if (options.containsKey("scratchDirectory")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "--scratch"));
+                    }
+                    options.put("scratchDirectory", getValue(i, "--scratch", args));
+                    i++;
+                }
+                case "--cache" -> {
+                    if (options.containsKey("cache")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "--cache"));
+                    }
+                    options.put("cache", getPositiveIntegerValue(i, "--cache", args));
+                    i++;
+                }
+                case "--cache-file" -> {
+                    if (options.containsKey("cacheFile")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "--cache-file"));
+                    }
+                    options.put("cacheFile", getValue(i, "--cache-file", args));
+                    i++;
+                }
+                case "-b" -> {
+                    if (options.containsKey("batchInput")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-b"));
+                    }
+                    options.put("batchInput", getValue(i, "-b", args));
+                    i++;
+                }
+                case "-p" -> {
+                    if (options.containsKey("parallelism")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-p"));
+                    }
+                    options.put("parallelism", getPositiveIntegerValue(i, "-p", args));
+                    i++;
+                }
+                case "-s" -> {
+                    if (options.containsKey("serverPort")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-s"));
+                    }
+                    options.put("serverPort", getPositiveIntegerValue(i, "-s", args));
+                    i++;
+                }
+                case "-t" -> {
+                    if (options.containsKey("timeLimit")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-t"));
+                    }
+                    options.put("timeLimit", getPositiveIntegerValue(i, "-t", args));
+                    i++;
+                }
+                case "-l" -> {
+                    if (options.containsKey("sizeLimit")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-l"));
+                    }
+                    options.put("sizeLimit", getPositiveIntegerValue(i, "-l", args));
+                    i++;
+                }
+                case "-m" -> {
+                    if (options.containsKey("memoryLimit")) {
+                        throw new InvalidInputException(String.format("Option '%s' must not be specified more than once!", "-m"));
+                    }
+                    options.put("memoryLimit", getPositiveIntegerValue(i, "-m", args));
+                    i++;
+                }
                 default -> throw new InvalidInputException(String.format("'%s' is not recognized a supported option!", args[i]));
             }
         }
+
+        if (options.containsKey("inputFile") && options.containsKey("batchInput")) {
+            throw new InvalidInputException("Options '-i' and '-b' must not be combined!");
+        }
+        if (options.containsKey("batchInput") && options.containsKey("binaryOutputFile")) {
+            throw new InvalidInputException("Options '-b' and '-w' must not be combined!");
+        }
+        if (options.containsKey("serverPort") && (options.containsKey("inputFile") || options.containsKey("batchInput")
+                || options.containsKey("outputFile") || options.containsKey("binaryOutputFile"))) {
+            throw new InvalidInputException("Option '-s' must not be combined with '-i', '-b', '-o' or '-w'!");
+        }
+        if ((options.containsKey("batchInput") || options.containsKey("serverPort"))
+                && (options.containsKey("outputFormat") || options.containsKey("verdictOnly"))) {
+            throw new InvalidInputException("Options '-f' and '-q' must not be combined with '-b' or '-s'!");
+        }
+        if ((options.containsKey("batchInput") || options.containsKey("serverPort")) && options.containsKey("preprocessing")) {
+            throw new InvalidInputException("Option '-r' must not be combined with '-b' or '-s'!");
+        }
+        if (options.containsKey("query") && (options.containsKey("batchInput") || options.containsKey("serverPort")
+                || options.containsKey("outputFormat") || options.containsKey("verdictOnly") || options.containsKey("preprocessing"))) {
+            throw new InvalidInputException("Option '-e' must not be combined with '-b', '-s', '-f', '-q' or '-r'!");
+        }
+        if (options.containsKey("unsatCore") && (options.containsKey("batchInput") || options.containsKey("serverPort")
+                || options.containsKey("query") || options.containsKey("preprocessing"))) {
+            throw new InvalidInputException("Option '-x' must not be combined with '-b', '-s', '-e' or '-r'!");
+        }
+        if (options.containsKey("decompose") && (options.containsKey("batchInput") || options.containsKey("serverPort")
+                || options.containsKey("query") || options.containsKey("unsatCore") || options.containsKey("offHeap"))) {
+            throw new InvalidInputException("Option '-d' must not be combined with '-b', '-s', '-e', '-x' or '--off-heap'!");
+        }
+        if (options.containsKey("query") && (options.containsKey("timeLimit") || options.containsKey("memoryLimit"))) {
+            throw new InvalidInputException("Options '-t' and '-m' must not be combined with '-e'!");
+        }
+        if (options.containsKey("offHeap") && (options.containsKey("batchInput") || options.containsKey("serverPort")
+                || options.containsKey("binaryOutputFile") || options.containsKey("preprocessing")
+                || options.containsKey("query") || options.containsKey("unsatCore"))) {
+            throw new InvalidInputException("Option '--off-heap' must not be combined with '-b', '-s', '-w', '-r', '-e' or '-x'!");
+        }
+        if (options.containsKey("scratchDirectory") && !options.containsKey("offHeap")) {
+            throw new InvalidInputException("Option '--scratch' requires option '--off-heap'!");
+        }
+        if (options.containsKey("cache") && (options.containsKey("query") || options.containsKey("unsatCore")
+                || options.containsKey("binaryOutputFile") || options.containsKey("offHeap"))) {
+            throw new InvalidInputException("Option '--cache' must not be combined with '-e', '-x', '-w' or '--off-heap'!");
+        }
+        if (options.containsKey("cacheFile") && !options.containsKey("cache")) {
+            throw new InvalidInputException("Option '--cache-file' requires option '--cache'!");
+        }
+        if (options.containsKey("stream") && !options.containsKey("inputFile")) {
+            throw new InvalidInputException("Option '--stream' requires option '-i'!");
+        }
+        if (options.containsKey("stream") && (options.containsKey("preprocessing") || options.containsKey("query")
+                || options.containsKey("unsatCore") || options.containsKey("decompose")
+                || options.containsKey("binaryOutputFile") || options.containsKey("parallelism")
+                || options.containsKey("offHeap") || options.containsKey("cache"))) {
+            throw new InvalidInputException("Option '--stream' must not be combined with '-r', '-e', '-x', '-d', '-w', '-p', '--off-heap' or '--cache'!");
+        }
+        if (!options.containsKey("serverPort") && options.containsKey("sizeLimit")) {
+            throw new InvalidInputException("Option '-l' requires option '-s'!");
+        }
         return options;
     }
 
@@ -47,4 +239,56 @@ public class CliParser {
         }
         return args[index+1].trim();
     }
+
+    private static String getOutputFormatValue(final int index, final String option, final String[] args) throws InvalidInputException {
+        final String value = getValue(index, option, args);
+        return switch (value) {
+            case "human" -> ResultWriter.OutputFormat.HUMAN.name();
+            case "jsonl" -> ResultWriter.OutputFormat.JSON_LINES.name();
+            case "true-atoms" -> ResultWriter.OutputFormat.TRUE_ATOMS.name();
+            case "bitset" -> ResultWriter.OutputFormat.BITSET.name();
+            default -> throw new InvalidInputException(String.format(
+                    "Option '%s' expects one of 'human', 'jsonl', 'true-atoms' or 'bitset', but got '%s'", option, value));
+        };
+    }
+
+    /**
+     * Parses a comma-separated list of preprocessing steps, or 'all' for every step.
+     *
+     * @return comma-separated names of the {@link horn.sat.solver.Preprocessor.Step} constants
+     */
+    private static String getPreprocessingValue(final int index, final String option, final String[] args) throws InvalidInputException {
+        final String value = getValue(index, option, args);
+        if (value.equals("all")) {
+            return Arrays.stream(Preprocessor.Step.values()).map(Enum::name).collect(Collectors.joining(","));
+        }
+
+        final List<String> steps = new ArrayList<>();
+        for (final String step : value.split(",")) {
+            steps.add(switch (step.trim()) {
+                case "premises" -> Preprocessor.Step.REDUNDANT_PREMISES.name();
+                case "tautologies" -> Preprocessor.Step.TAUTOLOGIES.name();
+                case "verum-heads" -> Preprocessor.Step.VERUM_HEADS.name();
+                case "duplicates" -> Preprocessor.Step.DUPLICATE_CLAUSES.name();
+                case "subsumption" -> Preprocessor.Step.SUBSUMPTION.name();
+                case "unreachable" -> Preprocessor.Step.UNREACHABLE_ATOMS.name();
+                default -> throw new InvalidInputException(String.format("Option '%s' expects 'all' or a comma-separated "
+                        + "list of 'premises', 'tautologies', 'verum-heads', 'duplicates', 'subsumption' and "
+                        + "'unreachable', but got '%s'", option, step));
+            });
+        }
+        return String.join(",", steps);
+    }
+
+    private static String getPositiveIntegerValue(final int index, final String option, final String[] args) throws InvalidInputException {
+        final String value = getValue(index, option, args);
+        try {
+            if (Integer.parseInt(value) > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new InvalidInputException(String.format("Option '%s' expects a positive integer, but got '%s'", option, value));
+    }
 }
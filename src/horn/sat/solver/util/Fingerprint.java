@@ -0,0 +1,176 @@
+package horn.sat.solver.util;
+
+import horn.sat.solver.HornFormula;
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 128-bit hash identifying a formula, computed either from its clauses or from its raw input.
+ *
+ * The canonical fingerprint of a formula, see {@link #of(HornFormula)}, only depends on the clauses as sets of atom
+ * symbols, consistent with {@link horn.sat.solver.HornClause#equals(Object)}: it does not change if the clauses or
+ * their premises are reordered, if a premise is repeated or if the atoms are interned in a different order. Every clause
+ * is hashed on its own and the hashes of all clauses are added up, so a clause that occurs twice is counted twice. The
+ * content fingerprint, see {@link #of(ByteBuffer, int, int)}, is a hash of the raw bytes of the input and identifies
+ * identical inputs without parsing them.
+ *
+ * Both fingerprints are built from two independent 64-bit lanes, which are not cryptographic, but make accidental
+ * collisions between the formulas of a cache practically impossible.
+ */
+public record Fingerprint(long high, long low) {
+
+    private static final long SEED_HIGH = 0x9e3779b97f4a7c15L;
+    private static final long SEED_LOW = 0xc2b2ae3d27d4eb4fL;
+    // Size of the chunks a file is read in while its content fingerprint is computed
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Computes the canonical fingerprint of the given formula in time linear in its size, apart from sorting the
+     * premises of every clause.
+     *
+     * @param hornFormula formula to be fingerprinted
+     * @return fingerprint of the formula's clauses
+     */
+    public static Fingerprint of(final HornFormula hornFormula) {
+        final SymbolTable symbolTable = hornFormula.getSymbolTable();
+        final ClauseStore store = hornFormula.getClauseStore();
+
+        // Hashes of the atom symbols, so the fingerprint does not depend on the ids of the atoms
+        final long[] atomHigh = new long[symbolTable.size()];
+        final long[] atomLow = new long[symbolTable.size()];
+        for (int atom = 0; atom < symbolTable.size(); atom++) {
+            final Hasher hasher = new Hasher();
+            final ByteBuffer symbol = symbolTable.getSymbolBytes(atom);
+            hasher.update(symbol, symbol.position(), symbol.limit());
+            atomHigh[atom] = hasher.high();
+            atomLow[atom] = hasher.low();
+        }
+
+        long high = SEED_HIGH;
+        long low = SEED_LOW;
+        int[] premises = new int[16];
+        for (int clause = 0; clause < store.getClauseCount(); clause++) {
+            final int start = store.getPremiseStart(clause);
+            final int count = store.getPremiseEnd(clause) - start;
+            if (premises.length < count) {
+                premises = new int[count];
+            }
+            for (int i = 0; i < count; i++) {
+                premises[i] = store.getPremise(start + i);
+            }
+            Arrays.sort(premises, 0, count);
+
+            // The premises are combined by a sum, which is independent of their order, every distinct premise once
+            long premiseHigh = 0;
+            long premiseLow = 0;
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || premises[i] != premises[i - 1]) {
+                    premiseHigh += mix(atomHigh[premises[i]] ^ SEED_LOW);
+                    premiseLow += mix(atomLow[premises[i]] ^ SEED_HIGH);
+                }
+            }
+            final int head = store.getHead(clause);
+            high += mix(mix(atomHigh[head] + SEED_HIGH) ^ premiseHigh);
+            low += mix(mix(atomLow[head] + SEED_LOW) ^ premiseLow);
+        }
+        return new Fingerprint(mix(high ^ store.getClauseCount()), mix(low + store.getClauseCount()));
+    }
+
+    /**
+     * Computes the content fingerprint of the bytes stored in the given buffer between 'from' (inclusive) and 'to'
+     * (exclusive).
+     *
+     * @param buffer buffer containing the input
+     * @param from start of the input
+     * @param to end of the input
+     * @return fingerprint of the raw input
+     */
+    public static Fingerprint of(final ByteBuffer buffer, final int from, final int to) {
+        final Hasher hasher = new Hasher();
+        hasher.update(buffer, from, to);
+        return hasher.finish();
+    }
+
+    /**
+     * Computes the content fingerprint of the given file, which is the same as the one of its contents in a buffer.
+     *
+     * @param path path of the file
+     * @return fingerprint of the file's contents
+     * @throws IOException thrown if the file cannot be read
+     */
+    public static Fingerprint of(final Path path) throws IOException {
+        final Hasher hasher = new Hasher();
+        final ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(chunk) >= 0) {
+                chunk.flip();
+                hasher.update(chunk, 0, chunk.limit());
+                chunk.clear();
+            }
+        }
+        return hasher.finish();
+    }
+
+    /**
+     * Finalizer of the 64-bit variant of MurmurHash3, spreads every input bit over all output bits.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Hashes a sequence of bytes, which may be passed in chunks of any size, in words of eight bytes.
+     */
+    private static final class Hasher {
+        private long high = SEED_HIGH;
+        private long low = SEED_LOW;
+        private long length = 0;
+        // Bytes of the current, incomplete word in little-endian order
+        private long word = 0;
+
+        private void update(final ByteBuffer buffer, final int from, final int to) {
+            int i = from;
+            if ((length & 7) == 0) {
+                final ByteBuffer words = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                for (; i + Long.BYTES <= to; i += Long.BYTES) {
+                    add(words.getLong(i));
+                    length += Long.BYTES;
+                }
+            }
+            for (; i < to; i++) {
+                word |= (buffer.get(i) & 0xffL) << ((length & 7) << 3);
+                if ((++length & 7) == 0) {
+                    add(word);
+                    word = 0;
+                }
+            }
+        }
+
+        private void add(final long value) {
+            high = Long.rotateLeft(high ^ mix(value + SEED_HIGH), 27) * 5 + 0x52dce729;
+            low = Long.rotateLeft(low ^ mix(value ^ SEED_LOW), 31) * 5 + 0x38495ab5;
+        }
+
+        private long high() {
+            return mix(high ^ mix(word) ^ length);
+        }
+
+        private long low() {
+            return mix(low + mix(word ^ SEED_HIGH) + length);
+        }
+
+        private Fingerprint finish() {
+            return new Fingerprint(high(), low());
+        }
+    }
+}
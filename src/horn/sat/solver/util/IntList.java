@@ -0,0 +1,69 @@
+package horn.sat.solver.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, avoids boxing on the solver's hot paths.
+ */
+public class IntList {
+
+    private int[] elements;
+    private int size = 0;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(final int capacity) {
+        this.elements = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(final int element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+        }
+        elements[size++] = element;
+    }
+
+    public int get(final int index) {
+        return elements[index];
+    }
+
+    public void set(final int index, final int element) {
+        elements[index] = element;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes and returns the last element of the list.
+     *
+     * @return the last element
+     */
+    public int removeLast() {
+        return elements[--size];
+    }
+
+    /**
+     * Shrinks the list to the given size, all elements at or after this position are removed.
+     *
+     * @param newSize new size of the list, must not be larger than the current size
+     */
+    public void truncate(final int newSize) {
+        this.size = newSize;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
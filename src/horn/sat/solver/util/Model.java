@@ -0,0 +1,169 @@
+package horn.sat.solver.util;
+
+import horn.sat.solver.atoms.IAtom;
+import horn.sat.solver.store.SymbolTable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Satisfying configuration of a Horn formula, stored as two dense bitsets indexed by the atoms' ids: one holding the
+ * atoms that are part of the formula, and one holding the atoms that are assigned 'true'. All other atoms of the
+ * formula are assigned 'false'.
+ *
+ * A model needs two bits per atom id instead of a map entry with a boxed value for every atom. The ids refer to the
+ * symbol table of the solved formula, which must not be cleared while the model is in use.
+ *
+ * The bitsets are stored in long buffers, which wrap arrays on the heap, or direct buffers outside of the heap for the
+ * models of the {@link horn.sat.solver.OffHeapSolver}.
+ */
+public class Model {
+
+    private final SymbolTable symbolTable;
+    private final int size;
+    private final LongBuffer atoms;
+    private final LongBuffer trueAtoms;
+
+    /**
+     * Creates a model on the heap that does not contain any atom yet.
+     *
+     * @param symbolTable symbol table of the solved formula
+     * @param size upper bound (exclusive) of all atom ids contained in the model
+     */
+    public Model(final SymbolTable symbolTable, final int size) {
+        this(symbolTable, size, LongBuffer.wrap(new long[words(size)]), LongBuffer.wrap(new long[words(size)]));
+    }
+
+    private Model(final SymbolTable symbolTable, final int size, final LongBuffer atoms, final LongBuffer trueAtoms) {
+        this.symbolTable = symbolTable;
+        this.size = size;
+        this.atoms = atoms;
+        this.trueAtoms = trueAtoms;
+    }
+
+    /**
+     * Creates a model outside of the heap that does not contain any atom yet.
+     *
+     * @param symbolTable symbol table of the solved formula
+     * @param size upper bound (exclusive) of all atom ids contained in the model
+     * @return the empty model
+     */
+    public static Model offHeap(final SymbolTable symbolTable, final int size) {
+        return new Model(symbolTable, size, allocateDirect(words(size)), allocateDirect(words(size)));
+    }
+
+    /**
+     * Adds the atom with the given id to the model.
+     *
+     * @param id id of the atom
+     * @param value truth value assigned to the atom
+     */
+    public void assign(final int id, final boolean value) {
+        final int word = id >>> 6;
+        atoms.put(word, atoms.get(word) | 1L << id);
+        if (value) {
+            trueAtoms.put(word, trueAtoms.get(word) | 1L << id);
+        } else {
+            trueAtoms.put(word, trueAtoms.get(word) & ~(1L << id));
+        }
+    }
+
+    /**
+     * Determines whether the atom with the given id is part of the model.
+     *
+     * @param id id of the atom
+     * @return 'true' if the model assigns a value to the atom, 'false' otherwise
+     */
+    public boolean contains(final int id) {
+        return id >= 0 && id < size && (atoms.get(id >>> 6) & 1L << id) != 0;
+    }
+
+    /**
+     * Determines whether the atom with the given id is assigned 'true'.
+     *
+     * @param id id of the atom
+     * @return 'true' if the atom is assigned 'true', 'false' if it is assigned 'false' or not part of the model
+     */
+    public boolean isTrue(final int id) {
+        return id >= 0 && id < size && (trueAtoms.get(id >>> 6) & 1L << id) != 0;
+    }
+
+    /**
+     * Returns the id of the first atom at or after the given id that is assigned 'true'. All true atoms are visited by
+     * {@code for (int id = model.nextTrue(0); id >= 0; id = model.nextTrue(id + 1))}, skipping 64 false atoms at once.
+     *
+     * @param from id the search starts at
+     * @return id of the next true atom, or -1 if there is none
+     */
+    public int nextTrue(final int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = trueAtoms.get(word) & (-1L << from);
+        while (bits == 0) {
+            if (++word == trueAtoms.capacity()) {
+                return -1;
+            }
+            bits = trueAtoms.get(word);
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * @return number of atoms assigned 'true'
+     */
+    public int getTrueCount() {
+        int count = 0;
+        for (int word = 0; word < trueAtoms.capacity(); word++) {
+            count += Long.bitCount(trueAtoms.get(word));
+        }
+        return count;
+    }
+
+    /**
+     * @return upper bound (exclusive) of all atom ids contained in the model
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return this.symbolTable;
+    }
+
+    /**
+     * Returns the words of the bitset of true atoms, where bit i of word w is set if the atom with id 64w+i is 'true'.
+     *
+     * @return read-only view of the bitset of true atoms, positioned at the first word
+     */
+    public LongBuffer getTrueAtomWords() {
+        return this.trueAtoms.asReadOnlyBuffer().clear();
+    }
+
+    /**
+     * Creates a map associating every atom of the model with its truth value, ordered by the atoms' ids.
+     *
+     * @return map of all atoms of the model
+     */
+    public Map<IAtom, Boolean> toMap() {
+        final Map<IAtom, Boolean> configuration = new LinkedHashMap<>();
+        for (int id = 0; id < size; id++) {
+            if (contains(id)) {
+                configuration.put(symbolTable.toAtom(id), isTrue(id));
+            }
+        }
+        return configuration;
+    }
+
+    private static int words(final int size) {
+        return (int) ((size + Long.SIZE - 1L) >>> 6);
+    }
+
+    private static LongBuffer allocateDirect(final int words) {
+        return ByteBuffer.allocateDirect(words * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+}
@@ -0,0 +1,316 @@
+package horn.sat.solver.util;
+
+import horn.sat.solver.store.SymbolTable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded cache of solver results, keyed by the canonical {@link Fingerprint} of the solved formula, so a formula that
+ * is submitted again, possibly with its clauses or premises reordered, is answered without solving it.
+ *
+ * In addition, the content fingerprint of the raw input of a formula can be stored as an alias of its canonical
+ * fingerprint. An identical input is then answered without even parsing it.
+ *
+ * The cache holds at most a given number of results and a given number of bytes, estimated from the symbols of the
+ * cached models. Once either bound is exceeded, the least recently used results are evicted. Only SAT and UNSAT results
+ * are cached, without unsat cores, and every cached model is copied along with its own symbol table, so the cached
+ * results remain valid when the parsers reuse their symbol tables. The model of a reordered formula lists the atoms
+ * in the order of the formula that was cached first. The cache can be saved to a file and loaded again after a
+ * restart. All methods are thread-safe, and the hits, misses and evictions are recorded in the {@link SolverMetrics}.
+ */
+public class ResultCache {
+
+    private static final byte[] MAGIC = {(byte) 0x89, 'H', 'S', 'C'};
+    private static final int VERSION = 1;
+    // Estimated bytes of an entry without its model, and of every atom of a model in addition to its symbol
+    private static final long BYTES_PER_ENTRY = 128;
+    private static final long BYTES_PER_ATOM = 16;
+    // States of an atom in a saved model
+    private static final byte ABSENT = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    // Both maps are ordered from the least to the most recently used entry
+    private final LinkedHashMap<Fingerprint, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Fingerprint, Fingerprint> aliases = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+
+    /**
+     * @param maxEntries maximum number of cached results
+     * @param maxBytes maximum estimated size of all cached results
+     */
+    public ResultCache(final int maxEntries, final long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the result of the formula with the given canonical fingerprint.
+     *
+     * @param fingerprint canonical fingerprint of the formula
+     * @return the cached result, or an empty optional if the formula has not been cached
+     */
+    public synchronized Optional<SolverResult> get(final Fingerprint fingerprint) {
+        return record(entries.get(fingerprint));
+    }
+
+    /**
+     * Returns the result of the formula whose raw input has the given content fingerprint.
+     *
+     * @param content content fingerprint of the input
+     * @return the cached result, or an empty optional if the input has not been cached
+     */
+    public synchronized Optional<SolverResult> getByContent(final Fingerprint content) {
+        final Fingerprint fingerprint = aliases.get(content);
+        final Entry entry = fingerprint == null ? null : entries.get(fingerprint);
+        if (fingerprint != null && entry == null) {
+            aliases.remove(content); // the result has been evicted
+        }
+        // A miss is only recorded by the lookup of the canonical fingerprint that follows it
+        return entry == null ? Optional.empty() : record(entry);
+    }
+
+    /**
+     * Caches the result of the given formula. UNKNOWN results are ignored.
+     *
+     * @param fingerprint canonical fingerprint of the formula
+     * @param content content fingerprint of the formula's raw input, or null if the input is not known
+     * @param result result of the formula
+     */
+    public synchronized void put(final Fingerprint fingerprint, final Fingerprint content, final SolverResult result) {
+        if (result.getSatResult() == SolverResult.SatResult.UNKNOWN) {
+            return;
+        }
+        if (!entries.containsKey(fingerprint)) {
+            final Entry entry = Entry.copyOf(result);
+            entries.put(fingerprint, entry);
+            bytes += entry.bytes();
+        }
+        if (content != null) {
+            alias(content, fingerprint);
+        }
+        evict();
+    }
+
+    /**
+     * Stores the given content fingerprint as an alias of the given canonical fingerprint, so the input with that
+     * content is found without being parsed.
+     *
+     * @param content content fingerprint of a formula's raw input
+     * @param fingerprint canonical fingerprint of the formula
+     */
+    public synchronized void alias(final Fingerprint content, final Fingerprint fingerprint) {
+        aliases.put(content, fingerprint);
+        evict();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes the least recently used results until both bounds are met. The aliases are bounded by the number of
+     * entries as well, an alias of an evicted result is removed once it is looked up.
+     */
+    private void evict() {
+        final Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+            if (SolverMetrics.isEnabled()) {
+                SolverMetrics.get().recordCacheEviction();
+            }
+        }
+        final Iterator<Fingerprint> eldestAlias = aliases.keySet().iterator();
+        while (aliases.size() > maxEntries) {
+            eldestAlias.next();
+            eldestAlias.remove();
+        }
+    }
+
+    private static Optional<SolverResult> record(final Entry entry) {
+        if (SolverMetrics.isEnabled()) {
+            if (entry != null) {
+                SolverMetrics.get().recordCacheHit();
+            } else {
+                SolverMetrics.get().recordCacheMiss();
+            }
+        }
+        return entry == null ? Optional.empty() : Optional.of(entry.result());
+    }
+
+    /**
+     * Loads a cache saved by {@link #save(Path)}. If there are more results than fit the given bounds, the most
+     * recently used ones are kept.
+     *
+     * @param path path of the saved cache
+     * @param maxEntries maximum number of cached results
+     * @param maxBytes maximum estimated size of all cached results
+     * @return the loaded cache, or an empty cache if the file does not exist
+     * @throws IOException thrown if the file cannot be read or is not a saved cache
+     */
+    public static ResultCache load(final Path path, final int maxEntries, final long maxBytes) throws IOException {
+        final ResultCache cache = new ResultCache(maxEntries, maxBytes);
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            final byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(String.format("File '%s' is not a result cache", path));
+            }
+            final int version = input.readInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("Result cache '%s' has the unsupported version %d", path, version));
+            }
+
+            final int entryCount = input.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                final Fingerprint fingerprint = new Fingerprint(input.readLong(), input.readLong());
+                final Entry entry = Entry.read(input);
+                cache.entries.put(fingerprint, entry);
+                cache.bytes += entry.bytes();
+            }
+            final int aliasCount = input.readInt();
+            for (int i = 0; i < aliasCount; i++) {
+                cache.aliases.put(new Fingerprint(input.readLong(), input.readLong()),
+                        new Fingerprint(input.readLong(), input.readLong()));
+            }
+        } catch (NoSuchFileException e) {
+            return cache;
+        }
+        cache.evict();
+        return cache;
+    }
+
+    /**
+     * Saves all cached results and aliases to the given file, from the least to the most recently used. The cache is
+     * written to a temporary file first, which then replaces the given file, so a crash never leaves a partial cache.
+     *
+     * @param path path of the saved cache
+     * @throws IOException thrown if the file cannot be written
+     */
+    public synchronized void save(final Path path) throws IOException {
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.write(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(entries.size());
+            for (final Map.Entry<Fingerprint, Entry> entry : entries.entrySet()) {
+                output.writeLong(entry.getKey().high());
+                output.writeLong(entry.getKey().low());
+                entry.getValue().write(output);
+            }
+            output.writeInt(aliases.size());
+            for (final Map.Entry<Fingerprint, Fingerprint> alias : aliases.entrySet()) {
+                output.writeLong(alias.getKey().high());
+                output.writeLong(alias.getKey().low());
+                output.writeLong(alias.getValue().high());
+                output.writeLong(alias.getValue().low());
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Cached result along with its estimated size in bytes.
+     */
+    private record Entry(SolverResult result, long bytes) {
+
+        /**
+         * Copies the given result without its unsat core, and its model along with the model's atoms.
+         */
+        private static Entry copyOf(final SolverResult result) {
+            if (result.getModel().isEmpty()) {
+                return new Entry(SolverResult.unsat(), BYTES_PER_ENTRY);
+            }
+            final Model model = result.getModel().get();
+            final SymbolTable symbolTable = model.getSymbolTable();
+            final SymbolTable copiedSymbolTable = new SymbolTable();
+            long bytes = BYTES_PER_ENTRY;
+            for (int atom = 0; atom < model.size(); atom++) {
+                if (atom > SymbolTable.VERUM || model.contains(atom)) {
+                    copiedSymbolTable.intern(symbolTable, atom);
+                    bytes += BYTES_PER_ATOM + symbolTable.getSymbolBytes(atom).remaining();
+                }
+            }
+
+            final Model copiedModel = new Model(copiedSymbolTable, model.size());
+            for (int atom = 0; atom < model.size(); atom++) {
+                if (model.contains(atom)) {
+                    copiedModel.assign(atom, model.isTrue(atom));
+                }
+            }
+            return new Entry(SolverResult.sat(copiedModel), bytes);
+        }
+
+        private static Entry read(final DataInputStream input) throws IOException {
+            if (!input.readBoolean()) {
+                return new Entry(SolverResult.unsat(), BYTES_PER_ENTRY);
+            }
+            final int size = input.readInt();
+            if (size < SymbolTable.VERUM + 1) {
+                throw new IOException("Result cache is corrupt: invalid model size");
+            }
+            final SymbolTable symbolTable = new SymbolTable();
+            long bytes = BYTES_PER_ENTRY;
+            for (int atom = SymbolTable.VERUM + 1; atom < size; atom++) {
+                final int length = input.readInt();
+                if (length < 0) {
+                    throw new IOException("Result cache is corrupt: invalid symbol length");
+                }
+                final byte[] symbol = new byte[length];
+                input.readFully(symbol);
+                if (symbolTable.intern(ByteBuffer.wrap(symbol), 0, symbol.length) != atom) {
+                    throw new IOException("Result cache is corrupt: duplicate atom");
+                }
+                bytes += BYTES_PER_ATOM + symbol.length;
+            }
+
+            final Model model = new Model(symbolTable, size);
+            for (int atom = 0; atom < size; atom++) {
+                final byte state = input.readByte();
+                if (state != ABSENT) {
+                    if (atom <= SymbolTable.VERUM) {
+                        symbolTable.internConstant(atom);
+                    }
+                    model.assign(atom, state == TRUE);
+                }
+            }
+            return new Entry(SolverResult.sat(model), bytes);
+        }
+
+        private void write(final DataOutputStream output) throws IOException {
+            output.writeBoolean(result.getModel().isPresent());
+            if (result.getModel().isEmpty()) {
+                return;
+            }
+            final Model model = result.getModel().get();
+            output.writeInt(model.size());
+            for (int atom = SymbolTable.VERUM + 1; atom < model.size(); atom++) {
+                final ByteBuffer symbol = model.getSymbolTable().getSymbolBytes(atom);
+                output.writeInt(symbol.remaining());
+                while (symbol.hasRemaining()) {
+                    output.write(symbol.get());
+                }
+            }
+            for (int atom = 0; atom < model.size(); atom++) {
+                output.writeByte(!model.contains(atom) ? ABSENT : model.isTrue(atom) ? TRUE : FALSE);
+            }
+        }
+    }
+}
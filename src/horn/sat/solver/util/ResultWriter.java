@@ -0,0 +1,233 @@
+package horn.sat.solver.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Streams a {@link SolverResult} to a channel in one of several formats.
+ *
+ * The atoms are written in the order of their ids, one after another through a fixed-size buffer, so writing a
+ * result never needs memory proportional to the size of its model. Optionally, only the verdict is written.
+ */
+public class ResultWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] BITSET_MAGIC = {(byte) 0x89, 'H', 'S', 'R'};
+
+    private static final byte[] HUMAN_SEPARATOR = utf8(", ");
+    private static final byte[] HUMAN_TRUE = utf8(": true");
+    private static final byte[] HUMAN_FALSE = utf8(": false");
+    private static final byte[] JSON_ATOM = utf8("{\"atom\":\"");
+    private static final byte[] JSON_TRUE = utf8("\",\"value\":true}\n");
+    private static final byte[] JSON_FALSE = utf8("\",\"value\":false}\n");
+    private static final byte[] NEWLINE = utf8("\n");
+
+    private final OutputFormat format;
+    private final boolean verdictOnly;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    private WritableByteChannel channel;
+
+    /**
+     * @param format format the results are written in
+     * @param verdictOnly whether only the verdict should be written, without the model
+     */
+    public ResultWriter(final OutputFormat format, final boolean verdictOnly) {
+        this.format = format;
+        this.verdictOnly = verdictOnly;
+    }
+
+    /**
+     * Writes the given result. The channel is neither flushed nor closed.
+     *
+     * @param result result to be written
+     * @param channel channel the result is written to
+     * @throws IOException thrown if the channel cannot be written
+     */
+    public void write(final SolverResult result, final WritableByteChannel channel) throws IOException {
+        final long startNanos = SolverMetrics.isEnabled() ? System.nanoTime() : 0;
+        final long startAllocated = SolverMetrics.isEnabled() ? SolverMetrics.allocatedBytes() : 0;
+        this.channel = channel;
+        final Optional<Model> model = verdictOnly ? Optional.empty() : result.getModel();
+
+        switch (format) {
+            case HUMAN -> writeHuman(result, model);
+            case JSON_LINES -> writeJsonLines(result, model);
+            case TRUE_ATOMS -> writeTrueAtoms(result, model);
+            case BITSET -> writeBitset(result, model);
+        }
+        flush();
+
+        if (SolverMetrics.isEnabled()) {
+            SolverMetrics.get().recordRender(startNanos, startAllocated);
+        }
+    }
+
+    /**
+     * The format of {@link SolverResult#getVerdict()}: 'Verdict: SAT', followed by 'e.g. (a: true, b: false, ...)'.
+     * For an unsatisfiable formula with an unsat core, the derivation tree of '⊥' is appended, for an aborted solve the
+     * exceeded limit.
+     */
+    private void writeHuman(final SolverResult result, final Optional<Model> model) throws IOException {
+        writeText("Verdict: " + result.getSatResult());
+        if (!verdictOnly && result.getAbortReason().isPresent()) {
+            writeText("\nThe solver has been aborted: " + result.getAbortReason().get() + ".");
+        }
+        if (result.getSatResult() == SolverResult.SatResult.UNSAT) {
+            if (!verdictOnly) {
+                writeText("\nThere exists no configuration that satisfies the given Horn Formula.");
+                if (result.getUnsatCore().isPresent()) {
+                    final UnsatCore core = result.getUnsatCore().get();
+                    writeText(String.format("\n⊥ is derived from %d clauses:\n", core.size()));
+                    writeText(core.getDerivationTree());
+                }
+            }
+            return;
+        }
+        if (model.isEmpty()) {
+            return;
+        }
+
+        writeText("\ne.g. (");
+        boolean first = true;
+        for (int atom = 0; atom < model.get().size(); atom++) {
+            if (model.get().contains(atom)) {
+                if (!first) {
+                    writeBytes(HUMAN_SEPARATOR);
+                }
+                writeSymbol(model.get(), atom, false);
+                writeBytes(model.get().isTrue(atom) ? HUMAN_TRUE : HUMAN_FALSE);
+                first = false;
+            }
+        }
+        writeText(")");
+    }
+
+    /**
+     * One JSON object per line: '{"verdict":"SAT"}', followed by '{"atom":"a","value":true}' for every atom. For an
+     * unsatisfiable formula with an unsat core, the verdict is followed by '{"core":[3,7,12]}' with the core's clauses,
+     * for an aborted solve by '{"reason":"..."}' with the exceeded limit.
+     */
+    private void writeJsonLines(final SolverResult result, final Optional<Model> model) throws IOException {
+        writeText("{\"verdict\":\"" + result.getSatResult() + "\"}\n");
+        if (!verdictOnly && result.getAbortReason().isPresent()) {
+            writeText("{\"reason\":\"" + result.getAbortReason().get() + "\"}\n");
+        }
+        if (!verdictOnly && result.getUnsatCore().isPresent()) {
+            writeText("{\"core\":" + Arrays.toString(result.getUnsatCore().get().getClauses()).replace(" ", "") + "}\n");
+        }
+        if (model.isEmpty()) {
+            return;
+        }
+
+        for (int atom = 0; atom < model.get().size(); atom++) {
+            if (model.get().contains(atom)) {
+                writeBytes(JSON_ATOM);
+                writeSymbol(model.get(), atom, true);
+                writeBytes(model.get().isTrue(atom) ? JSON_TRUE : JSON_FALSE);
+            }
+        }
+    }
+
+    /**
+     * The verdict on the first line, followed by the symbols of all atoms assigned 'true', one per line.
+     */
+    private void writeTrueAtoms(final SolverResult result, final Optional<Model> model) throws IOException {
+        writeText(result.getSatResult() + "\n");
+        if (model.isEmpty()) {
+            return;
+        }
+
+        for (int atom = model.get().nextTrue(0); atom >= 0; atom = model.get().nextTrue(atom + 1)) {
+            writeSymbol(model.get(), atom, false);
+            writeBytes(NEWLINE);
+        }
+    }
+
+    /**
+     * Little-endian binary: the magic number, a verdict byte (1 for SAT, 0 for UNSAT, 2 for UNKNOWN) and, for satisfiable formulas,
+     * the number of atom ids n followed by ceil(n/64) longs, where bit i is set if the atom with id i is assigned
+     * 'true', i.e. the words of {@link Model#getTrueAtomWords()}. The ids are those of the symbol table, e.g. of a
+     * formula stored in the binary format.
+     */
+    private void writeBitset(final SolverResult result, final Optional<Model> model) throws IOException {
+        ensureRemaining(BITSET_MAGIC.length + 1);
+        buffer.put(BITSET_MAGIC);
+        buffer.put((byte) switch (result.getSatResult()) {
+            case SAT -> 1;
+            case UNSAT -> 0;
+            case UNKNOWN -> 2;
+        });
+        if (model.isEmpty()) {
+            return;
+        }
+
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(model.get().size());
+        final LongBuffer words = model.get().getTrueAtomWords();
+        while (words.hasRemaining()) {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(words.get());
+        }
+    }
+
+    private void writeSymbol(final Model model, final int atom, final boolean escapeJson) throws IOException {
+        final ByteBuffer symbol = model.getSymbolTable().getSymbolBytes(atom);
+        while (symbol.hasRemaining()) {
+            final byte character = symbol.get();
+            if (escapeJson && (character == '"' || character == '\\')) {
+                ensureRemaining(2);
+                buffer.put((byte) '\\').put(character);
+            } else if (escapeJson && character >= 0 && character < 0x20) {
+                writeText(String.format("\\u%04x", (int) character));
+            } else {
+                ensureRemaining(1);
+                buffer.put(character);
+            }
+        }
+    }
+
+    private void writeText(final String text) throws IOException {
+        writeBytes(utf8(text));
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        for (int written = 0; written < bytes.length; ) {
+            ensureRemaining(1);
+            final int chunk = Math.min(bytes.length - written, buffer.remaining());
+            buffer.put(bytes, written, chunk);
+            written += chunk;
+        }
+    }
+
+    private void ensureRemaining(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte[] utf8(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public enum OutputFormat {
+        HUMAN,
+        JSON_LINES,
+        TRUE_ATOMS,
+        BITSET
+    }
+}
@@ -0,0 +1,164 @@
+package horn.sat.solver.util;
+
+import horn.sat.solver.exceptions.LimitExceededException;
+
+/**
+ * Limits of reading and solving a single formula: a deadline, a cancellation flag and a budget for the size of the
+ * formula. The parsers and the solver check the limits cooperatively every few thousand steps and abort with a
+ * {@link LimitExceededException} once one of them is exceeded, which the solver reports as an
+ * {@link SolverResult.SatResult#UNKNOWN} result.
+ *
+ * The memory budget is compared with an estimate of the clause store and of the solver's working arrays, which make up
+ * most of the memory of a formula. A context can be cancelled from any thread, all other state is immutable.
+ */
+public class SolveContext {
+
+    // Bytes per clause, premise and atom of the clause store and of the solver's working arrays
+    private static final long BYTES_PER_CLAUSE = 3 * Integer.BYTES;
+    private static final long BYTES_PER_PREMISE = 2 * Integer.BYTES;
+    private static final long BYTES_PER_ATOM = 3 * Integer.BYTES + 1;
+    // Bytes per atom of the symbol table's offsets, hashes and hash slots, in addition to the bytes of its symbol
+    private static final long BYTES_PER_INTERNED_ATOM = 4 * Integer.BYTES;
+
+    private final long timeLimitMillis;
+    private final long deadlineNanos;
+    private final int maxClauses;
+    private final int maxAtoms;
+    private final long maxMemoryBytes;
+    private volatile boolean cancelled = false;
+
+    private SolveContext(final long timeLimitMillis, final int maxClauses, final int maxAtoms, final long maxMemoryBytes) {
+        this.timeLimitMillis = timeLimitMillis;
+        this.deadlineNanos = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1_000_000 : 0;
+        this.maxClauses = maxClauses;
+        this.maxAtoms = maxAtoms;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    /**
+     * @return a context without any limits, which can still be cancelled
+     */
+    public static SolveContext unlimited() {
+        return new SolveContext(0, 0, 0, 0);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Requests the reading or solving of the formula to stop. Takes effect at the next check of the limits.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Checks whether the context has been cancelled or its deadline has passed.
+     *
+     * @throws LimitExceededException thrown if the reading or solving of the formula must stop
+     */
+    public void checkTime() throws LimitExceededException {
+        if (cancelled) {
+            throw new LimitExceededException("the solver has been cancelled");
+        }
+        if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0) {
+            throw new LimitExceededException(timeLimitMessage(timeLimitMillis));
+        }
+    }
+
+    /**
+     * Checks whether a formula of the given size fits the budget, not counting the memory of its symbol table. Used by
+     * the solvers, whose working arrays are allocated once the formula has been read.
+     *
+     * @param clauses number of clauses
+     * @param premises total number of premises over all clauses
+     * @param atoms number of atom ids
+     * @throws LimitExceededException thrown if the formula exceeds the budget
+     */
+    public void checkSize(final int clauses, final long premises, final int atoms) throws LimitExceededException {
+        checkSize(clauses, premises, atoms, -1);
+    }
+
+    /**
+     * Checks whether a formula of the given size fits the budget, including the memory of its symbol table. Used by
+     * the parsers with the clauses and atoms read so far, so the budget is enforced before the whole formula and its
+     * symbols have been read.
+     *
+     * @param clauses number of clauses
+     * @param premises total number of premises over all clauses
+     * @param atoms number of atom ids
+     * @param symbolBytes total length of all symbols, see {@link horn.sat.solver.store.SymbolInterner#getArenaSize()},
+     *  or -1 if the symbol table is not counted
+     * @throws LimitExceededException thrown if the formula exceeds the budget
+     */
+    public void checkSize(final int clauses, final long premises, final int atoms, final long symbolBytes)
+            throws LimitExceededException {
+        if (maxClauses > 0 && clauses > maxClauses) {
+            throw new LimitExceededException(String.format("the formula exceeds the limit of %d clauses", maxClauses));
+        }
+        if (maxAtoms > 0 && atoms > maxAtoms) {
+            throw new LimitExceededException(String.format("the formula exceeds the limit of %d atoms", maxAtoms));
+        }
+        final long symbolTableBytes = symbolBytes >= 0 ? atoms * BYTES_PER_INTERNED_ATOM + symbolBytes : 0;
+        if (maxMemoryBytes > 0 && clauses * BYTES_PER_CLAUSE + premises * BYTES_PER_PREMISE + atoms * BYTES_PER_ATOM
+                + symbolTableBytes > maxMemoryBytes) {
+            throw new LimitExceededException(String.format("the formula exceeds the memory budget of %d bytes", maxMemoryBytes));
+        }
+    }
+
+    /**
+     * @param timeLimitMillis time limit of a formula
+     * @return the reason given for a formula that has exceeded the time limit
+     */
+    public static String timeLimitMessage(final long timeLimitMillis) {
+        return String.format("the time limit of %d ms has been exceeded", timeLimitMillis);
+    }
+
+    /**
+     * Collects the limits of a context. All limits are disabled unless they are set to a positive value.
+     */
+    public static class Builder {
+
+        private long timeLimitMillis = 0;
+        private int maxClauses = 0;
+        private int maxAtoms = 0;
+        private long maxMemoryBytes = 0;
+
+        private Builder() {
+        }
+
+        public Builder timeLimit(final long timeLimitMillis) {
+            this.timeLimitMillis = timeLimitMillis;
+            return this;
+        }
+
+        public Builder maxClauses(final int maxClauses) {
+            this.maxClauses = maxClauses;
+            return this;
+        }
+
+        public Builder maxAtoms(final int maxAtoms) {
+            this.maxAtoms = maxAtoms;
+            return this;
+        }
+
+        public Builder maxMemory(final long maxMemoryBytes) {
+            this.maxMemoryBytes = maxMemoryBytes;
+            return this;
+        }
+
+        /**
+         * Creates the context, its deadline is the time limit from now on.
+         *
+         * @return the new context
+         */
+        public SolveContext build() {
+            return new SolveContext(timeLimitMillis, maxClauses, maxAtoms, maxMemoryBytes);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package horn.sat.solver.util;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timers of the parsers, the solver and the rendering of results.
+ *
+ * The metrics are disabled by default, in which case the instrumented code only checks {@link #isEnabled()} once per
+ * formula or clause and records nothing. Once enabled, every parse, solve and render is timed, the solver's counters
+ * are added up, and the bytes allocated by the current thread are sampled before and after, if the JVM supports it.
+ * The counters are thread-safe, so the batch and server modes record into the same metrics from all worker threads.
+ */
+public class SolverMetrics implements SolverMetricsMXBean {
+
+    private static final String OBJECT_NAME = "horn.sat.solver:type=SolverMetrics";
+    private static final SolverMetrics INSTANCE = new SolverMetrics();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // Only written before the instrumented code runs, hence it does not need to be volatile
+    private static boolean enabled = false;
+
+    private final LongAdder parseCount = new LongAdder();
+    private final LongAdder parseTime = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder clausesRead = new LongAdder();
+    private final LongAdder atomOccurrencesRead = new LongAdder();
+    private final LongAdder atomsRead = new LongAdder();
+    private final LongAdder linesTokenized = new LongAdder();
+    private final LongAdder parseAllocated = new LongAdder();
+
+    private final LongAdder solveCount = new LongAdder();
+    private final LongAdder solveTime = new LongAdder();
+    private final LongAdder propagationSteps = new LongAdder();
+    private final LongAdder clausesVisited = new LongAdder();
+    private final LongAccumulator queueHighWaterMark = new LongAccumulator(Math::max, 0);
+    private final LongAdder solveAllocated = new LongAdder();
+
+    private final LongAdder renderCount = new LongAdder();
+    private final LongAdder renderTime = new LongAdder();
+    private final LongAdder renderAllocated = new LongAdder();
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
+
+    private SolverMetrics() {
+    }
+
+    public static SolverMetrics get() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables the metrics and registers them with the platform MBean server. Must be called before any formula is
+     * parsed or solved.
+     */
+    public static void enable() {
+        enabled = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // registered by an earlier call
+        } catch (JMException e) {
+            System.err.printf("Metrics could not be registered with JMX: %s%n", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of bytes the current thread has allocated so far, for sampling the allocations of a section.
+     *
+     * @return allocated bytes, or 0 if the JVM does not measure them
+     */
+    public static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * Records a parsed formula.
+     *
+     * @param startNanos value of {@link System#nanoTime()} before parsing
+     * @param startAllocated value of {@link #allocatedBytes()} before parsing
+     * @param bytes size of the parsed input
+     * @param clauses number of clauses of the formula
+     * @param atomOccurrences number of premises and implied atoms of the formula
+     * @param atoms number of distinct atoms of the formula
+     */
+    public void recordParse(final long startNanos, final long startAllocated, final long bytes, final long clauses,
+                            final long atomOccurrences, final long atoms) {
+        parseTime.add(System.nanoTime() - startNanos);
+        parseAllocated.add(allocatedBytes() - startAllocated);
+        parseCount.increment();
+        bytesRead.add(bytes);
+        clausesRead.add(clauses);
+        atomOccurrencesRead.add(atomOccurrences);
+        atomsRead.add(atoms);
+    }
+
+    public void recordLineTokenized() {
+        linesTokenized.increment();
+    }
+
+    /**
+     * Records a solved formula.
+     *
+     * @param startNanos value of {@link System#nanoTime()} before solving
+     * @param startAllocated value of {@link #allocatedBytes()} before solving
+     * @param propagated number of atoms whose consequences have been propagated
+     * @param visited number of clause counters that have been decremented
+     * @param maxQueued largest number of atoms that have been waiting in the queue at once
+     */
+    public void recordSolve(final long startNanos, final long startAllocated, final long propagated, final long visited,
+                            final long maxQueued) {
+        solveTime.add(System.nanoTime() - startNanos);
+        solveAllocated.add(allocatedBytes() - startAllocated);
+        solveCount.increment();
+        propagationSteps.add(propagated);
+        clausesVisited.add(visited);
+        queueHighWaterMark.accumulate(maxQueued);
+    }
+
+    /**
+     * Records a rendered result.
+     *
+     * @param startNanos value of {@link System#nanoTime()} before rendering
+     * @param startAllocated value of {@link #allocatedBytes()} before rendering
+     */
+    public void recordRender(final long startNanos, final long startAllocated) {
+        renderTime.add(System.nanoTime() - startNanos);
+        renderAllocated.add(allocatedBytes() - startAllocated);
+        renderCount.increment();
+    }
+
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    public void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    public void recordCacheEviction() {
+        cacheEvictions.increment();
+    }
+
+    /**
+     * Formats all metrics for humans, one metric per line.
+     *
+     * @return the formatted metrics
+     */
+    public String format() {
+        return String.format("  parse:  %d formulas in %.1f ms, %d bytes (%.1f MB/s), %d clauses, %d atom occurrences, "
+                        + "%d atoms, %d lines tokenized, %d bytes allocated%n",
+                getParseCount(), getParseTimeNanos() / 1e6, getBytesRead(), getBytesPerSecond() / 1e6, getClausesRead(),
+                getAtomOccurrencesRead(), getAtomsRead(), getLinesTokenized(), getParseAllocatedBytes())
+                + String.format("  solve:  %d formulas in %.1f ms, %d propagation steps, %d clauses visited, "
+                        + "queue high-water mark %d, %d bytes allocated%n",
+                getSolveCount(), getSolveTimeNanos() / 1e6, getPropagationSteps(), getClausesVisited(),
+                getQueueHighWaterMark(), getSolveAllocatedBytes())
+                + String.format("  render: %d results in %.1f ms, %d bytes allocated%n",
+                getRenderCount(), getRenderTimeNanos() / 1e6, getRenderAllocatedBytes())
+                + String.format("  cache:  %d hits, %d misses, %d evictions%n",
+                getCacheHits(), getCacheMisses(), getCacheEvictions());
+    }
+
+    @Override
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    @Override
+    public long getParseTimeNanos() {
+        return parseTime.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        final long nanos = getParseTimeNanos();
+        return nanos == 0 ? 0 : getBytesRead() * 1e9 / nanos;
+    }
+
+    @Override
+    public long getClausesRead() {
+        return clausesRead.sum();
+    }
+
+    @Override
+    public long getAtomOccurrencesRead() {
+        return atomOccurrencesRead.sum();
+    }
+
+    @Override
+    public long getAtomsRead() {
+        return atomsRead.sum();
+    }
+
+    @Override
+    public long getLinesTokenized() {
+        return linesTokenized.sum();
+    }
+
+    @Override
+    public long getParseAllocatedBytes() {
+        return parseAllocated.sum();
+    }
+
+    @Override
+    public long getSolveCount() {
+        return solveCount.sum();
+    }
+
+    @Override
+    public long getSolveTimeNanos() {
+        return solveTime.sum();
+    }
+
+    @Override
+    public long getPropagationSteps() {
+        return propagationSteps.sum();
+    }
+
+    @Override
+    public long getClausesVisited() {
+        return clausesVisited.sum();
+    }
+
+    @Override
+    public long getQueueHighWaterMark() {
+        return queueHighWaterMark.get();
+    }
+
+    @Override
+    public long getSolveAllocatedBytes() {
+        return solveAllocated.sum();
+    }
+
+    @Override
+    public long getRenderCount() {
+        return renderCount.sum();
+    }
+
+    @Override
+    public long getRenderTimeNanos() {
+        return renderTime.sum();
+    }
+
+    @Override
+    public long getRenderAllocatedBytes() {
+        return renderAllocated.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public long getCacheEvictions() {
+        return cacheEvictions.sum();
+    }
+
+    @Override
+    public void reset() {
+        for (final LongAdder adder : new LongAdder[]{parseCount, parseTime, bytesRead, clausesRead, atomOccurrencesRead,
+                atomsRead, linesTokenized, parseAllocated, solveCount, solveTime, propagationSteps, clausesVisited,
+                solveAllocated, renderCount, renderTime, renderAllocated, cacheHits, cacheMisses, cacheEvictions}) {
+            adder.reset();
+        }
+        queueHighWaterMark.reset();
+    }
+}
@@ -0,0 +1,76 @@
+package horn.sat.solver.util;
+
+/**
+ * Management interface of the {@link SolverMetrics}, registered as 'horn.sat.solver:type=SolverMetrics'. All times are
+ * in nanoseconds, all counters accumulate over all formulas since the metrics were enabled or last reset.
+ */
+public interface SolverMetricsMXBean {
+
+    long getParseCount();
+
+    long getParseTimeNanos();
+
+    long getBytesRead();
+
+    /**
+     * @return bytes read per second of parse time
+     */
+    double getBytesPerSecond();
+
+    long getClausesRead();
+
+    /**
+     * @return number of premises and implied atoms of all clauses read
+     */
+    long getAtomOccurrencesRead();
+
+    /**
+     * @return number of distinct atoms of all formulas read
+     */
+    long getAtomsRead();
+
+    /**
+     * @return number of lines tokenized by the line-based parsers, including duplicate clauses that are dropped
+     */
+    long getLinesTokenized();
+
+    long getParseAllocatedBytes();
+
+    long getSolveCount();
+
+    long getSolveTimeNanos();
+
+    /**
+     * @return number of marked atoms whose consequences have been propagated
+     */
+    long getPropagationSteps();
+
+    /**
+     * @return number of clause counters decremented while propagating
+     */
+    long getClausesVisited();
+
+    /**
+     * @return largest number of atoms that have been waiting in the queue for propagation at once, over all formulas
+     */
+    long getQueueHighWaterMark();
+
+    long getSolveAllocatedBytes();
+
+    long getRenderCount();
+
+    long getRenderTimeNanos();
+
+    long getRenderAllocatedBytes();
+
+    /**
+     * @return number of lookups of the result cache that found a result, by content or by canonical fingerprint
+     */
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    long getCacheEvictions();
+
+    void reset();
+}
@@ -8,27 +8,88 @@ import java.util.Optional;
 public class SolverResult {
 
     private final SatResult satResult;
-    private final Optional<Map<IAtom, Boolean>> satisfiableConfiguration;
+    private final Model model;
+    private final UnsatCore unsatCore;
+    private final String abortReason;
 
-    private SolverResult(final SatResult satResult) {
+    private SolverResult(final SatResult satResult, final Model model, final UnsatCore unsatCore,
+                         final String abortReason) {
         this.satResult = satResult;
-        this.satisfiableConfiguration = Optional.empty();
+        this.model = model;
+        this.unsatCore = unsatCore;
+        this.abortReason = abortReason;
     }
 
-    private SolverResult(final SatResult satResult, final Map<IAtom, Boolean> satisfiableConfiguration) {
-        this.satResult = satResult;
-        this.satisfiableConfiguration = Optional.of(satisfiableConfiguration);
+    public static SolverResult unsat() {
+        return new SolverResult(SatResult.UNSAT, null, null, null);
     }
 
-    public static SolverResult unsat() {
-        return new SolverResult(SatResult.UNSAT);
+    public static SolverResult unsat(final UnsatCore unsatCore) {
+        return new SolverResult(SatResult.UNSAT, null, unsatCore, null);
+    }
+
+    public static SolverResult sat(final Model model) {
+        return new SolverResult(SatResult.SAT, model, null, null);
+    }
+
+    /**
+     * Result of a formula whose reading or solving has been aborted because a limit of its {@link SolveContext} has
+     * been exceeded.
+     *
+     * @param abortReason the exceeded limit, e.g. 'the time limit of 100 ms has been exceeded'
+     */
+    public static SolverResult unknown(final String abortReason) {
+        return new SolverResult(SatResult.UNKNOWN, null, null, abortReason);
+    }
+
+    public SatResult getSatResult() {
+        return this.satResult;
+    }
+
+    /**
+     * @return the satisfying configuration, or an empty optional if the formula is unsatisfiable
+     */
+    public Optional<Model> getModel() {
+        return Optional.ofNullable(this.model);
+    }
+
+    /**
+     * @return the clauses from which '⊥' has been derived, or an empty optional if the formula is satisfiable or the
+     *  solver did not log proofs
+     */
+    public Optional<UnsatCore> getUnsatCore() {
+        return Optional.ofNullable(this.unsatCore);
+    }
+
+    /**
+     * @return the limit that has been exceeded, or an empty optional if the formula has been solved
+     */
+    public Optional<String> getAbortReason() {
+        return Optional.ofNullable(this.abortReason);
     }
 
-    public static SolverResult sat(final Map<IAtom, Boolean> satisfiableConfiguration) {
-        return new SolverResult(SatResult.SAT, satisfiableConfiguration);
+    /**
+     * Creates a map of the satisfying configuration. Prefer {@link #getModel()}, which does not box every atom.
+     *
+     * @return map associating every atom of the formula with its truth value, or an empty optional if the formula is
+     *  unsatisfiable
+     */
+    public Optional<Map<IAtom, Boolean>> getSatisfyingConfiguration() {
+        return getModel().map(Model::toMap);
     }
 
     public String getVerdict() {
+        if (!SolverMetrics.isEnabled()) {
+            return renderVerdict();
+        }
+        final long startNanos = System.nanoTime();
+        final long startAllocated = SolverMetrics.allocatedBytes();
+        final String verdict = renderVerdict();
+        SolverMetrics.get().recordRender(startNanos, startAllocated);
+        return verdict;
+    }
+
+    private String renderVerdict() {
         final StringBuilder stringBuilder = new StringBuilder();
 
         stringBuilder.append("Verdict: ").append(this.satResult).append("\n");
@@ -37,15 +98,21 @@ public class SolverResult {
             stringBuilder.append("There exists no configuration that satisfies the given Horn Formula.");
             return stringBuilder.toString();
         }
+        if (this.satResult == SatResult.UNKNOWN) {
+            stringBuilder.append("The solver has been aborted: ").append(this.abortReason).append(".");
+            return stringBuilder.toString();
+        }
 
         stringBuilder.append("e.g. (");
 
-        for (final Map.Entry<IAtom, Boolean> entry : satisfiableConfiguration.get().entrySet()) {
-            stringBuilder
-                    .append(entry.getKey())
-                    .append(": ")
-                    .append(Boolean.toString(entry.getValue()))
-                    .append(", ");
+        for (int atom = 0; atom < model.size(); atom++) {
+            if (model.contains(atom)) {
+                stringBuilder
+                        .append(model.getSymbolTable().getSymbol(atom))
+                        .append(": ")
+                        .append(model.isTrue(atom))
+                        .append(", ");
+            }
         }
         stringBuilder.delete(stringBuilder.length()-2, stringBuilder.length());
         stringBuilder.append(")");
@@ -55,6 +122,7 @@ public class SolverResult {
 
     public enum SatResult {
         SAT,
-        UNSAT
+        UNSAT,
+        UNKNOWN
     }
 }
@@ -0,0 +1,120 @@
+package horn.sat.solver.util;
+
+import horn.sat.solver.store.ClauseStore;
+import horn.sat.solver.store.SymbolTable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Explanation of an unsatisfiable Horn Formula: a subset of its clauses from which '⊥' is derived.
+ *
+ * Every atom of the derivation is marked by exactly one clause, its reason, and every clause is the reason of its
+ * implied atom. Hence, no clause can be dropped from the core without breaking the derivation, although a smaller
+ * core may exist. The clauses are ordered such that the premises of every clause are implied by earlier clauses, the
+ * last clause implies '⊥'.
+ */
+public class UnsatCore {
+
+    private static final int FALSUM = SymbolTable.FALSUM;
+    private static final int VERUM = SymbolTable.VERUM;
+    // Deeper levels of the derivation tree are not indented any further, but prefixed with their depth
+    private static final int MAX_INDENTATION = 32;
+
+    private final SymbolTable symbolTable;
+    private final ClauseStore store;
+    private final int[] clauses;
+
+    /**
+     * @param symbolTable symbol table of the unsatisfiable formula
+     * @param store clauses of the unsatisfiable formula
+     * @param clauses indices of the core's clauses in the store, in the order of the derivation
+     */
+    public UnsatCore(final SymbolTable symbolTable, final ClauseStore store, final int[] clauses) {
+        this.symbolTable = symbolTable;
+        this.store = store;
+        this.clauses = clauses;
+    }
+
+    /**
+     * Returns the indices of the core's clauses in the clause store of the formula, i.e. the positions of the clauses
+     * in the input. The returned array must not be modified.
+     *
+     * @return indices of the clauses in the order of the derivation
+     */
+    public int[] getClauses() {
+        return this.clauses;
+    }
+
+    public int size() {
+        return this.clauses.length;
+    }
+
+    /**
+     * Renders the clause with the given index in the input format, with the truth value constants as '⊥' and '⊤'.
+     *
+     * @param clause index of the clause in the store
+     * @return the clause, e.g. 'a & b -> ⊥'
+     */
+    public String formatClause(final int clause) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        for (int i = store.getPremiseStart(clause); i < store.getPremiseEnd(clause); i++) {
+            if (i > store.getPremiseStart(clause)) {
+                stringBuilder.append(" & ");
+            }
+            stringBuilder.append(symbolTable.getSymbol(store.getPremise(i)));
+        }
+        if (stringBuilder.length() > 0) {
+            stringBuilder.append(' ');
+        }
+        return stringBuilder.append("-> ").append(symbolTable.getSymbol(store.getHead(clause))).toString();
+    }
+
+    /**
+     * Renders the derivation of '⊥' as a tree. Every line shows an atom and the clause that derived it, followed by
+     * the derivations of the clause's premises indented by two spaces. An atom that has been derived further up is
+     * only referenced, so the tree has exactly one line per clause and premise of the core.
+     *
+     * @return the derivation tree, one atom per line
+     */
+    public String getDerivationTree() {
+        final Map<Integer, Integer> reasons = new HashMap<>();
+        for (final int clause : clauses) {
+            reasons.put(store.getHead(clause), clause);
+        }
+
+        final StringBuilder stringBuilder = new StringBuilder();
+        final Set<Integer> derived = new HashSet<>();
+        // Atoms still to be rendered and their depths, the top of the stack is rendered next
+        final Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{FALSUM, 0});
+
+        while (!stack.isEmpty()) {
+            final int[] entry = stack.pop();
+            final int atom = entry[0];
+            final int depth = entry[1];
+
+            stringBuilder.append("  ".repeat(Math.min(depth, MAX_INDENTATION)));
+            if (depth > MAX_INDENTATION) {
+                stringBuilder.append('(').append(depth).append(") ");
+            }
+            stringBuilder.append(symbolTable.getSymbol(atom));
+            final Integer clause = reasons.get(atom);
+            if (atom == VERUM || clause == null) {
+                stringBuilder.append('\n');
+            } else if (!derived.add(atom)) {
+                stringBuilder.append("  (derived above)\n");
+            } else {
+                stringBuilder.append(String.format("  [clause %d: %s]\n", clause, formatClause(clause)));
+                for (int i = store.getPremiseEnd(clause) - 1; i >= store.getPremiseStart(clause); i--) {
+                    stack.push(new int[]{store.getPremise(i), depth + 1});
+                }
+            }
+        }
+        return stringBuilder.toString();
+    }
+}